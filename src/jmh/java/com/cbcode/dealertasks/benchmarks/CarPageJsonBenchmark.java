@@ -0,0 +1,60 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.Cars.model.DTOs.DisplayCarsDto;
+import com.cbcode.dealertasks.Cars.model.Enums.CarStockSold;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a page of the car listing as the response body of GET /cars/all: the page is wrapped in a PagedModel, as
+ * SecurityConfig enables the VIA_DTO page serialisation, and written with an ObjectMapper built like Spring Boot's.
+ * Together with EntityMappingBenchmark.carPage this is the CPU cost of getAllCars after the query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarPageJsonBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageImpl<DisplayCarsDto> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<DisplayCarsDto> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new DisplayCarsDto((long) i + 1, "AB" + (10 + i % 90) + " CDE", "WVWZZZ1KZ" + String.format("%08d", i),
+                    "Model " + (i % 7), i % 2 == 0 ? "Black" : "White", i, i % 3 == 0 ? CarStockSold.SOLD : CarStockSold.STOCK));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(new PagedModel<>(page));
+    }
+}
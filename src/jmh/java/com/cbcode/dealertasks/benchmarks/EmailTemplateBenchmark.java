@@ -0,0 +1,81 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.Users.model.Enums.EmailKind;
+import com.cbcode.dealertasks.Users.service.templates.EmailTemplateRegistry;
+import com.cbcode.dealertasks.Users.service.templates.RenderedEmail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the password reset email (subject, plain text and HTML) from the compiled templates of
+ * {@link EmailTemplateRegistry}, against substituting the variables into the raw template sources with
+ * String.replace on every render, as an uncompiled template would.
+ * Scores are emails per second per thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class EmailTemplateBenchmark {
+
+    private static final Map<String, Object> VARIABLES = Map.of(
+            "resetLink", "http://localhost:3000/reset-password?token=6f1c3e1a-9a54-4d0e-8a4f-3b2e0f6f2c11",
+            "expiresInMinutes", 30L);
+
+    private EmailTemplateRegistry registry;
+    private String subjectSource;
+    private String textSource;
+    private String htmlSource;
+
+    @Setup
+    public void setUp() throws Exception {
+        registry = new EmailTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "locales", new String[]{"en"});
+        ReflectionTestUtils.setField(registry, "defaultLocale", "en");
+        registry.compileTemplates();
+
+        subjectSource = read("email-templates/password-reset/en.subject.txt");
+        textSource = read("email-templates/password-reset/en.txt");
+        htmlSource = read("email-templates/password-reset/en.html");
+    }
+
+    @Benchmark
+    public RenderedEmail compiled() {
+        return registry.render(EmailKind.PASSWORD_RESET, "en-GB", VARIABLES);
+    }
+
+    @Benchmark
+    public RenderedEmail replaceOnRender() {
+        return new RenderedEmail(replace(subjectSource), replace(textSource), replace(htmlSource));
+    }
+
+    private static String replace(String source) {
+        String rendered = source;
+        for (Map.Entry<String, Object> variable : VARIABLES.entrySet()) {
+            rendered = rendered.replace("{{" + variable.getKey() + "}}", String.valueOf(variable.getValue()));
+        }
+        return rendered;
+    }
+
+    private static String read(String path) throws Exception {
+        return new String(new ClassPathResource(path).getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
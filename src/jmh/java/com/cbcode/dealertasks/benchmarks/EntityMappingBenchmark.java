@@ -0,0 +1,130 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.Cars.model.Car;
+import com.cbcode.dealertasks.Cars.model.DTOs.CarDto;
+import com.cbcode.dealertasks.Cars.model.DTOs.DisplayCarsDto;
+import com.cbcode.dealertasks.Cars.model.Enums.CarStockSold;
+import com.cbcode.dealertasks.GlobalConfig.ModelMapperConfig;
+import com.cbcode.dealertasks.Tasks.model.DTOs.TaskDto;
+import com.cbcode.dealertasks.Tasks.model.Enums.TaskPriority;
+import com.cbcode.dealertasks.Tasks.model.Task;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetEnum;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
+import com.cbcode.dealertasks.Valet.model.Valet;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO conversions of the services, with the ModelMapper bean of {@link ModelMapperConfig}.
+ * carPage is the mapping step of CarServiceImpl.getAllCars for one page; task maps the full graph of TaskDto
+ * (car, creator with roles, workshop and valet). The mappings are compiled on the first call, which setUp makes,
+ * so the scores are the steady state of a running server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMappingBenchmark {
+
+    // Default page size of GET /cars/all
+    private static final int PAGE_SIZE = 10;
+
+    private ModelMapper modelMapper;
+    private Car car;
+    private User user;
+    private Task task;
+    private Page<Car> cars;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapperConfig().modelMapper();
+
+        user = new User("Bench", "Mark", "bench.mark@dealer.test", "$2a$10$abcdefghijklmnopqrstuv", true);
+        user.setId(1L);
+        Role admin = new Role(EnumRole.ROLE_ADMIN);
+        admin.setId(1L);
+        Role workshop = new Role(EnumRole.ROLE_WORKSHOP);
+        workshop.setId(3L);
+        user.setRoles(Set.of(admin, workshop));
+
+        List<Car> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(car(i));
+        }
+        cars = new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 1_000);
+        car = content.getFirst();
+
+        task = new Task("PDI", "Pre-delivery inspection and valet", TaskPriority.HIGH,
+                Timestamp.valueOf(LocalDateTime.now().plusDays(2)));
+        task.setId(1L);
+        task.setCreatedBy(user);
+        task.setCar(car);
+        Workshop workshopJob = new Workshop("Check tyres", WorkshopStatusEnum.PENDING, WorkshopEnum.SERVICE);
+        workshopJob.setUser(user);
+        task.setWorkshop(workshopJob);
+        Valet valet = new Valet("Full valet before handover", ValetStatus.PENDING, ValetEnum.FULL_VALET);
+        valet.setUser(user);
+        task.setValet(valet);
+
+        carPage();
+        carDto();
+        task();
+        user();
+    }
+
+    @Benchmark
+    public Page<DisplayCarsDto> carPage() {
+        return cars.map(car -> modelMapper.map(car, DisplayCarsDto.class));
+    }
+
+    @Benchmark
+    public CarDto carDto() {
+        return modelMapper.map(car, CarDto.class);
+    }
+
+    @Benchmark
+    public TaskDto task() {
+        return modelMapper.map(task, TaskDto.class);
+    }
+
+    @Benchmark
+    public UserDto user() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    private static Car car(int i) {
+        Car car = new Car("Model " + (i % 7), i % 2 == 0 ? "Black" : "White", "AB" + (10 + i % 90) + " CDE",
+                "WVWZZZ1KZ" + String.format("%08d", i), i, "Buyer " + i, LocalDateTime.now().plusDays(i % 30));
+        car.setId((long) i + 1);
+        car.setCarStockSold(i % 3 == 0 ? CarStockSold.SOLD : CarStockSold.STOCK);
+        return car;
+    }
+}
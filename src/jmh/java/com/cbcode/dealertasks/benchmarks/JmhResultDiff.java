@@ -0,0 +1,93 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, typically target/jmh-result-&lt;version&gt;.json of two releases, and prints the
+ * change of every benchmark present in both. A change is reported as better or worse only when it exceeds the
+ * threshold and the two scores are further apart than their combined errors; the rest is noise.
+ * Run by the benchmarks profile after the benchmarks when -Djmh.baseline=&lt;file&gt; is given.
+ * Exits with 1 if any benchmark got worse, so a release build can fail on it.
+ */
+public final class JmhResultDiff {
+
+    private static final double DEFAULT_THRESHOLD = 0.10;
+
+    private JmhResultDiff() {
+    }
+
+    /**
+     * @param args - The baseline file, the new file and optionally the threshold as a fraction (default 0.10).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args[0].isBlank()) {
+            System.out.println("No baseline given (-Djmh.baseline=<jmh-result json>), skipping the comparison");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int worse = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", entry.getValue().score(), "new");
+                continue;
+            }
+            Score after = entry.getValue();
+            double change = (after.score() - before.score()) / before.score();
+            boolean significant = Math.abs(change) > threshold
+                    && Math.abs(after.score() - before.score()) > before.error() + after.error();
+            String verdict = "";
+            if (significant) {
+                // Throughput: higher is better; average and sample time: lower is better
+                boolean improved = after.higherIsBetter() == change > 0;
+                verdict = improved ? "better" : "WORSE";
+                if (!improved) {
+                    worse++;
+                }
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %-8s %s%n", entry.getKey(), before.score(), after.score(),
+                    change * 100, after.unit(), verdict);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .sorted()
+                .forEach(key -> System.out.printf("%-90s %14.3f %14s %9s%n", key, baseline.get(key).score(), "-", "removed"));
+
+        if (worse > 0) {
+            System.out.printf("%d benchmark(s) worse than %s by more than %.0f%%%n", worse, args[0], threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    // Keyed by benchmark, mode and parameters, e.g. ...CarPageJsonBenchmark.serialize avgt pageSize=100
+    private static Map<String, Score> read(Path file) throws IOException {
+        JsonNode results = new ObjectMapper().readTree(Files.readString(file));
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(' ').append(result.path("mode").asText());
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), result.path("mode").asText().equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
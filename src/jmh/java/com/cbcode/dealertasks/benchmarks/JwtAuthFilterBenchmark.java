@@ -0,0 +1,173 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
+import com.cbcode.dealertasks.Users.security.impl.JwtAuthFilter;
+import com.cbcode.dealertasks.Users.security.impl.JwtServiceImpl;
+import com.cbcode.dealertasks.Users.security.impl.RevokedTokenBuckets;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication through {@link JwtAuthFilter}.
+ * {@code legacyTripleParse} reproduces the previous path (signing key rebuilt and token parsed three times per request),
+ * {@code filter} runs the real filter, with the verified-claims cache disabled (size 0) and enabled.
+ * The filter builds the user from the token claims; the legacy path gets the user from a stub,
+ * so the database round trips it used to make are not part of its numbers.
+ * The filter also checks revocation against {@link RevokedTokenBuckets} holding {@code REVOKED_TOKENS} live entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-0123456789-benchmark-secret-0123456789";
+    private static final int REVOKED_TOKENS = 10_000;
+
+    @Param({"0", "10000"})
+    public int claimsCacheSize;
+
+    private JwtAuthFilter filter;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtServiceImpl jwtService = new JwtServiceImpl(new FixedSecurityVersions(), revokedTokens());
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationInMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "jwtRefreshExpirationInMs", TimeUnit.DAYS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "claimsCacheSize", claimsCacheSize);
+        jwtService.validateConfiguration();
+
+        User user = new User("Bench", "Mark", "bench.mark@dealer.test", "{noop}password", true);
+        user.setId(1L);
+        user.setRoles(Set.of(new Role(EnumRole.ROLE_ADMIN)));
+        userDetails = new AuthUser(user);
+        token = jwtService.generateJwtToken(userDetails);
+
+        SecurityUserService users = new SecurityUserService() {
+            @Override
+            public UserDetailsService userDetailsService() {
+                return username -> userDetails;
+            }
+
+            @Override
+            public void evictUser(String email) {
+            }
+        };
+        filter = new JwtAuthFilter(jwtService, users);
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = newRequest();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        MockHttpServletRequest request = newRequest();
+        String jwt = request.getHeader("Authorization").substring(7);
+        String username = legacyParse(jwt).getSubject();
+        // validateToken re-parsed the token for the subject and once more for the expiration
+        return username.equals(userDetails.getUsername())
+                && legacyParse(jwt).getSubject().equals(userDetails.getUsername())
+                && !legacyParse(jwt).getExpiration().before(new Date());
+    }
+
+    private MockHttpServletRequest newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cars/all");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static Claims legacyParse(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    private static TokenRevocationService revokedTokens() {
+        RevokedTokenBuckets buckets = new RevokedTokenBuckets(TimeUnit.MINUTES.toMillis(1));
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < REVOKED_TOKENS; i++) {
+            buckets.add(UUID.randomUUID().toString(), now + TimeUnit.SECONDS.toMillis(i % 3600));
+        }
+        return new TokenRevocationService() {
+            @Override
+            public void revoke(Claims claims) {
+                buckets.add(claims.getId(), claims.getExpiration().getTime());
+            }
+
+            @Override
+            public boolean isRevoked(Claims claims) {
+                return buckets.contains(claims.getId(), claims.getExpiration().getTime());
+            }
+        };
+    }
+
+    private static final class FixedSecurityVersions implements SecurityVersionService {
+
+        @Override
+        public boolean isCurrent(Long userId, long securityVersion) {
+            return securityVersion == 0;
+        }
+
+        @Override
+        public long currentVersion(Long userId) {
+            return 0;
+        }
+
+        @Override
+        public void bump(User user) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void userDeleted(Long userId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
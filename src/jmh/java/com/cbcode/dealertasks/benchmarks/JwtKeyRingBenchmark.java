@@ -0,0 +1,95 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.Users.security.impl.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of the {@link JwtKeyRing} algorithms.
+ * The ring holds {@code RING_SIZE} keys, so the verify numbers include the kid lookup of a rotated ring.
+ * Verification bypasses the verified-claims cache, which is what every first request with a new token pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtKeyRingBenchmark {
+
+    private static final int RING_SIZE = 3;
+
+    @Param({"HS256", "EdDSA", "ES256"})
+    public String algorithm;
+
+    private JwtKeyRing keyRing;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] entries = new String[RING_SIZE];
+        for (int i = 0; i < RING_SIZE; i++) {
+            entries[i] = entry("key-" + i);
+        }
+        keyRing = JwtKeyRing.of(null, entries, "key-" + (RING_SIZE - 1));
+        parser = Jwts.parser().keyLocator(keyRing).build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        return keyRing.sign(Jwts.builder()
+                        .subject("bench.mark@dealer.test")
+                        .claim("uid", 1L)
+                        .issuedAt(new Date())
+                        .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1))))
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    private String entry(String kid) throws Exception {
+        Base64.Encoder base64 = Base64.getEncoder();
+        if (algorithm.equals("HS256")) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            return kid + ":HS256:" + base64.encodeToString(secret);
+        }
+        KeyPairGenerator generator;
+        if (algorithm.equals("EdDSA")) {
+            generator = KeyPairGenerator.getInstance("Ed25519");
+        } else {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+        KeyPair keyPair = generator.generateKeyPair();
+        return kid + ":" + algorithm + ":" + base64.encodeToString(keyPair.getPrivate().getEncoded())
+                + ":" + base64.encodeToString(keyPair.getPublic().getEncoded());
+    }
+}
@@ -0,0 +1,105 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.ExceptionsConfig.TooManyRequestsException;
+import com.cbcode.dealertasks.Users.security.impl.LoginThrottleServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a light API request (serializing a page of cars) while other threads run a credential-stuffing attack
+ * against login, with and without the login throttle in front of BCrypt.
+ * Compare {@code attack:apiRequest} between {@code throttled=false} and {@code throttled=true},
+ * and against {@code idle:apiRequestAlone} as the no-attack baseline.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginAttackBenchmark {
+
+    private static final int ATTACKED_EMAILS = 1_000;
+    private static final int ATTACKING_ADDRESSES = 50;
+
+    @Param({"false", "true"})
+    public boolean throttled;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String storedHash;
+    private LoginThrottleServiceImpl loginThrottle;
+    private ObjectMapper objectMapper;
+    private List<Map<String, Object>> carsPage;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        storedHash = passwordEncoder.encode("correct-horse-battery");
+
+        loginThrottle = new LoginThrottleServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(loginThrottle, "emailCapacity", 5);
+        ReflectionTestUtils.setField(loginThrottle, "emailRefillIntervalInMs", 60_000L);
+        ReflectionTestUtils.setField(loginThrottle, "addressCapacity", 20);
+        ReflectionTestUtils.setField(loginThrottle, "addressRefillIntervalInMs", 3_000L);
+        ReflectionTestUtils.setField(loginThrottle, "maxKeys", 100_000);
+        loginThrottle.initializeLimiters();
+
+        objectMapper = new ObjectMapper();
+        carsPage = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            carsPage.add(Map.of("id", i, "registration", "AB" + i + " CDE", "model", "Model " + i, "colour", "Grey"));
+        }
+    }
+
+    @Benchmark
+    @Group("attack")
+    @GroupThreads(6)
+    public boolean attackerLogin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (throttled) {
+            try {
+                loginThrottle.checkLoginAllowed("user" + random.nextInt(ATTACKED_EMAILS) + "@dealer.test",
+                        "10.0.0." + random.nextInt(ATTACKING_ADDRESSES));
+            } catch (TooManyRequestsException e) {
+                return false;
+            }
+        }
+        return passwordEncoder.matches("guess-" + random.nextInt(), storedHash);
+    }
+
+    @Benchmark
+    @Group("attack")
+    @GroupThreads(2)
+    public String apiRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(carsPage);
+    }
+
+    @Benchmark
+    @Group("idle")
+    @GroupThreads(2)
+    public String apiRequestAlone() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(carsPage);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import com.cbcode.dealertasks.GlobalConfig.PooledJavaMailSender;
+import com.cbcode.dealertasks.UserTests.FakeSmtpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sending a batch of emails to the in-process {@link FakeSmtpServer}: the stock JavaMailSenderImpl
+ * (new connection per send call, NOOP before every message) against {@link PooledJavaMailSender}.
+ * Scores are batches per second; multiply by {@code batchSize} for messages per second.
+ * The fake server answers instantly, so the numbers show the protocol overhead only; against a real server
+ * with TLS and AUTH the connection setup the pool saves is far larger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(2)
+public class MailTransportBenchmark {
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private FakeSmtpServer smtpServer;
+    private JavaMailSenderImpl connectionPerSend;
+    private PooledJavaMailSender pooled;
+    private SimpleMailMessage[] messages;
+
+    @Setup
+    public void setUp() throws Exception {
+        smtpServer = new FakeSmtpServer(false);
+        connectionPerSend = new JavaMailSenderImpl();
+        connectionPerSend.setHost("localhost");
+        connectionPerSend.setPort(smtpServer.getPort());
+        pooled = new PooledJavaMailSender(2, TimeUnit.MINUTES.toMillis(1), TimeUnit.SECONDS.toMillis(10), new SimpleMeterRegistry());
+        pooled.setHost("localhost");
+        pooled.setPort(smtpServer.getPort());
+
+        messages = new SimpleMailMessage[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("noreply@dealer.test");
+            message.setTo("technician" + i + "@dealer.test");
+            message.setSubject("Task assigned");
+            message.setText("A new task has been assigned to you.");
+            messages[i] = message;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        pooled.destroy();
+        smtpServer.close();
+    }
+
+    @Benchmark
+    public void connectionPerSend() {
+        connectionPerSend.send(messages);
+    }
+
+    @Benchmark
+    public void pooled() {
+        pooled.send(messages);
+    }
+}
@@ -0,0 +1,148 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Soak test of the status board against a running instance: connects many screens to /board/stream, flips the
+ * status of a few workshop jobs at a steady rate, and every ten seconds prints the connected screens, delivered
+ * events, delivery latency (commit to screen) and the server's CPU usage from the actuator.
+ * With the fan-out ring the CPU line should stay flat as screens are added, and latency should not grow with them.
+ * <pre>
+ * java -cp target/test-classes:target/classes com.cbcode.dealertasks.benchmarks.StatusBoardSoakTest \
+ *     http://localhost:8080 &lt;admin access token&gt; 12,13,14 500 300 5
+ * </pre>
+ * Arguments: base URL, admin access token, workshop job ids to flip, screens (default 500),
+ * duration in seconds (default 300), status changes per second (default 5).
+ */
+public class StatusBoardSoakTest {
+
+    private static final int MAX_LATENCY_MS = 10_000;
+    private static final Pattern CHANGED_AT = Pattern.compile("\"changedAt\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern CPU = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee-]+)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: StatusBoardSoakTest <baseUrl> <accessToken> <jobIds> [screens] [durationSeconds] [changesPerSecond]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        String token = args[1];
+        String[] jobIds = args[2].split(",");
+        int screens = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        long durationMs = TimeUnit.SECONDS.toMillis(args.length > 4 ? Long.parseLong(args[4]) : 300);
+        int changesPerSecond = args.length > 5 ? Integer.parseInt(args[5]) : 5;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        AtomicInteger connected = new AtomicInteger();
+        LongAdder received = new LongAdder();
+        LongAdder resyncs = new LongAdder();
+        AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        long deadline = System.currentTimeMillis() + durationMs;
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpRequest streamRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/board/stream?topics=WORKSHOP"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            for (int i = 0; i < screens; i++) {
+                threads.submit(() -> {
+                    try {
+                        HttpResponse<Stream<String>> response = httpClient.send(streamRequest, HttpResponse.BodyHandlers.ofLines());
+                        connected.incrementAndGet();
+                        try (Stream<String> lines = response.body()) {
+                            lines.takeWhile(line -> System.currentTimeMillis() < deadline).forEach(line -> {
+                                if (line.startsWith("event:resync")) {
+                                    resyncs.increment();
+                                }
+                                Matcher matcher = CHANGED_AT.matcher(line);
+                                if (line.startsWith("data:") && matcher.find()) {
+                                    long latencyMs = Duration.between(Instant.parse(matcher.group(1)), Instant.now()).toMillis();
+                                    latencyHistogram.incrementAndGet((int) Math.max(0, Math.min(latencyMs, MAX_LATENCY_MS)));
+                                    received.increment();
+                                }
+                            });
+                        } finally {
+                            connected.decrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        System.err.println("Screen failed: " + e.getMessage());
+                    }
+                    return null;
+                });
+            }
+
+            threads.submit(() -> {
+                long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, changesPerSecond);
+                long next = System.nanoTime();
+                for (long change = 0; System.currentTimeMillis() < deadline; change++) {
+                    String jobId = jobIds[(int) (change % jobIds.length)];
+                    String status = (change / jobIds.length) % 2 == 0 ? "IN_PROGRESS" : "PENDING";
+                    HttpRequest patch = HttpRequest.newBuilder(URI.create(baseUrl + "/workshop/" + jobId + "/status?status=" + status))
+                            .header("Authorization", "Bearer " + token)
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    try {
+                        httpClient.send(patch, HttpResponse.BodyHandlers.discarding());
+                    } catch (Exception e) {
+                        System.err.println("Status change failed: " + e.getMessage());
+                    }
+                    next += interval;
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+                }
+                return null;
+            });
+
+            HttpRequest cpuRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/process.cpu.usage"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            while (System.currentTimeMillis() < deadline) {
+                TimeUnit.SECONDS.sleep(10);
+                String cpu;
+                try {
+                    Matcher matcher = CPU.matcher(httpClient.send(cpuRequest, HttpResponse.BodyHandlers.ofString()).body());
+                    cpu = matcher.find() ? String.format("%.1f%%", Double.parseDouble(matcher.group(1)) * 100) : "n/a";
+                } catch (Exception e) {
+                    cpu = "n/a";
+                }
+                long total = received.sum();
+                System.out.printf("screens=%d events=%d resyncs=%d latency ms p50=%d p99=%d max=%d server cpu=%s%n",
+                        connected.get(), total, resyncs.sum(), percentile(latencyHistogram, total, 0.50),
+                        percentile(latencyHistogram, total, 0.99), percentile(latencyHistogram, total, 1.0), cpu);
+            }
+            threads.shutdownNow();
+        }
+    }
+
+    private static int percentile(AtomicLongArray histogram, long total, double percentile) {
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long seen = 0;
+        for (int latencyMs = 0; latencyMs < histogram.length(); latencyMs++) {
+            seen += histogram.get(latencyMs);
+            if (seen >= target) {
+                return latencyMs;
+            }
+        }
+        return MAX_LATENCY_MS;
+    }
+}
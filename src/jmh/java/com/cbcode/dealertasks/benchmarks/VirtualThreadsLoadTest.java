@@ -0,0 +1,109 @@
+package com.cbcode.dealertasks.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test against a running instance, used to compare platform and virtual request threads.
+ * Each client sends one authenticated GET, waits for the answer and sends the next, for the given duration.
+ * <p>
+ * Start the application once with {@code spring.threads.virtual.enabled=false} and once with {@code true},
+ * same database and pool size, and run against each:
+ * <pre>
+ * java -cp target/test-classes:target/classes com.cbcode.dealertasks.benchmarks.VirtualThreadsLoadTest \
+ *     http://localhost:8080 &lt;access token&gt; /cars/all 2000 60
+ * </pre>
+ * Arguments: base URL, access token, path (default /cars/all), clients (default 2000), duration in seconds (default 60).
+ * The first tenth of the run is a warm-up and is not recorded.
+ */
+public class VirtualThreadsLoadTest {
+
+    private static final int MAX_LATENCY_MS = 30_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: VirtualThreadsLoadTest <baseUrl> <accessToken> [path] [clients] [durationSeconds]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0] + (args.length > 2 ? args[2] : "/cars/all"));
+        String token = args[1];
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        long durationMs = TimeUnit.SECONDS.toMillis(args.length > 4 ? Long.parseLong(args[4]) : 60);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofMillis(MAX_LATENCY_MS))
+                .GET()
+                .build();
+
+        AtomicLongArray latencyHistogram = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long start = System.currentTimeMillis();
+        long recordFrom = start + durationMs / 10;
+        long deadline = start + durationMs;
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Runnable> loops = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                loops.add(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        long sentAt = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (System.currentTimeMillis() < recordFrom) {
+                            continue;
+                        }
+                        if (ok) {
+                            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+                            latencyHistogram.incrementAndGet((int) Math.min(latencyMs, MAX_LATENCY_MS));
+                            completed.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    }
+                });
+            }
+            loops.forEach(clientThreads::submit);
+        }
+
+        double recordedSeconds = (deadline - recordFrom) / 1000.0;
+        System.out.printf("clients=%d recorded=%.0fs ok=%d failed=%d throughput=%.1f req/s%n",
+                clients, recordedSeconds, completed.sum(), failed.sum(), completed.sum() / recordedSeconds);
+        System.out.printf("latency ms p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                percentile(latencyHistogram, completed.sum(), 0.50), percentile(latencyHistogram, completed.sum(), 0.90),
+                percentile(latencyHistogram, completed.sum(), 0.99), percentile(latencyHistogram, completed.sum(), 0.999),
+                percentile(latencyHistogram, completed.sum(), 1.0));
+    }
+
+    private static int percentile(AtomicLongArray histogram, long total, double percentile) {
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long seen = 0;
+        for (int latencyMs = 0; latencyMs < histogram.length(); latencyMs++) {
+            seen += histogram.get(latencyMs);
+            if (seen >= target) {
+                return latencyMs;
+            }
+        }
+        return MAX_LATENCY_MS;
+    }
+}
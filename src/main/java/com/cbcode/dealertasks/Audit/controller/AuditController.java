@@ -0,0 +1,42 @@
+package com.cbcode.dealertasks.Audit.controller;
+
+import com.cbcode.dealertasks.Audit.model.DTOs.AuditPageDto;
+import com.cbcode.dealertasks.Audit.service.AuditService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/admin/audit")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    public AuditController(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    /**
+     * Audited admin actions, newest first.
+     * @param actorId - Only actions performed by this user.
+     * @param targetId - Only actions performed on this user.
+     * @param from - Only actions at or after this time, e.g. 2026-10-01T00:00:00.
+     * @param to - Only actions before this time.
+     * @return - The page of audit events.
+     */
+    @GetMapping(produces = "application/json")
+    public ResponseEntity<AuditPageDto> getAuditEvents(
+            @RequestParam(required = false) Long actorId,
+            @RequestParam(required = false) Long targetId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditService.find(actorId, targetId, from, to, page, size));
+    }
+}
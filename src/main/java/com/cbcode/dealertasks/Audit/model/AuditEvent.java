@@ -0,0 +1,25 @@
+package com.cbcode.dealertasks.Audit.model;
+
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One audited admin action, as stored in audit_log. eventId is assigned when the action is recorded, so writing the
+ * same event twice (e.g. when replaying the spill file) stores it once.
+ * @param actorId - The user who performed the action, or null for the system.
+ * @param targetId - The user the action was performed on.
+ * @param details - A short description of the change, e.g. the new roles.
+ */
+public record AuditEvent(
+        UUID eventId,
+        LocalDateTime occurredAt,
+        AuditAction action,
+        Long actorId,
+        String actorEmail,
+        Long targetId,
+        String targetEmail,
+        String details
+) {
+}
@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Audit.model.DTOs;
+
+import com.cbcode.dealertasks.Audit.model.AuditEvent;
+
+import java.util.List;
+
+/**
+ * One page of audit events, newest first. There is no total, so that a query never counts a whole partition range.
+ */
+public record AuditPageDto(
+        List<AuditEvent> items,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
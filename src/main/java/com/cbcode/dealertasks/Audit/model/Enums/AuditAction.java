@@ -0,0 +1,10 @@
+package com.cbcode.dealertasks.Audit.model.Enums;
+
+public enum AuditAction {
+    USER_UPDATED,
+    USER_ROLES_CHANGED,
+    USER_DISABLED,
+    USER_ENABLED,
+    USER_DELETED,
+    USER_IMPORTED
+}
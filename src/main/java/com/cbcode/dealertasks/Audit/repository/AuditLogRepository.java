@@ -0,0 +1,163 @@
+package com.cbcode.dealertasks.Audit.repository;
+
+import com.cbcode.dealertasks.Audit.model.AuditEvent;
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads and writes audit_log with plain JDBC. The table is range-partitioned by month on occurred_at, which Hibernate
+ * cannot generate, so the schema and the monthly partitions are created here. Rows can only be inserted: a trigger
+ * rejects updates and deletes, and old months are removed by dropping their partition.
+ */
+@Repository
+public class AuditLogRepository {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS audit_log (
+                event_id uuid NOT NULL,
+                occurred_at timestamp NOT NULL,
+                action varchar(40) NOT NULL,
+                actor_id bigint,
+                actor_email varchar(255),
+                target_id bigint,
+                target_email varchar(255),
+                details varchar(1000),
+                PRIMARY KEY (event_id, occurred_at)
+            ) PARTITION BY RANGE (occurred_at)""";
+
+    private static final String[] CREATE_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_audit_log_actor ON audit_log (actor_id, occurred_at)",
+            "CREATE INDEX IF NOT EXISTS idx_audit_log_target ON audit_log (target_id, occurred_at)",
+            "CREATE INDEX IF NOT EXISTS idx_audit_log_occurred_at ON audit_log (occurred_at)"
+    };
+
+    private static final String CREATE_APPEND_ONLY_FUNCTION = """
+            CREATE OR REPLACE FUNCTION audit_log_append_only() RETURNS trigger AS $$
+            BEGIN
+                RAISE EXCEPTION 'audit_log is append-only';
+            END
+            $$ LANGUAGE plpgsql""";
+
+    private static final String CREATE_APPEND_ONLY_TRIGGER = """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'audit_log_append_only') THEN
+                    CREATE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE ON audit_log
+                        FOR EACH ROW EXECUTE FUNCTION audit_log_append_only();
+                END IF;
+            END
+            $$""";
+
+    private static final String INSERT = """
+            INSERT INTO audit_log (event_id, occurred_at, action, actor_id, actor_email, target_id, target_email, details)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING""";
+
+    private static final String SELECT = """
+            SELECT event_id, occurred_at, action, actor_id, actor_email, target_id, target_email, details
+            FROM audit_log""";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final RowMapper<AuditEvent> ROW_MAPPER = (resultSet, rowNumber) -> new AuditEvent(
+            resultSet.getObject("event_id", UUID.class),
+            resultSet.getTimestamp("occurred_at").toLocalDateTime(),
+            AuditAction.valueOf(resultSet.getString("action")),
+            resultSet.getObject("actor_id", Long.class),
+            resultSet.getString("actor_email"),
+            resultSet.getObject("target_id", Long.class),
+            resultSet.getString("target_email"),
+            resultSet.getString("details"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Creates the partitioned table, its indexes and the append-only trigger, if they do not exist yet.
+     */
+    public void createSchema() {
+        jdbcTemplate.execute(CREATE_TABLE);
+        for (String createIndex : CREATE_INDEXES) {
+            jdbcTemplate.execute(createIndex);
+        }
+        jdbcTemplate.execute(CREATE_APPEND_ONLY_FUNCTION);
+        jdbcTemplate.execute(CREATE_APPEND_ONLY_TRIGGER);
+    }
+
+    /**
+     * Creates the partition of the given month, e.g. audit_log_y2026m10, if it does not exist yet.
+     */
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_log_" + month.format(PARTITION_SUFFIX)
+                + " PARTITION OF audit_log FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /**
+     * Inserts the events in one batch; events already stored are skipped.
+     * The partitions of their months must exist.
+     */
+    public void insertAll(List<AuditEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setObject(1, event.eventId());
+            statement.setTimestamp(2, Timestamp.valueOf(event.occurredAt()));
+            statement.setString(3, event.action().name());
+            statement.setObject(4, event.actorId());
+            statement.setString(5, event.actorEmail());
+            statement.setObject(6, event.targetId());
+            statement.setString(7, event.targetEmail());
+            statement.setString(8, event.details());
+        });
+    }
+
+    /**
+     * @param actorId - Only events performed by this user, or null.
+     * @param targetId - Only events performed on this user, or null.
+     * @param from - Only events at or after this time, or null.
+     * @param to - Only events before this time, or null.
+     * @param offset - The number of events to skip.
+     * @param limit - The maximum number of events.
+     * @return - The events, newest first.
+     */
+    public List<AuditEvent> find(Long actorId, Long targetId, LocalDateTime from, LocalDateTime to, long offset, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> arguments = new ArrayList<>();
+        String separator = " WHERE ";
+        if (actorId != null) {
+            sql.append(separator).append("actor_id = ?");
+            arguments.add(actorId);
+            separator = " AND ";
+        }
+        if (targetId != null) {
+            sql.append(separator).append("target_id = ?");
+            arguments.add(targetId);
+            separator = " AND ";
+        }
+        // Ranges on occurred_at also restrict the query to the partitions of the months involved
+        if (from != null) {
+            sql.append(separator).append("occurred_at >= ?");
+            arguments.add(Timestamp.valueOf(from));
+            separator = " AND ";
+        }
+        if (to != null) {
+            sql.append(separator).append("occurred_at < ?");
+            arguments.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY occurred_at DESC, event_id DESC LIMIT ? OFFSET ?");
+        arguments.add(limit);
+        arguments.add(offset);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, arguments.toArray());
+    }
+}
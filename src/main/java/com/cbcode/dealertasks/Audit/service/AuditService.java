@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Audit.service;
+
+import com.cbcode.dealertasks.Audit.model.DTOs.AuditPageDto;
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+
+import java.time.LocalDateTime;
+
+public interface AuditService {
+
+    void record(AuditAction action, Long targetId, String targetEmail, String details);
+
+    AuditPageDto find(Long actorId, Long targetId, LocalDateTime from, LocalDateTime to, int page, int size);
+}
@@ -0,0 +1,248 @@
+package com.cbcode.dealertasks.Audit.service.impl;
+
+import com.cbcode.dealertasks.Audit.model.AuditEvent;
+import com.cbcode.dealertasks.Audit.model.DTOs.AuditPageDto;
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+import com.cbcode.dealertasks.Audit.repository.AuditLogRepository;
+import com.cbcode.dealertasks.Audit.service.AuditService;
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of admin actions, written off the request path.
+ * <p>
+ * record() builds the event and, once the surrounding transaction commits, offers it to an MpscRing; the calling
+ * thread never touches the database. A single writer thread drains the ring and inserts the events in batches into
+ * audit_log, creating the monthly partitions as it goes. When the ring is full, or the database write fails, the
+ * events go to a local spill file instead, which the writer replays once the database accepts writes again.
+ * Events are only lost if the spill file cannot be written either, and each loss is logged.
+ */
+@Service
+public class AuditServiceImpl implements AuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditServiceImpl.class);
+    private static final String METRIC = "audit";
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${dealer_management_system.audit.ringSize:8192}")
+    private int ringSize;
+    @Value("${dealer_management_system.audit.batchSize:500}")
+    private int batchSize;
+    @Value("${dealer_management_system.audit.flushInterval:200}")
+    private long flushInterval;
+    @Value("${dealer_management_system.audit.spillFile:audit-spill.jsonl}")
+    private String spillPath;
+    @Value("${dealer_management_system.audit.spillReplayInterval:60000}")
+    private long spillReplayInterval;
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    // Months with a partition; only used by the writer thread
+    private final Set<YearMonth> partitions = new HashSet<>();
+
+    private MpscRing<AuditEvent> ring;
+    private AuditSpillFile spillFile;
+    private Thread writer;
+    private volatile boolean running = true;
+    private boolean schemaReady;
+    private Counter writtenEvents;
+    private Counter spilledEvents;
+    private Counter lostEvents;
+
+    public AuditServiceImpl(AuditLogRepository auditLogRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.auditLogRepository = auditLogRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        ring = new MpscRing<>(ringSize);
+        spillFile = new AuditSpillFile(Path.of(spillPath), objectMapper);
+        writtenEvents = Counter.builder(METRIC + ".events").tag("result", "written").register(meterRegistry);
+        spilledEvents = Counter.builder(METRIC + ".events").tag("result", "spilled").register(meterRegistry);
+        lostEvents = Counter.builder(METRIC + ".events").tag("result", "lost").register(meterRegistry);
+        Gauge.builder(METRIC + ".ring.size", ring, MpscRing::size).register(meterRegistry);
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::runWriter);
+    }
+
+    /**
+     * Stops the writer once the ring is empty. Events it could not write in time go to the spill file.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!writer.isAlive()) {
+            List<AuditEvent> remaining = new ArrayList<>();
+            while (ring.drainTo(remaining, batchSize) > 0) {
+                spill(remaining);
+                remaining.clear();
+            }
+        }
+    }
+
+    /**
+     * Records an action of the authenticated user, once the surrounding transaction (if any) commits.
+     * Never blocks on the database.
+     * @param action - The action performed.
+     * @param targetId - The id of the user the action was performed on.
+     * @param targetEmail - The email of that user.
+     * @param details - A short description of the change, or null.
+     */
+    @Override
+    public void record(AuditAction action, Long targetId, String targetEmail, String details) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long actorId = null;
+        String actorEmail = null;
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser) {
+            actorId = authUser.getId();
+            actorEmail = authUser.getUsername();
+        }
+        AuditEvent event = new AuditEvent(UUID.randomUUID(), LocalDateTime.now(), action, actorId, actorEmail,
+                targetId, targetEmail, details);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(event);
+            }
+        });
+    }
+
+    /**
+     * Finds audit events, newest first. Events recorded in the last flush interval may not be visible yet.
+     * @param actorId - Only events performed by this user, or null.
+     * @param targetId - Only events performed on this user, or null.
+     * @param from - Only events at or after this time, or null.
+     * @param to - Only events before this time, or null.
+     * @param page - The page number, from 0.
+     * @param size - The page size, at most 100.
+     * @return - The page of events.
+     * @throws ArgumentNotPresentException - If the page, size or time range is invalid.
+     */
+    @Override
+    public AuditPageDto find(Long actorId, Long targetId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ArgumentNotPresentException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ArgumentNotPresentException("The start of the time range must be before its end");
+        }
+        List<AuditEvent> events = auditLogRepository.find(actorId, targetId, from, to, (long) page * size, size + 1);
+        boolean hasNext = events.size() > size;
+        return new AuditPageDto(hasNext ? events.subList(0, size) : events, page, size, hasNext);
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (running && ring.offer(event)) {
+            return;
+        }
+        logger.warn("Audit ring full or writer stopped, spilling {} event for user {}", event.action(), event.targetId());
+        spill(List.of(event));
+    }
+
+    private void runWriter() {
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        long replayNanos = TimeUnit.MILLISECONDS.toNanos(spillReplayInterval);
+        long nextReplay = System.nanoTime();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            if (ring.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            if (System.nanoTime() - nextReplay >= 0) {
+                replaySpillFile();
+                nextReplay = System.nanoTime() + replayNanos;
+            }
+            LockSupport.parkNanos(flushNanos);
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            insert(batch);
+            writtenEvents.increment(batch.size());
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write {} audit events, spilling them to {}: {}", batch.size(), spillPath, e.getMessage());
+            spill(batch);
+        }
+    }
+
+    private void insert(List<AuditEvent> events) {
+        if (!schemaReady) {
+            auditLogRepository.createSchema();
+            schemaReady = true;
+        }
+        for (AuditEvent event : events) {
+            YearMonth month = YearMonth.from(event.occurredAt());
+            if (!partitions.contains(month)) {
+                auditLogRepository.createPartition(month);
+                partitions.add(month);
+            }
+        }
+        auditLogRepository.insertAll(events);
+    }
+
+    private void replaySpillFile() {
+        if (!spillFile.hasPending()) {
+            return;
+        }
+        try {
+            int replayed = spillFile.replay(batchSize, this::insert);
+            writtenEvents.increment(replayed);
+            logger.info("Replayed {} spilled audit events", replayed);
+        } catch (IOException | DataAccessException e) {
+            logger.warn("Failed to replay the audit spill file, retrying in {} ms: {}", spillReplayInterval, e.getMessage());
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        try {
+            spillFile.append(events);
+            spilledEvents.increment(events.size());
+        } catch (IOException e) {
+            lostEvents.increment(events.size());
+            // Last resort: the log is the only record left of these events
+            events.forEach(event -> logger.error("Lost audit event {}", event));
+            logger.error("Failed to write the audit spill file {}", spillPath, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.cbcode.dealertasks.Audit.service.impl;
+
+import com.cbcode.dealertasks.Audit.model.AuditEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Local file keeping the audit events that could not be written to the database, one JSON object per line,
+ * until they are replayed. Appends are forced to disk before returning.
+ * A replay first moves the file aside (.replaying), so events spilled meanwhile go to a new file; the moved file is
+ * deleted once all of it is written, and replayed again from the start otherwise.
+ */
+public class AuditSpillFile {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpillFile.class);
+
+    private final Path file;
+    private final Path replaying;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AuditSpillFile(Path file, ObjectMapper objectMapper) {
+        this.file = file.toAbsolutePath();
+        this.replaying = this.file.resolveSibling(this.file.getFileName() + ".replaying");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Appends the events. Safe to call from any thread.
+     */
+    public void append(List<AuditEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (AuditEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean hasPending() {
+        return Files.exists(file) || Files.exists(replaying);
+    }
+
+    /**
+     * Hands the spilled events to the writer in batches, oldest first. The writer must tolerate events it has already
+     * written, as an interrupted replay starts over. Lines that cannot be read (e.g. cut short by a crash) are skipped.
+     * @param batchSize - The maximum number of events per batch.
+     * @param writer - Writes a batch, or throws to stop the replay.
+     * @return - The number of events replayed.
+     */
+    public int replay(int batchSize, Consumer<List<AuditEvent>> writer) throws IOException {
+        lock.lock();
+        try {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(file)) {
+                    return 0;
+                }
+                Files.move(file, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            lock.unlock();
+        }
+        int replayed = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditEvent.class));
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping unreadable line of audit spill file {}: {}", replaying, e.getOriginalMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    writer.accept(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.accept(batch);
+            replayed += batch.size();
+        }
+        Files.delete(replaying);
+        return replayed;
+    }
+}
@@ -0,0 +1,79 @@
+package com.cbcode.dealertasks.Audit.service.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer offered to by any number of threads and drained by one.
+ * Producers claim a slot with one CAS on the tail and never wait: when the ring is full, offer returns false and the
+ * caller decides what to do with the item. The consumer frees slots as it drains them.
+ */
+public class MpscRing<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only
+    private volatile long head;
+
+    /**
+     * @param capacity - The number of items held at most, rounded up to a power of two.
+     */
+    public MpscRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an item without blocking. Safe to call from any thread.
+     * @return - False if the ring is full.
+     */
+    public boolean offer(T item) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to max items, oldest first, to the given list. Must only be called by the consumer thread.
+     * Stops early at a slot claimed but not yet filled by its producer; the next drain picks it up.
+     * @return - The number of items moved.
+     */
+    public int drainTo(List<T> items, int max) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (sequence & mask);
+            T item = slots.get(index);
+            if (item == null) {
+                break;
+            }
+            slots.set(index, null);
+            items.add(item);
+            sequence++;
+            drained++;
+        }
+        head = sequence;
+        return drained;
+    }
+
+    /**
+     * @return - The number of items claimed and not drained yet; approximate while producers are adding.
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
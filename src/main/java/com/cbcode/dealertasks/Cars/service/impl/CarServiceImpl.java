@@ -9,6 +9,7 @@ import com.cbcode.dealertasks.Cars.service.CarService;
 import com.cbcode.dealertasks.ExceptionsConfig.CarAlreadyExistsException;
 import com.cbcode.dealertasks.ExceptionsConfig.CarNotFoundException;
 import com.cbcode.dealertasks.ExceptionsConfig.UserNotFoundException;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
 import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
 import jakarta.transaction.Transactional;
@@ -32,11 +33,14 @@ public class CarServiceImpl implements CarService {
     private final CarRepository carRepository;
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
+    private final PreparationPlanService preparationPlanService;
 
-    public CarServiceImpl(CarRepository carRepository, ModelMapper modelMapper, UserRepository userRepository) {
+    public CarServiceImpl(CarRepository carRepository, ModelMapper modelMapper, UserRepository userRepository,
+                          PreparationPlanService preparationPlanService) {
         this.carRepository = carRepository;
         this.modelMapper = modelMapper;
         this.userRepository = userRepository;
+        this.preparationPlanService = preparationPlanService;
     }
 
     /**
@@ -220,6 +224,7 @@ public class CarServiceImpl implements CarService {
 
         // TODO: checkSalesPermission(user);
         carRepository.deleteById(id);
+        preparationPlanService.evict(id);
         logger.info("Car deleted successfully with ID: {}", id);
     }
 
@@ -2,7 +2,9 @@ package com.cbcode.dealertasks.ExceptionsConfig.Handlers;
 
 import com.cbcode.dealertasks.ExceptionsConfig.*;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -169,4 +171,13 @@ public class ExceptionsHandling {
         errors.put(MESSAGE, ex.getMessage());
         return errors;
     }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, String>> handleTooManyRequestsException(@NotNull TooManyRequestsException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put(MESSAGE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errors);
+    }
 }
@@ -0,0 +1,40 @@
+package com.cbcode.dealertasks.GlobalConfig;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs @Async methods on Spring Boot's application task executor, with the caller's SecurityContext propagated,
+ * so code reading SecurityContextHolder (e.g. CarServiceImpl.getAuthentication) sees the same user as the request.
+ * <p>
+ * Virtual threads are opt-in with {@code spring.threads.virtual.enabled=true}: Boot then runs Tomcat requests,
+ * the application task executor and the @Scheduled jobs on virtual threads, and this configuration follows.
+ * The database pool, not the Tomcat thread pool, then bounds concurrent work. Password hashing stays on its own
+ * bounded platform pool (IsolatedPasswordEncoder), since CPU-bound work gains nothing from virtual threads.
+ * Pinning can be checked with {@code -Djdk.tracePinnedThreads=short}.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    // Lazy: AsyncConfigurer is created early, before the auto-configured executor should be
+    public AsyncConfig(@Lazy @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                       AsyncTaskExecutor applicationTaskExecutor) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return new DelegatingSecurityContextAsyncTaskExecutor(applicationTaskExecutor);
+    }
+}
@@ -1,10 +1,10 @@
 package com.cbcode.dealertasks.GlobalConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import java.util.Properties;
 
@@ -22,16 +22,43 @@ public class EmailConfig {
     @Value("${spring.mail.password}")
     private String mailPassword;
 
+    @Value("${dealer_management_system.email.smtp.auth:true}")
+    private boolean mailAuth;
+
+    @Value("${dealer_management_system.email.smtp.starttls:true}")
+    private boolean mailStartTls;
+
+    @Value("${dealer_management_system.email.smtp.debug:false}")
+    private boolean mailDebug;
+
+    @Value("${dealer_management_system.email.smtp.connectionTimeout:10000}")
+    private long connectionTimeoutInMs;
+
+    @Value("${dealer_management_system.email.smtp.timeout:10000}")
+    private long timeoutInMs;
+
+    @Value("${dealer_management_system.email.smtp.writeTimeout:10000}")
+    private long writeTimeoutInMs;
+
+    @Value("${dealer_management_system.email.smtp.poolSize:2}")
+    private int poolSize;
+
+    @Value("${dealer_management_system.email.smtp.maxIdle:60000}")
+    private long maxIdleInMs;
+
     /**
      * This method is used to configure the mail server settings.
      * The mail server settings are read from the application.yaml file.
      * Any changes to the mail server settings should be done in the application.yaml file.
-     * The mail server settings are used to send emails to the users when they reset their password.
+     * The sender keeps a pool of connected SMTP transports (see PooledJavaMailSender), so batches of emails
+     * do not pay a TCP, TLS and AUTH handshake each. Every socket operation is bounded by a timeout,
+     * so an unresponsive mail server fails a send instead of hanging the outbox dispatcher.
+     * @param meterRegistry the registry for the SMTP throughput metrics.
      * @return JavaMailSender object with the mail server settings.
      */
     @Bean
-    public JavaMailSender javaMailSender() {
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    public JavaMailSender javaMailSender(MeterRegistry meterRegistry) {
+        PooledJavaMailSender mailSender = new PooledJavaMailSender(poolSize, maxIdleInMs, connectionTimeoutInMs, meterRegistry);
         mailSender.setHost(mailHost);
         mailSender.setPort(Integer.parseInt(mailPort));
         mailSender.setUsername(mailUsername);
@@ -39,9 +66,12 @@ public class EmailConfig {
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.put("mail.smtp.auth", String.valueOf(mailAuth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(mailStartTls));
+        props.put("mail.smtp.connectiontimeout", String.valueOf(connectionTimeoutInMs));
+        props.put("mail.smtp.timeout", String.valueOf(timeoutInMs));
+        props.put("mail.smtp.writetimeout", String.valueOf(writeTimeoutInMs));
+        props.put("mail.debug", String.valueOf(mailDebug));
 
         return mailSender;
     }
@@ -0,0 +1,184 @@
+package com.cbcode.dealertasks.GlobalConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JavaMailSender keeping a small pool of connected, authenticated SMTP transports.
+ * JavaMailSenderImpl connects (TCP, STARTTLS, AUTH) on every send call and checks the connection with a NOOP before
+ * every message; here a send call borrows a pooled connection, sends all its messages over it and gives it back.
+ * Connections idle for longer than maxIdle are closed instead of reused, as servers drop them anyway.
+ * At most poolSize connections are open at once; callers wait up to the connection timeout for one.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledJavaMailSender.class);
+    private static final String METRIC = "mail.smtp";
+
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idleTransports = new ConcurrentLinkedDeque<>();
+    private final long maxIdleNanos;
+    private final long borrowTimeoutMillis;
+
+    private final Counter sentMessages;
+    private final Counter failedMessages;
+    private final Counter openedConnections;
+    private final Timer batchDuration;
+
+    public PooledJavaMailSender(int poolSize, long maxIdleMillis, long borrowTimeoutMillis, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(poolSize, true);
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.sentMessages = Counter.builder(METRIC + ".messages").tag("result", "sent").register(meterRegistry);
+        this.failedMessages = Counter.builder(METRIC + ".messages").tag("result", "failed").register(meterRegistry);
+        this.openedConnections = Counter.builder(METRIC + ".connections.opened").register(meterRegistry);
+        this.batchDuration = Timer.builder(METRIC + ".batch").register(meterRegistry);
+        Gauge.builder(METRIC + ".connections.idle", idleTransports, Deque::size).register(meterRegistry);
+    }
+
+    /**
+     * Sends the messages over one pooled connection. When the connection breaks mid-batch it is replaced,
+     * and the remaining messages go over the new one.
+     * @throws MailAuthenticationException - If the server rejects the credentials.
+     * @throws MailSendException - With the messages that could not be sent.
+     */
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        long start = System.nanoTime();
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        acquirePermit(mimeMessages, originalMessages);
+        PooledTransport pooled = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                if (pooled == null) {
+                    try {
+                        pooled = borrow();
+                    } catch (AuthenticationFailedException e) {
+                        throw new MailAuthenticationException(e);
+                    } catch (MessagingException e) {
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failures.put(original(mimeMessages, originalMessages, j), e);
+                        }
+                        failedMessages.increment(mimeMessages.length - i);
+                        throw new MailSendException("Mail server connection failed", e, failures);
+                    }
+                }
+                try {
+                    sendMessage(pooled.transport(), mimeMessages[i]);
+                    sentMessages.increment();
+                } catch (MessagingException e) {
+                    failures.put(original(mimeMessages, originalMessages, i), e);
+                    failedMessages.increment();
+                    if (!pooled.transport().isConnected()) {
+                        close(pooled);
+                        pooled = null;
+                    }
+                }
+            }
+        } finally {
+            if (pooled != null) {
+                idleTransports.push(new PooledTransport(pooled.transport(), System.nanoTime()));
+            }
+            permits.release();
+            batchDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!failures.isEmpty()) {
+            throw new MailSendException(failures);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.poll()) != null) {
+            close(pooled);
+        }
+    }
+
+    private void acquirePermit(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            Map<Object, Exception> failures = new LinkedHashMap<>();
+            MessagingException busy = new MessagingException("No SMTP connection available");
+            for (int i = 0; i < mimeMessages.length; i++) {
+                failures.put(original(mimeMessages, originalMessages, i), busy);
+            }
+            failedMessages.increment(mimeMessages.length);
+            throw new MailSendException("No SMTP connection available", busy, failures);
+        }
+    }
+
+    /**
+     * Takes the most recently used idle connection, or connects a new one.
+     * Idle connections are checked (one NOOP) before reuse; stale or broken ones are closed.
+     */
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.poll()) != null) {
+            if (System.nanoTime() - pooled.idleSince() < maxIdleNanos && pooled.transport().isConnected()) {
+                return pooled;
+            }
+            close(pooled);
+        }
+        Transport transport = connectTransport();
+        openedConnections.increment();
+        return new PooledTransport(transport, System.nanoTime());
+    }
+
+    private static void sendMessage(Transport transport, MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            // saveChanges generated a new Message-ID; keep the one that was set explicitly
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+    }
+
+    private static Object original(MimeMessage[] mimeMessages, Object[] originalMessages, int index) {
+        return originalMessages != null ? originalMessages[index] : mimeMessages[index];
+    }
+
+    private static void close(PooledTransport pooled) {
+        try {
+            pooled.transport().close();
+        } catch (MessagingException e) {
+            logger.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private record PooledTransport(Transport transport, long idleSince) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.cbcode.dealertasks.Reports.controller;
+
+import com.cbcode.dealertasks.Reports.model.Enums.ReportPeriod;
+import com.cbcode.dealertasks.Reports.model.Enums.ThroughputDimension;
+import com.cbcode.dealertasks.Reports.service.ThroughputService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/reports")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class ReportController {
+
+    private final ThroughputService throughputService;
+
+    public ReportController(ThroughputService throughputService) {
+        this.throughputService = throughputService;
+    }
+
+    /**
+     * Jobs completed per hour (today) or per day (this week, this month), by job type or by technician.
+     * @param period - TODAY, WEEK or MONTH.
+     * @param dimension - JOB_TYPE or TECHNICIAN.
+     * @return - The throughput report.
+     */
+    @GetMapping(value = "/throughput", produces = "application/json")
+    public ResponseEntity<?> getThroughput(@RequestParam(defaultValue = "TODAY") ReportPeriod period,
+                                           @RequestParam(defaultValue = "JOB_TYPE") ThroughputDimension dimension) {
+        return ResponseEntity.ok(throughputService.getThroughput(period, dimension));
+    }
+}
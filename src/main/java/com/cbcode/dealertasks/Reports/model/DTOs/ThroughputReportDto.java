@@ -0,0 +1,17 @@
+package com.cbcode.dealertasks.Reports.model.DTOs;
+
+import com.cbcode.dealertasks.Reports.model.Enums.ReportPeriod;
+import com.cbcode.dealertasks.Reports.model.Enums.ThroughputDimension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ThroughputReportDto(
+        ReportPeriod period,
+        ThroughputDimension dimension,
+        String granularity,
+        LocalDateTime from,
+        LocalDateTime to,
+        List<ThroughputRowDto> rows
+) {
+}
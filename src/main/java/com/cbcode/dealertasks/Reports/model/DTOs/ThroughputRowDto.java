@@ -0,0 +1,19 @@
+package com.cbcode.dealertasks.Reports.model.DTOs;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+
+import java.time.LocalDateTime;
+
+/**
+ * Jobs completed in one period. Grouped by job type, userId and technician are null;
+ * grouped by technician, jobType is null, and userId is null for jobs with no technician.
+ */
+public record ThroughputRowDto(
+        LocalDateTime periodStart,
+        PreparationJobKind kind,
+        String jobType,
+        Long userId,
+        String technician,
+        long completed
+) {
+}
@@ -0,0 +1,7 @@
+package com.cbcode.dealertasks.Reports.model.Enums;
+
+public enum ReportPeriod {
+    TODAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,6 @@
+package com.cbcode.dealertasks.Reports.model.Enums;
+
+public enum ThroughputDimension {
+    JOB_TYPE,
+    TECHNICIAN
+}
@@ -0,0 +1,37 @@
+package com.cbcode.dealertasks.Reports.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The sequence number of the last flush of throughput rollups applied for one application instance.
+ * It is written in the same transaction as the rollups, so a flush retried after its commit went through
+ * but its acknowledgement was lost is recognised and not added twice.
+ */
+@Entity
+@Table(name = "throughput_flushes")
+public class ThroughputFlush implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "instance_id", nullable = false, length = 36)
+    private String instanceId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    public ThroughputFlush() {
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cbcode.dealertasks.Reports.model;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Jobs completed in one hour, per kind of job, job type and technician, as counted by one application instance.
+ * Each instance adds the completions it counted since its previous flush to its own row, in a transaction that also
+ * records the flush in {@link ThroughputFlush}, so a retried flush that had already committed is skipped rather than
+ * counted twice. The instance id is configured or the host name, so the rows of an instance survive its restarts.
+ * Reports sum the rows of all instances.
+ * user_id is 0 for jobs with no technician assigned.
+ */
+@Entity
+@Table(name = "throughput_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_throughput_rollups_bucket",
+                columnNames = {"bucket_start", "kind", "job_type", "user_id", "instance_id"}))
+@SequenceGenerator(name = "throughput_rollups_seq", sequenceName = "throughput_rollups_seq", allocationSize = 1, initialValue = 1)
+public class ThroughputRollup implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "throughput_rollups_seq")
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "kind", nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private PreparationJobKind kind;
+
+    @Column(name = "job_type", nullable = false, length = 32)
+    private String jobType;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "instance_id", nullable = false, length = 36)
+    private String instanceId;
+
+    @Column(name = "completed", nullable = false)
+    private long completed;
+
+    public ThroughputRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public PreparationJobKind getKind() {
+        return kind;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cbcode.dealertasks.Reports.repository;
+
+import com.cbcode.dealertasks.Reports.model.DTOs.ThroughputRowDto;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes and aggregates throughput_rollups with plain JDBC: the flush adds to the stored counts in batches, and the
+ * reports are GROUP BY queries over date_trunc, neither of which maps onto entities. Each flush is recorded in
+ * throughput_flushes in the same transaction.
+ */
+@Repository
+public class ThroughputRollupRepository {
+
+    private static final String ADD = """
+            UPDATE throughput_rollups SET completed = completed + ?
+            WHERE bucket_start = ? AND kind = ? AND job_type = ? AND user_id = ? AND instance_id = ?""";
+
+    private static final String INSERT = """
+            INSERT INTO throughput_rollups (id, bucket_start, kind, job_type, user_id, instance_id, completed)
+            VALUES (nextval('throughput_rollups_seq'), ?, ?, ?, ?, ?, ?)""";
+
+    private static final String LAST_FLUSH = "SELECT last_sequence FROM throughput_flushes WHERE instance_id = ?";
+
+    private static final String ADVANCE_FLUSH = """
+            UPDATE throughput_flushes SET last_sequence = ? WHERE instance_id = ? AND last_sequence < ?""";
+
+    private static final String INSERT_FLUSH = "INSERT INTO throughput_flushes (instance_id, last_sequence) VALUES (?, ?)";
+
+    private static final String BY_JOB_TYPE = """
+            SELECT date_trunc(?, bucket_start) AS period_start, kind, job_type, SUM(completed) AS completed
+            FROM throughput_rollups
+            WHERE bucket_start >= ? AND bucket_start < ?
+            GROUP BY 1, kind, job_type
+            ORDER BY 1, kind, job_type""";
+
+    private static final String BY_TECHNICIAN = """
+            SELECT date_trunc(?, r.bucket_start) AS period_start, r.kind, r.user_id, u.first_name, u.last_name,
+                   SUM(r.completed) AS completed
+            FROM throughput_rollups r
+            LEFT JOIN users u ON u.id = r.user_id
+            WHERE r.bucket_start >= ? AND r.bucket_start < ?
+            GROUP BY 1, r.kind, r.user_id, u.first_name, u.last_name
+            ORDER BY 1, r.kind, r.user_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ThroughputRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return - The sequence number of the last flush applied for the instance, or 0 if it never flushed.
+     */
+    public long lastFlushSequence(String instanceId) {
+        List<Long> sequences = jdbcTemplate.queryForList(LAST_FLUSH, Long.class, instanceId);
+        return sequences.isEmpty() ? 0 : sequences.get(0);
+    }
+
+    /**
+     * Adds the completions counted by this instance since its last flush, in one transaction: the flush's sequence
+     * number is recorded first, then one batch of updates, then one batch of inserts for the rows that do not exist
+     * yet. Only this instance writes rows with its id, so no other writer can insert the same row in between.
+     * @param flushSequence - The sequence number of the flush; a retry of a flush keeps its number.
+     * @param deltas - The completions not written yet, per hour, kind, job type and technician.
+     * @return - False if the flush had already been applied, in which case nothing is added.
+     */
+    @Transactional
+    public boolean addCompleted(String instanceId, long flushSequence, List<RollupTotal> deltas) {
+        if (jdbcTemplate.update(ADVANCE_FLUSH, flushSequence, instanceId, flushSequence) == 0) {
+            if (lastFlushSequence(instanceId) >= flushSequence) {
+                return false;
+            }
+            jdbcTemplate.update(INSERT_FLUSH, instanceId, flushSequence);
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(ADD, deltas, deltas.size(), (statement, delta) -> {
+            statement.setLong(1, delta.completed());
+            statement.setTimestamp(2, Timestamp.valueOf(delta.bucketStart()));
+            statement.setString(3, delta.kind().name());
+            statement.setString(4, delta.jobType());
+            statement.setLong(5, delta.userId());
+            statement.setString(6, instanceId);
+        });
+        List<RollupTotal> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(deltas.get(index));
+                }
+                index++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, missing, missing.size(), (statement, delta) -> {
+                statement.setTimestamp(1, Timestamp.valueOf(delta.bucketStart()));
+                statement.setString(2, delta.kind().name());
+                statement.setString(3, delta.jobType());
+                statement.setLong(4, delta.userId());
+                statement.setString(5, instanceId);
+                statement.setLong(6, delta.completed());
+            });
+        }
+        return true;
+    }
+
+    /**
+     * @param granularity - The date_trunc unit of the periods, e.g. hour or day.
+     */
+    public List<ThroughputRowDto> sumByJobType(String granularity, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(BY_JOB_TYPE, (rs, rowNum) -> new ThroughputRowDto(
+                rs.getObject("period_start", LocalDateTime.class),
+                PreparationJobKind.valueOf(rs.getString("kind")),
+                rs.getString("job_type"),
+                null,
+                null,
+                rs.getLong("completed")), granularity, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * @param granularity - The date_trunc unit of the periods, e.g. hour or day.
+     */
+    public List<ThroughputRowDto> sumByTechnician(String granularity, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(BY_TECHNICIAN, (rs, rowNum) -> {
+            long userId = rs.getLong("user_id");
+            String technician = rs.getString("first_name") == null ? null
+                    : rs.getString("first_name") + " " + rs.getString("last_name");
+            return new ThroughputRowDto(
+                    rs.getObject("period_start", LocalDateTime.class),
+                    PreparationJobKind.valueOf(rs.getString("kind")),
+                    null,
+                    userId == 0 ? null : userId,
+                    technician,
+                    rs.getLong("completed"));
+        }, granularity, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public record RollupTotal(LocalDateTime bucketStart, PreparationJobKind kind, String jobType, long userId, long completed) {
+    }
+}
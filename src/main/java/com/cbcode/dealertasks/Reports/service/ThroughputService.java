@@ -0,0 +1,12 @@
+package com.cbcode.dealertasks.Reports.service;
+
+import com.cbcode.dealertasks.Reports.model.DTOs.ThroughputReportDto;
+import com.cbcode.dealertasks.Reports.model.Enums.ReportPeriod;
+import com.cbcode.dealertasks.Reports.model.Enums.ThroughputDimension;
+
+public interface ThroughputService {
+
+    ThroughputReportDto getThroughput(ReportPeriod period, ThroughputDimension dimension);
+
+    void flush();
+}
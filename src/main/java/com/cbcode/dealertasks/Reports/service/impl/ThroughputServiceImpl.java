@@ -0,0 +1,211 @@
+package com.cbcode.dealertasks.Reports.service.impl;
+
+import com.cbcode.dealertasks.Reports.model.DTOs.ThroughputReportDto;
+import com.cbcode.dealertasks.Reports.model.DTOs.ThroughputRowDto;
+import com.cbcode.dealertasks.Reports.model.Enums.ReportPeriod;
+import com.cbcode.dealertasks.Reports.model.Enums.ThroughputDimension;
+import com.cbcode.dealertasks.Reports.repository.ThroughputRollupRepository;
+import com.cbcode.dealertasks.Reports.repository.ThroughputRollupRepository.RollupTotal;
+import com.cbcode.dealertasks.Reports.service.ThroughputService;
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class ThroughputServiceImpl implements ThroughputService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputServiceImpl.class);
+    private static final String DONE = "DONE";
+    private static final String UNKNOWN_JOB_TYPE = "UNKNOWN";
+    // Hours kept in memory after they end, for completions committed late
+    private static final long RETAINED_HOURS = 2;
+
+    // Length of throughput_rollups.instance_id
+    private static final int MAX_INSTANCE_ID_LENGTH = 36;
+
+    private final ThroughputRollupRepository rollupRepository;
+
+    // Stable across restarts, so a restarted instance keeps adding to its own rows instead of starting new ones
+    @Value("${dealer_management_system.reports.throughput.instanceId:}")
+    private String configuredInstanceId;
+    private String instanceId;
+
+    // Completions of this instance per hour, counted since startup. Each flush adds what was counted since the
+    // previous successful one, and an hour already dropped from memory starts a new count that is added to the stored
+    // one. Completions not yet flushed when the process dies are lost.
+    private final Map<RollupKey, Counter> totals = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // A failed flush may still have committed, so it is retried unchanged, with its sequence number, before anything
+    // new is flushed; the repository skips it if it was applied. Both guarded by flushLock
+    private long lastFlushSequence = -1;
+    private PendingFlush pending;
+
+    public ThroughputServiceImpl(ThroughputRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        String id = configuredInstanceId != null && !configuredInstanceId.isBlank() ? configuredInstanceId.trim() : hostName();
+        instanceId = id.length() > MAX_INSTANCE_ID_LENGTH ? id.substring(0, MAX_INSTANCE_ID_LENGTH) : id;
+        logger.info("Throughput rollups are written as instance '{}'", instanceId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobStatusChanged(JobStatusChangedEvent event) {
+        if (!DONE.equals(event.status())) {
+            return;
+        }
+        LocalDateTime bucket = LocalDateTime.ofInstant(event.changedAt(), ZoneId.systemDefault()).truncatedTo(ChronoUnit.HOURS);
+        RollupKey key = new RollupKey(bucket, event.kind(), event.jobType() != null ? event.jobType() : UNKNOWN_JOB_TYPE,
+                event.userId() != null ? event.userId() : 0L);
+        // compute rather than computeIfAbsent, so the increment cannot land on a counter the flush is removing
+        totals.compute(key, (k, counter) -> {
+            Counter current = counter != null ? counter : new Counter();
+            current.completed.increment();
+            return current;
+        });
+    }
+
+    /**
+     * Adds the completions counted since the last flush to throughput_rollups, then forgets the hours that ended
+     * long enough ago and have nothing left to write.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${dealer_management_system.reports.throughput.flushInterval:60000}")
+    public void flush() {
+        if (totals.isEmpty() || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            if (pending == null) {
+                pending = nextFlush();
+            }
+            int flushed = 0;
+            if (pending != null) {
+                if (!rollupRepository.addCompleted(instanceId, pending.sequence(), pending.deltas())) {
+                    logger.info("Throughput flush {} had already been written, not adding it again", pending.sequence());
+                }
+                for (int i = 0; i < pending.counters().size(); i++) {
+                    pending.counters().get(i).flushed = pending.counts().get(i);
+                }
+                flushed = pending.deltas().size();
+                pending = null;
+            }
+            LocalDateTime oldestKept = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(RETAINED_HOURS);
+            for (RollupKey key : totals.keySet()) {
+                if (key.bucketStart().isBefore(oldestKept)) {
+                    totals.computeIfPresent(key, (k, counter) -> counter.completed.sum() == counter.flushed ? null : counter);
+                }
+            }
+            logger.debug("Flushed {} throughput rollups", flushed);
+        } catch (DataAccessException e) {
+            // The flush stays pending and is retried as is by the next one
+            logger.error("Failed to flush throughput rollups: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // The completions counted since the last flush, or null if there are none
+    private PendingFlush nextFlush() {
+        List<RollupTotal> deltas = new ArrayList<>();
+        List<Counter> counters = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        totals.forEach((key, counter) -> {
+            long count = counter.completed.sum();
+            if (count > counter.flushed) {
+                deltas.add(new RollupTotal(key.bucketStart(), key.kind(), key.jobType(), key.userId(), count - counter.flushed));
+                counters.add(counter);
+                counts.add(count);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return null;
+        }
+        if (lastFlushSequence < 0) {
+            lastFlushSequence = rollupRepository.lastFlushSequence(instanceId);
+        }
+        return new PendingFlush(++lastFlushSequence, deltas, counters, counts);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Jobs completed in the current day, week or month, per hour for today and per day otherwise.
+     * Aggregated in the database from the hourly rollups, so the result has one row per period and group.
+     * @param period - The period of the report.
+     * @param dimension - Group by job type or by technician.
+     * @return - The report.
+     */
+    @Override
+    public ThroughputReportDto getThroughput(ReportPeriod period, ThroughputDimension dimension) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = switch (period) {
+            case TODAY -> today;
+            case WEEK -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> today.withDayOfMonth(1);
+        };
+        String granularity = period == ReportPeriod.TODAY ? "hour" : "day";
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = today.plusDays(1).atStartOfDay();
+        logger.info("Building {} throughput report by {}", period, dimension);
+
+        List<ThroughputRowDto> rows = dimension == ThroughputDimension.TECHNICIAN
+                ? rollupRepository.sumByTechnician(granularity, start, end)
+                : rollupRepository.sumByJobType(granularity, start, end);
+        return new ThroughputReportDto(period, dimension, granularity, start, end, rows);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            String hostName = System.getenv("HOSTNAME");
+            if (hostName != null && !hostName.isBlank()) {
+                return hostName;
+            }
+            logger.warn("Could not resolve the host name, set dealer_management_system.reports.throughput.instanceId");
+            return "unknown-host";
+        }
+    }
+
+    private record RollupKey(LocalDateTime bucketStart, PreparationJobKind kind, String jobType, long userId) {
+    }
+
+    private record PendingFlush(long sequence, List<RollupTotal> deltas, List<Counter> counters, List<Long> counts) {
+    }
+
+    private static final class Counter {
+        private final LongAdder completed = new LongAdder();
+        // The count already added to throughput_rollups; guarded by flushLock
+        private long flushed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cbcode.dealertasks.StatusBoard.controller;
+
+import com.cbcode.dealertasks.StatusBoard.service.StatusBoardService;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/board")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_WORKSHOP','ROLE_VALETER')")
+public class StatusBoardController {
+
+    private final StatusBoardService statusBoardService;
+
+    public StatusBoardController(StatusBoardService statusBoardService) {
+        this.statusBoardService = statusBoardService;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Set<PreparationJobKind> topics,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return statusBoardService.subscribe(topics, lastEventId);
+    }
+}
@@ -0,0 +1,19 @@
+package com.cbcode.dealertasks.StatusBoard.model;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+
+import java.time.Instant;
+
+/**
+ * Published by the valet and workshop services when a job changes status; delivered to the status board and the
+ * throughput rollups once the change is committed. userId is the technician assigned to the job, if any.
+ */
+public record JobStatusChangedEvent(
+        PreparationJobKind kind,
+        Long jobId,
+        String jobType,
+        String status,
+        Long userId,
+        Instant changedAt
+) {
+}
@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.StatusBoard.service;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+public interface StatusBoardService {
+
+    SseEmitter subscribe(Set<PreparationJobKind> topics, Long lastEventId);
+
+    int getSubscriberCount();
+}
@@ -0,0 +1,61 @@
+package com.cbcode.dealertasks.StatusBoard.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the last published items, written by one thread at a time and read by any number of readers,
+ * each at its own pace with its own cursor. Items are addressed by sequence number; publishing never waits for
+ * readers, so a reader more than a ring behind finds its next item overwritten (get returns null) and must skip ahead.
+ */
+public class FanOutRing<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity - The number of items kept, rounded up to a power of two.
+     */
+    public FanOutRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Appends an item. Callers must not publish concurrently.
+     * @return - The sequence number of the item.
+     */
+    public long publish(T item) {
+        long sequence = head.get();
+        slots.set((int) (sequence & mask), item);
+        head.set(sequence + 1);
+        return sequence;
+    }
+
+    /**
+     * @return - The sequence number the next item will get; items below it are published.
+     */
+    public long head() {
+        return head.get();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @param sequence - A sequence number below head().
+     * @return - The item, or null if it has been, or may be being, overwritten: the last capacity() - 1 items are kept.
+     */
+    public T get(long sequence) {
+        if (head.get() - sequence >= capacity()) {
+            return null;
+        }
+        T item = slots.get((int) (sequence & mask));
+        // The writer may have lapped the reader while the slot was read; a publish in progress has already written
+        // the slot of head() - capacity(), so that one counts as overwritten too
+        return head.get() - sequence >= capacity() ? null : item;
+    }
+}
@@ -0,0 +1,215 @@
+package com.cbcode.dealertasks.StatusBoard.service.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.TooManyRequestsException;
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.StatusBoard.service.StatusBoardService;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed job status changes to the connected screens over server-sent events.
+ * <p>
+ * Changes are appended to a FanOutRing by one writer at a time; each screen reads the ring from its own cursor on its
+ * own virtual thread, woken when something is published. A slow screen therefore blocks nobody but itself, and holds
+ * no buffer of its own: when it falls a ring behind it is sent a {@code resync} event, to reload the board, and skips
+ * to the newest change. Event ids are ring sequence numbers, so a reconnecting screen (Last-Event-ID) resumes where it
+ * stopped as long as the ring still holds its next event.
+ */
+@Service
+public class StatusBoardServiceImpl implements StatusBoardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusBoardServiceImpl.class);
+    private static final String METRIC = "status.board";
+    private static final BoardEvent HEARTBEAT = new BoardEvent(null, null);
+
+    @Value("${dealer_management_system.statusBoard.ringSize:1024}")
+    private int ringSize;
+    @Value("${dealer_management_system.statusBoard.maxSubscribers:1000}")
+    private int maxSubscribers;
+    @Value("${dealer_management_system.statusBoard.emitterTimeout:1800000}")
+    private long emitterTimeout;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("status-board-", 0).factory());
+
+    private FanOutRing<BoardEvent> ring;
+    private Counter sentEvents;
+    private Counter resyncs;
+
+    public StatusBoardServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        ring = new FanOutRing<>(ringSize);
+        sentEvents = Counter.builder(METRIC + ".events").tag("result", "sent").register(meterRegistry);
+        resyncs = Counter.builder(METRIC + ".events").tag("result", "resync").register(meterRegistry);
+        Gauge.builder(METRIC + ".subscribers", subscribers, Set::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream of the status changes of the given kinds of jobs.
+     * @param topics - The kinds of jobs to receive, or empty for all.
+     * @param lastEventId - The id of the last event received before a reconnect, or null.
+     * @return - The emitter of the stream.
+     * @throws TooManyRequestsException - If the maximum number of screens is connected.
+     */
+    @Override
+    public SseEmitter subscribe(Set<PreparationJobKind> topics, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            logger.warn("Status board subscriber limit of {} reached", maxSubscribers);
+            throw new TooManyRequestsException("Too many status board connections", 30);
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Set<PreparationJobKind> kinds = topics == null || topics.isEmpty()
+                ? EnumSet.allOf(PreparationJobKind.class) : EnumSet.copyOf(topics);
+        long head = ring.head();
+        boolean resume = lastEventId != null && lastEventId >= -1 && lastEventId < head
+                && (lastEventId + 1 == head || ring.get(lastEventId + 1) != null);
+        Cursor cursor = new Cursor(resume ? lastEventId + 1 : head, lastEventId != null && !resume);
+        Subscriber subscriber = new Subscriber(emitter, kinds, new AtomicBoolean(), cursor);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        signal(subscriber);
+        logger.debug("Status board subscriber added for {}, {} connected", kinds, subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onJobStatusChanged(JobStatusChangedEvent event) {
+        publish(new BoardEvent(event.kind(), event));
+    }
+
+    // Keeps idle connections open through proxies, and finds the screens that went away
+    @Scheduled(fixedDelayString = "${dealer_management_system.statusBoard.heartbeatInterval:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            publish(HEARTBEAT);
+        }
+    }
+
+    private void publish(BoardEvent event) {
+        publishLock.lock();
+        try {
+            ring.publish(event);
+        } finally {
+            publishLock.unlock();
+        }
+        subscribers.forEach(this::signal);
+    }
+
+    private void signal(Subscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Sends the subscriber everything published since its cursor. Runs on one thread per subscriber at a time,
+     * guarded by the draining flag; the flag is checked again after release, so a publish racing the end of a drain
+     * is not lost.
+     */
+    private void drain(Subscriber subscriber) {
+        Cursor cursor = subscriber.cursor();
+        try {
+            while (true) {
+                if (cursor.resync) {
+                    cursor.resync = false;
+                    cursor.next = ring.head();
+                    subscriber.emitter().send(SseEmitter.event().name("resync").id(String.valueOf(cursor.next - 1)).data("{}"));
+                    resyncs.increment();
+                }
+                long head = ring.head();
+                while (cursor.next < head && !cursor.resync) {
+                    long sequence = cursor.next;
+                    BoardEvent event = ring.get(sequence);
+                    if (event == null) {
+                        cursor.resync = true;
+                    } else {
+                        cursor.next = sequence + 1;
+                        send(subscriber, sequence, event);
+                    }
+                }
+                if (cursor.resync) {
+                    continue;
+                }
+                subscriber.draining().set(false);
+                if (ring.head() <= cursor.next || !subscriber.draining().compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The screen disconnected, or its emitter already completed
+            logger.debug("Dropping status board subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter().complete();
+        }
+    }
+
+    private void send(Subscriber subscriber, long sequence, BoardEvent event) throws IOException {
+        if (event == HEARTBEAT) {
+            subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+        } else if (subscriber.topics().contains(event.kind())) {
+            subscriber.emitter().send(SseEmitter.event()
+                    .id(String.valueOf(sequence))
+                    .name("job-status")
+                    .data(event.payload(), MediaType.APPLICATION_JSON));
+            sentEvents.increment();
+        }
+    }
+
+    private record BoardEvent(PreparationJobKind kind, JobStatusChangedEvent payload) {
+    }
+
+    private record Subscriber(SseEmitter emitter, Set<PreparationJobKind> topics, AtomicBoolean draining, Cursor cursor) {
+    }
+
+    // Only read and written by the subscriber's current drain
+    private static final class Cursor {
+        private long next;
+        private boolean resync;
+
+        private Cursor(long next, boolean resync) {
+            this.next = next;
+            this.resync = resync;
+        }
+    }
+}
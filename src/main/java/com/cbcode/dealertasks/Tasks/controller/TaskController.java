@@ -1,8 +1,11 @@
 package com.cbcode.dealertasks.Tasks.controller;
 
 import com.cbcode.dealertasks.Cars.model.DTOs.CarDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationDependencyRequest;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationPlanDto;
 import com.cbcode.dealertasks.Tasks.model.DTOs.TaskDto;
 import com.cbcode.dealertasks.Tasks.model.DTOs.TaskWithCarDto;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
 import com.cbcode.dealertasks.Tasks.services.TaskService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,9 +18,11 @@ import org.springframework.web.bind.annotation.*;
 public class TaskController {
 
     private final TaskService taskService;
+    private final PreparationPlanService preparationPlanService;
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, PreparationPlanService preparationPlanService) {
         this.taskService = taskService;
+        this.preparationPlanService = preparationPlanService;
     }
 
     @PostMapping(value = "/create", consumes = "application/json", produces = "application/json")
@@ -26,4 +31,27 @@ public class TaskController {
         CarDto carDto = taskWithCarDto.getCarDto();
         return ResponseEntity.ok(taskService.createTask(taskDto, carDto));
     }
+
+    /**
+     * Gets the preparation plan of a car: jobs ready to start, remaining jobs in dependency order,
+     * the critical path and the estimated ready time against the handover date.
+     * @param carId the car's id.
+     * @return a ResponseEntity with the preparation plan.
+     */
+    @GetMapping(value = "/cars/{carId}/preparation-plan", produces = "application/json")
+    public ResponseEntity<PreparationPlanDto> getPreparationPlan(@PathVariable(name = "carId") Long carId) {
+        return ResponseEntity.ok(preparationPlanService.getPreparationPlan(carId));
+    }
+
+    /**
+     * Adds a dependency between two preparation jobs of a car.
+     * @param carId the car's id.
+     * @param request the prerequisite and dependent jobs.
+     * @return a ResponseEntity with the updated preparation plan.
+     */
+    @PostMapping(value = "/cars/{carId}/dependencies", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<PreparationPlanDto> addDependency(@PathVariable(name = "carId") Long carId,
+                                                            @RequestBody PreparationDependencyRequest request) {
+        return ResponseEntity.ok(preparationPlanService.addDependency(carId, request));
+    }
 }
@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+import java.util.List;
+
+/**
+ * One page of a user's open jobs, oldest first. openCount is the badge count of all their open jobs,
+ * which may lag behind the page by a few seconds.
+ */
+public record JobQueueDto<T>(
+        List<T> items,
+        int page,
+        int size,
+        boolean hasNext,
+        long openCount
+) {
+}
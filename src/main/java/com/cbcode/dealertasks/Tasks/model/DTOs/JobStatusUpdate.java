@@ -0,0 +1,4 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+public record JobStatusUpdate(Long id, String status) {
+}
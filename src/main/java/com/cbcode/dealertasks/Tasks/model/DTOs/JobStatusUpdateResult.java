@@ -0,0 +1,9 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.JobStatusUpdateOutcome;
+
+/**
+ * The outcome of one job of a bulk status update, with the status the job has afterwards (null if not found).
+ */
+public record JobStatusUpdateResult(Long id, JobStatusUpdateOutcome outcome, String status) {
+}
@@ -0,0 +1,19 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+
+public record PreparationDependencyRequest(PreparationJobKind prerequisiteKind, Long prerequisiteJobId,
+                                           PreparationJobKind dependentKind, Long dependentJobId) {
+
+    public PreparationDependencyRequest {
+        if (prerequisiteKind == null || dependentKind == null) {
+            throw new IllegalArgumentException("Job kinds are required");
+        }
+        if (prerequisiteJobId == null || dependentJobId == null) {
+            throw new IllegalArgumentException("Job ids are required");
+        }
+        if (prerequisiteKind == dependentKind && prerequisiteJobId.equals(dependentJobId)) {
+            throw new IllegalArgumentException("A job cannot depend on itself");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+
+public record PreparationJobDto(
+        PreparationJobKind kind,
+        Long jobId,
+        String jobType,
+        boolean done,
+        int durationMinutes,
+        int earliestFinishMinutes
+) {
+}
@@ -0,0 +1,20 @@
+package com.cbcode.dealertasks.Tasks.model.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record PreparationPlanDto(
+        Long carId,
+        @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+        LocalDateTime handoverDate,
+        @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+        LocalDateTime estimatedReadyAt,
+        int remainingMinutes,
+        Boolean onTrack,
+        List<PreparationJobDto> readyJobs,
+        List<PreparationJobDto> remainingJobsInOrder,
+        List<PreparationJobDto> criticalPath
+) {
+}
@@ -0,0 +1,8 @@
+package com.cbcode.dealertasks.Tasks.model.Enums;
+
+public enum JobStatusUpdateOutcome {
+    UPDATED,
+    UNCHANGED,
+    NOT_FOUND,
+    INVALID_STATUS
+}
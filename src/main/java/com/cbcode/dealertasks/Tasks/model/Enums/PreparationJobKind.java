@@ -0,0 +1,6 @@
+package com.cbcode.dealertasks.Tasks.model.Enums;
+
+public enum PreparationJobKind {
+    WORKSHOP,
+    VALET
+}
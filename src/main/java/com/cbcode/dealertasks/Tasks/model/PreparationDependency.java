@@ -0,0 +1,122 @@
+package com.cbcode.dealertasks.Tasks.model;
+
+import com.cbcode.dealertasks.Cars.model.Car;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A "must finish before" edge between two preparation jobs of the same car.
+ * Workshop and valet jobs live in separate tables, so each side is stored as a job kind plus the job id.
+ */
+@Entity
+@Table(name = "preparation_dependencies",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"car_id", "prerequisite_kind", "prerequisite_job_id", "dependent_kind", "dependent_job_id"}),
+        indexes = @Index(name = "idx_preparation_dependencies_car_id", columnList = "car_id"))
+@SequenceGenerator(name = "preparation_dependencies_seq", sequenceName = "preparation_dependencies_seq", allocationSize = 1, initialValue = 1)
+public class PreparationDependency implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "preparation_dependencies_seq")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "car_id", nullable = false)
+    private Car car;
+
+    @Column(name = "prerequisite_kind", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PreparationJobKind prerequisiteKind;
+
+    @Column(name = "prerequisite_job_id", nullable = false)
+    private Long prerequisiteJobId;
+
+    @Column(name = "dependent_kind", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PreparationJobKind dependentKind;
+
+    @Column(name = "dependent_job_id", nullable = false)
+    private Long dependentJobId;
+
+    public PreparationDependency() {
+    }
+
+    public PreparationDependency(Car car, PreparationJobKind prerequisiteKind, Long prerequisiteJobId,
+                                 PreparationJobKind dependentKind, Long dependentJobId) {
+        this.car = car;
+        this.prerequisiteKind = prerequisiteKind;
+        this.prerequisiteJobId = prerequisiteJobId;
+        this.dependentKind = dependentKind;
+        this.dependentJobId = dependentJobId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public void setCar(Car car) {
+        this.car = car;
+    }
+
+    public PreparationJobKind getPrerequisiteKind() {
+        return prerequisiteKind;
+    }
+
+    public void setPrerequisiteKind(PreparationJobKind prerequisiteKind) {
+        this.prerequisiteKind = prerequisiteKind;
+    }
+
+    public Long getPrerequisiteJobId() {
+        return prerequisiteJobId;
+    }
+
+    public void setPrerequisiteJobId(Long prerequisiteJobId) {
+        this.prerequisiteJobId = prerequisiteJobId;
+    }
+
+    public PreparationJobKind getDependentKind() {
+        return dependentKind;
+    }
+
+    public void setDependentKind(PreparationJobKind dependentKind) {
+        this.dependentKind = dependentKind;
+    }
+
+    public Long getDependentJobId() {
+        return dependentJobId;
+    }
+
+    public void setDependentJobId(Long dependentJobId) {
+        this.dependentJobId = dependentJobId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PreparationDependency that = (PreparationDependency) o;
+        return Objects.equals(getId(), that.getId())
+                && getPrerequisiteKind() == that.getPrerequisiteKind()
+                && Objects.equals(getPrerequisiteJobId(), that.getPrerequisiteJobId())
+                && getDependentKind() == that.getDependentKind()
+                && Objects.equals(getDependentJobId(), that.getDependentJobId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getPrerequisiteKind(), getPrerequisiteJobId(), getDependentKind(), getDependentJobId());
+    }
+}
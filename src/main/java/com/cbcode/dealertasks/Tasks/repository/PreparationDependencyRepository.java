@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Tasks.repository;
+
+import com.cbcode.dealertasks.Tasks.model.PreparationDependency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PreparationDependencyRepository extends JpaRepository<PreparationDependency, Long> {
+
+    @Query("SELECT d FROM PreparationDependency d WHERE d.car.id = :car_id")
+    List<PreparationDependency> findByCarId(@Param("car_id") Long carId);
+}
@@ -18,6 +18,12 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @Query("SELECT t FROM Task t WHERE t.car.id = :car_id")
     List<Task> findByCarId(@Param("car_id") Long carId);
 
+    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Task t WHERE t.car.id = :car_id AND t.workshop.id = :workshop_id")
+    boolean existsByCarIdAndWorkshopId(@Param("car_id") Long carId, @Param("workshop_id") Long workshopId);
+
+    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Task t WHERE t.car.id = :car_id AND t.valet.id = :valet_id")
+    boolean existsByCarIdAndValetId(@Param("car_id") Long carId, @Param("valet_id") Long valetId);
+
     @Query("SELECT t FROM Task t WHERE t.taskStatus = :task_status")
     List<Task> findByTaskStatus(@Param("task_status") String taskStatus);
 
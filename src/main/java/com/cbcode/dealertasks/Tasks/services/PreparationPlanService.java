@@ -0,0 +1,19 @@
+package com.cbcode.dealertasks.Tasks.services;
+
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationDependencyRequest;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationPlanDto;
+import com.cbcode.dealertasks.Valet.model.Valet;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+
+public interface PreparationPlanService {
+
+    PreparationPlanDto getPreparationPlan(Long carId);
+
+    PreparationPlanDto addDependency(Long carId, PreparationDependencyRequest request);
+
+    void onWorkshopJobChanged(Workshop workshop);
+
+    void onValetJobChanged(Valet valet);
+
+    void evict(Long carId);
+}
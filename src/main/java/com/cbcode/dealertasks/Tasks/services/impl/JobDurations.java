@@ -0,0 +1,56 @@
+package com.cbcode.dealertasks.Tasks.services.impl;
+
+import com.cbcode.dealertasks.Valet.model.Enums.ValetEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Standard durations, in minutes, of workshop and valet jobs.
+ * Defaults can be overridden per job type, e.g. {@code dealer_management_system.jobs.durations.MOT=60}.
+ */
+@Component
+public class JobDurations {
+
+    private static final String PROPERTY_PREFIX = "dealer_management_system.jobs.durations.";
+
+    private final Map<WorkshopEnum, Integer> workshopDurations = new EnumMap<>(WorkshopEnum.class);
+    private final Map<ValetEnum, Integer> valetDurations = new EnumMap<>(ValetEnum.class);
+
+    public JobDurations(Environment environment) {
+        workshopDurations.put(WorkshopEnum.SERVICE, 120);
+        workshopDurations.put(WorkshopEnum.REPAIR, 180);
+        workshopDurations.put(WorkshopEnum.DIAGNOSIS, 60);
+        workshopDurations.put(WorkshopEnum.MOT, 60);
+        workshopDurations.put(WorkshopEnum.TYRE, 30);
+        workshopDurations.put(WorkshopEnum.CAMERA, 45);
+        workshopDurations.put(WorkshopEnum.WHEEL, 30);
+        workshopDurations.put(WorkshopEnum.ALIGNMENT, 45);
+        workshopDurations.put(WorkshopEnum.BALANCING, 30);
+        workshopDurations.put(WorkshopEnum.BATTERY, 20);
+
+        valetDurations.put(ValetEnum.VALET, 45);
+        valetDurations.put(ValetEnum.FULL_VALET, 120);
+        valetDurations.put(ValetEnum.POLISH, 90);
+        valetDurations.put(ValetEnum.SAFEGARD, 60);
+        valetDurations.put(ValetEnum.MATS, 10);
+        valetDurations.put(ValetEnum.BOOTLINER, 10);
+        valetDurations.put(ValetEnum.SAFETY_KIT, 10);
+
+        workshopDurations.replaceAll((type, minutes) ->
+                environment.getProperty(PROPERTY_PREFIX + type.name(), Integer.class, minutes));
+        valetDurations.replaceAll((type, minutes) ->
+                environment.getProperty(PROPERTY_PREFIX + type.name(), Integer.class, minutes));
+    }
+
+    public int minutes(WorkshopEnum workshopEnum) {
+        return workshopEnum == null ? 0 : workshopDurations.get(workshopEnum);
+    }
+
+    public int minutes(ValetEnum valetEnum) {
+        return valetEnum == null ? 0 : valetDurations.get(valetEnum);
+    }
+}
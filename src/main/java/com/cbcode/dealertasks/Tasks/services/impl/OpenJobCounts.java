@@ -0,0 +1,63 @@
+package com.cbcode.dealertasks.Tasks.services.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Per-user counts of open jobs, for the badge of the job queues.
+ * A count is loaded on first use and kept until a job of the user changes status, or until the time to live passes;
+ * the time to live covers jobs assigned outside the job services, e.g. with a new task.
+ */
+public class OpenJobCounts {
+
+    private final LongUnaryOperator loader;
+    private final long timeToLiveNanos;
+    private final Map<Long, CachedCount> countsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * @param loader - Counts the open jobs of a user in the database.
+     * @param timeToLiveMillis - How long a count is served without reloading it.
+     */
+    public OpenJobCounts(LongUnaryOperator loader, long timeToLiveMillis) {
+        this.loader = loader;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    }
+
+    public long get(long userId) {
+        long now = System.nanoTime();
+        CachedCount cached = countsByUser.get(userId);
+        if (cached != null && now - cached.loadedAt() < timeToLiveNanos) {
+            return cached.count();
+        }
+        long count = loader.applyAsLong(userId);
+        countsByUser.put(userId, new CachedCount(count, now));
+        return count;
+    }
+
+    /**
+     * Forgets the count of a user once the surrounding transaction commits, so a reload cannot see the old count
+     * and cache it again. Without an active transaction the count is forgotten immediately.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        countsByUser.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    countsByUser.remove(userId);
+                }
+            });
+        }
+    }
+
+    private record CachedCount(long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,338 @@
+package com.cbcode.dealertasks.Tasks.services.impl;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dependency DAG between the preparation jobs of a single car.
+ * Nodes are dense int indexes into parallel arrays and edges are kept as per-node int arrays,
+ * so a car with a handful of jobs costs a few hundred bytes and no boxing.
+ * The earliest finish (in minutes from now) of every job is kept up to date incrementally:
+ * changing one job only revisits that job and its descendants.
+ * Instances are not thread-safe; callers guard each graph themselves.
+ */
+public class PreparationGraph {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int size;
+    private PreparationJobKind[] kinds = new PreparationJobKind[INITIAL_CAPACITY];
+    private long[] jobIds = new long[INITIAL_CAPACITY];
+    private String[] jobTypes = new String[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private boolean[] done = new boolean[INITIAL_CAPACITY];
+    private int[] earliestFinish = new int[INITIAL_CAPACITY];
+    private int[] criticalPredecessor = new int[INITIAL_CAPACITY];
+    private int[][] successors = new int[INITIAL_CAPACITY][];
+    private int[] successorCounts = new int[INITIAL_CAPACITY];
+    private int[][] predecessors = new int[INITIAL_CAPACITY][];
+    private int[] predecessorCounts = new int[INITIAL_CAPACITY];
+
+    /**
+     * Adds a job to the graph, or updates it if the job is already present.
+     * @param kind - The kind of job (workshop or valet).
+     * @param jobId - The id of the job in its own table.
+     * @param jobType - The job type label, e.g. MOT or FULL_VALET.
+     * @param durationMinutes - The standard duration of the job.
+     * @param isDone - Whether the job is already completed.
+     * @return - The node index of the job.
+     */
+    public int addJob(PreparationJobKind kind, long jobId, String jobType, int durationMinutes, boolean isDone) {
+        int existing = indexOf(kind, jobId);
+        if (existing >= 0) {
+            jobTypes[existing] = jobType;
+            updateJob(existing, durationMinutes, isDone);
+            return existing;
+        }
+        ensureCapacity(size + 1);
+        int node = size++;
+        kinds[node] = kind;
+        jobIds[node] = jobId;
+        jobTypes[node] = jobType;
+        durations[node] = Math.max(0, durationMinutes);
+        done[node] = isDone;
+        criticalPredecessor[node] = -1;
+        successors[node] = new int[INITIAL_CAPACITY];
+        predecessors[node] = new int[INITIAL_CAPACITY];
+        earliestFinish[node] = remaining(node);
+        return node;
+    }
+
+    /**
+     * Finds the node index of a job. Graphs hold one car's jobs, so a linear scan is cheaper than a hash lookup.
+     * @return - The node index, or -1 if the job is not part of the graph.
+     */
+    public int indexOf(PreparationJobKind kind, long jobId) {
+        for (int node = 0; node < size; node++) {
+            if (jobIds[node] == jobId && kinds[node] == kind) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records that the dependent job cannot start before the prerequisite job is done.
+     * @param prerequisite - The node index of the job that must finish first.
+     * @param dependent - The node index of the job that waits.
+     * @return - False if the edge was already present.
+     * @throws IllegalArgumentException - If the edge would create a cycle.
+     */
+    public boolean addDependency(int prerequisite, int dependent) {
+        checkNode(prerequisite);
+        checkNode(dependent);
+        if (contains(successors[prerequisite], successorCounts[prerequisite], dependent)) {
+            return false;
+        }
+        if (prerequisite == dependent || reaches(dependent, prerequisite)) {
+            throw new IllegalArgumentException("Dependency would create a cycle between "
+                    + describe(prerequisite) + " and " + describe(dependent));
+        }
+        successors[prerequisite] = append(successors[prerequisite], successorCounts[prerequisite]++, dependent);
+        predecessors[dependent] = append(predecessors[dependent], predecessorCounts[dependent]++, prerequisite);
+        propagateFrom(dependent);
+        return true;
+    }
+
+    /**
+     * Updates the duration and completion state of a job and refreshes the earliest finish of its descendants.
+     */
+    public void updateJob(int node, int durationMinutes, boolean isDone) {
+        checkNode(node);
+        durations[node] = Math.max(0, durationMinutes);
+        done[node] = isDone;
+        propagateFrom(node);
+    }
+
+    /**
+     * @return - The remaining jobs in a topological order (Kahn's algorithm); completed jobs are skipped.
+     */
+    public List<Integer> remainingInTopologicalOrder() {
+        int[] inDegree = Arrays.copyOf(predecessorCounts, size);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int node = 0; node < size; node++) {
+            if (inDegree[node] == 0) {
+                queue.add(node);
+            }
+        }
+        List<Integer> order = new ArrayList<>(size);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            if (!done[node]) {
+                order.add(node);
+            }
+            for (int i = 0; i < successorCounts[node]; i++) {
+                int next = successors[node][i];
+                if (--inDegree[next] == 0) {
+                    queue.add(next);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * @return - The remaining jobs whose prerequisites are all done, in topological order.
+     */
+    public List<Integer> readyToStart() {
+        List<Integer> ready = new ArrayList<>();
+        for (int node : remainingInTopologicalOrder()) {
+            if (prerequisitesDone(node)) {
+                ready.add(node);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * @return - The remaining work on the longest path, in minutes.
+     */
+    public int remainingMinutes() {
+        int max = 0;
+        for (int node = 0; node < size; node++) {
+            max = Math.max(max, earliestFinish[node]);
+        }
+        return max;
+    }
+
+    /**
+     * @return - The jobs on the critical path, from the first job to start to the last job to finish.
+     */
+    public List<Integer> criticalPath() {
+        int last = -1;
+        for (int node = 0; node < size; node++) {
+            if (earliestFinish[node] > 0 && (last < 0 || earliestFinish[node] > earliestFinish[last])) {
+                last = node;
+            }
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int node = last; node >= 0; node = criticalPredecessor[node]) {
+            if (!done[node]) {
+                path.add(0, node);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return - An independent copy of the graph, e.g. to try a change before applying it to a shared graph.
+     */
+    public PreparationGraph copy() {
+        PreparationGraph copy = new PreparationGraph();
+        copy.size = size;
+        copy.kinds = kinds.clone();
+        copy.jobIds = jobIds.clone();
+        copy.jobTypes = jobTypes.clone();
+        copy.durations = durations.clone();
+        copy.done = done.clone();
+        copy.earliestFinish = earliestFinish.clone();
+        copy.criticalPredecessor = criticalPredecessor.clone();
+        copy.successors = new int[successors.length][];
+        copy.predecessors = new int[predecessors.length][];
+        for (int node = 0; node < size; node++) {
+            copy.successors[node] = successors[node].clone();
+            copy.predecessors[node] = predecessors[node].clone();
+        }
+        copy.successorCounts = successorCounts.clone();
+        copy.predecessorCounts = predecessorCounts.clone();
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PreparationJobKind kind(int node) {
+        return kinds[node];
+    }
+
+    public long jobId(int node) {
+        return jobIds[node];
+    }
+
+    public String jobType(int node) {
+        return jobTypes[node];
+    }
+
+    public int duration(int node) {
+        return durations[node];
+    }
+
+    public boolean isDone(int node) {
+        return done[node];
+    }
+
+    public int earliestFinish(int node) {
+        return earliestFinish[node];
+    }
+
+    /**
+     * Recomputes the earliest finish of the given node and pushes any change down to its descendants.
+     * A node is only re-queued when its value actually changes, so unaffected branches are never visited.
+     */
+    private void propagateFrom(int origin) {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(origin);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int earliestStart = 0;
+            int bestPredecessor = -1;
+            for (int i = 0; i < predecessorCounts[node]; i++) {
+                int predecessor = predecessors[node][i];
+                if (bestPredecessor < 0 || earliestFinish[predecessor] > earliestStart) {
+                    earliestStart = earliestFinish[predecessor];
+                    bestPredecessor = predecessor;
+                }
+            }
+            criticalPredecessor[node] = bestPredecessor;
+            int finish = earliestStart + remaining(node);
+            if (finish == earliestFinish[node]) {
+                continue;
+            }
+            earliestFinish[node] = finish;
+            for (int i = 0; i < successorCounts[node]; i++) {
+                queue.add(successors[node][i]);
+            }
+        }
+    }
+
+    private int remaining(int node) {
+        return done[node] ? 0 : durations[node];
+    }
+
+    private boolean prerequisitesDone(int node) {
+        for (int i = 0; i < predecessorCounts[node]; i++) {
+            if (!done[predecessors[node][i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reaches(int from, int target) {
+        boolean[] seen = new boolean[size];
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(from);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == target) {
+                return true;
+            }
+            if (seen[node]) {
+                continue;
+            }
+            seen[node] = true;
+            for (int i = 0; i < successorCounts[node]; i++) {
+                stack.push(successors[node][i]);
+            }
+        }
+        return false;
+    }
+
+    private String describe(int node) {
+        return kinds[node] + " job " + jobIds[node];
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= size) {
+            throw new IllegalArgumentException("Unknown job node: " + node);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= kinds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, kinds.length * 2);
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        jobIds = Arrays.copyOf(jobIds, newCapacity);
+        jobTypes = Arrays.copyOf(jobTypes, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+        done = Arrays.copyOf(done, newCapacity);
+        earliestFinish = Arrays.copyOf(earliestFinish, newCapacity);
+        criticalPredecessor = Arrays.copyOf(criticalPredecessor, newCapacity);
+        successors = Arrays.copyOf(successors, newCapacity);
+        successorCounts = Arrays.copyOf(successorCounts, newCapacity);
+        predecessors = Arrays.copyOf(predecessors, newCapacity);
+        predecessorCounts = Arrays.copyOf(predecessorCounts, newCapacity);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] values, int count, int value) {
+        int[] target = count < values.length ? values : Arrays.copyOf(values, values.length * 2);
+        target[count] = value;
+        return target;
+    }
+}
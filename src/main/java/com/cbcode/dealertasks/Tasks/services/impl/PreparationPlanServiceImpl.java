@@ -0,0 +1,385 @@
+package com.cbcode.dealertasks.Tasks.services.impl;
+
+import com.cbcode.dealertasks.Cars.model.Car;
+import com.cbcode.dealertasks.Cars.repository.CarRepository;
+import com.cbcode.dealertasks.ExceptionsConfig.CarNotFoundException;
+import com.cbcode.dealertasks.ExceptionsConfig.ResourceNotFoundException;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationDependencyRequest;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationJobDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.PreparationPlanDto;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import com.cbcode.dealertasks.Tasks.model.PreparationDependency;
+import com.cbcode.dealertasks.Tasks.model.Task;
+import com.cbcode.dealertasks.Tasks.repository.PreparationDependencyRepository;
+import com.cbcode.dealertasks.Tasks.repository.TaskRepository;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
+import com.cbcode.dealertasks.Valet.model.Valet;
+import com.cbcode.dealertasks.Valet.repository.ValetRepository;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class PreparationPlanServiceImpl implements PreparationPlanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreparationPlanServiceImpl.class);
+
+    private final CarRepository carRepository;
+    private final TaskRepository taskRepository;
+    private final WorkshopRepository workshopRepository;
+    private final ValetRepository valetRepository;
+    private final PreparationDependencyRepository dependencyRepository;
+    private final JobDurations jobDurations;
+
+    // Graphs are built lazily per car and then kept up to date incrementally, so one job change never rebuilds the yard.
+    // Each graph is guarded by a ReentrantLock rather than a monitor: addDependency writes to the database while holding it,
+    // and blocking inside synchronized would pin the carrier of a virtual thread.
+    // The cache is bounded: a graph is reloaded once older than the TTL, and a full cache drops expired graphs, then
+    // arbitrary ones, together with their entries in carsByJob.
+    private final Map<Long, CachedGraph> graphsByCar = new ConcurrentHashMap<>();
+    private final Map<JobKey, Long> carsByJob = new ConcurrentHashMap<>();
+
+    @Value("${dealer_management_system.preparation.graphCache.maxSize:1000}")
+    private int graphCacheMaxSize;
+    @Value("${dealer_management_system.preparation.graphCache.ttl:600000}")
+    private long graphCacheTtlInMs;
+
+    public PreparationPlanServiceImpl(CarRepository carRepository, TaskRepository taskRepository, WorkshopRepository workshopRepository,
+                                      ValetRepository valetRepository, PreparationDependencyRepository dependencyRepository,
+                                      JobDurations jobDurations) {
+        this.carRepository = carRepository;
+        this.taskRepository = taskRepository;
+        this.workshopRepository = workshopRepository;
+        this.valetRepository = valetRepository;
+        this.dependencyRepository = dependencyRepository;
+        this.jobDurations = jobDurations;
+    }
+
+    /**
+     * Builds the preparation plan of a car: the remaining jobs in dependency order, the jobs that can start now,
+     * the critical path and the earliest time the car can be ready, compared against its handover date.
+     * @param carId - The id of the car.
+     * @return - The preparation plan of the car.
+     * @throws CarNotFoundException - If the car is not found.
+     */
+    @Override
+    public PreparationPlanDto getPreparationPlan(Long carId) {
+        logger.info("Building preparation plan for car with id: {}", carId);
+        Car car = getCar(carId);
+        CachedGraph cached = getGraph(carId);
+        cached.lock().lock();
+        try {
+            return toPlan(car, cached.graph());
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    /**
+     * Adds a dependency between two preparation jobs of a car.
+     * The edge is checked against a copy of the cached graph first, so a cycle is rejected before anything is persisted;
+     * the cached graph itself only gets the edge once the dependency is committed.
+     * @param carId - The id of the car.
+     * @param request - The prerequisite and dependent jobs.
+     * @return - The updated preparation plan of the car.
+     * @throws CarNotFoundException - If the car is not found.
+     * @throws ResourceNotFoundException - If one of the jobs is not found, or is not a job of this car.
+     * @throws IllegalArgumentException - If the dependency would create a cycle.
+     */
+    @Override
+    @Transactional
+    public PreparationPlanDto addDependency(Long carId, PreparationDependencyRequest request) {
+        logger.info("Adding preparation dependency for car with id: {}", carId);
+        Car car = getCar(carId);
+        CachedGraph cached = getGraph(carId);
+        int prerequisite = loadNode(cached, carId, request.prerequisiteKind(), request.prerequisiteJobId());
+        int dependent = loadNode(cached, carId, request.dependentKind(), request.dependentJobId());
+
+        cached.lock().lock();
+        try {
+            PreparationGraph preview = cached.graph().copy();
+            if (preview.addDependency(prerequisite, dependent)) {
+                dependencyRepository.save(new PreparationDependency(car, request.prerequisiteKind(), request.prerequisiteJobId(),
+                        request.dependentKind(), request.dependentJobId()));
+                afterCommit(() -> addCachedDependency(carId, cached, request));
+                logger.info("Dependency added: {} job {} before {} job {}", request.prerequisiteKind(), request.prerequisiteJobId(),
+                        request.dependentKind(), request.dependentJobId());
+            }
+            return toPlan(car, preview);
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    /**
+     * Refreshes the cached graph holding the given workshop job, if any, once the surrounding transaction commits.
+     * Graphs of other cars are not touched.
+     * @param workshop - The workshop job that changed.
+     */
+    @Override
+    public void onWorkshopJobChanged(Workshop workshop) {
+        updateNode(PreparationJobKind.WORKSHOP, workshop.getId(), jobDurations.minutes(workshop.getWorkshopEnum()),
+                workshop.getWorkshopStatusEnum() == WorkshopStatusEnum.DONE);
+    }
+
+    /**
+     * Refreshes the cached graph holding the given valet job, if any, once the surrounding transaction commits.
+     * Graphs of other cars are not touched.
+     * @param valet - The valet job that changed.
+     */
+    @Override
+    public void onValetJobChanged(Valet valet) {
+        updateNode(PreparationJobKind.VALET, valet.getId(), jobDurations.minutes(valet.getValetEnum()),
+                valet.getStatus() == ValetStatus.DONE);
+    }
+
+    /**
+     * Drops the cached graph of a car once the surrounding transaction commits, e.g. when the car is deleted or its
+     * tasks change. The next plan reloads it with the committed jobs.
+     * @param carId - The id of the car.
+     */
+    @Override
+    public void evict(Long carId) {
+        afterCommit(() -> {
+            CachedGraph cached = graphsByCar.remove(carId);
+            if (cached != null) {
+                carsByJob.values().removeIf(carId::equals);
+            }
+        });
+    }
+
+    // Applies a committed dependency to the cached graph, unless the graph was evicted meanwhile: a reload reads it anyway
+    private void addCachedDependency(Long carId, CachedGraph cached, PreparationDependencyRequest request) {
+        if (graphsByCar.get(carId) != cached) {
+            return;
+        }
+        cached.lock().lock();
+        try {
+            PreparationGraph graph = cached.graph();
+            int prerequisite = graph.indexOf(request.prerequisiteKind(), request.prerequisiteJobId());
+            int dependent = graph.indexOf(request.dependentKind(), request.dependentJobId());
+            graph.addDependency(prerequisite, dependent);
+        } catch (IllegalArgumentException e) {
+            // A concurrent dependency was committed first and the two form a cycle; let the next plan reload the graph
+            logger.warn("Cached preparation graph of car {} is out of date, evicting it: {}", carId, e.getMessage());
+            graphsByCar.remove(carId, cached);
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    // The job's values are read now, while the entity is still managed; a rolled back change never reaches the graph
+    private void updateNode(PreparationJobKind kind, Long jobId, int durationMinutes, boolean done) {
+        afterCommit(() -> updateCachedNode(kind, jobId, durationMinutes, done));
+    }
+
+    private void updateCachedNode(PreparationJobKind kind, Long jobId, int durationMinutes, boolean done) {
+        JobKey key = new JobKey(kind, jobId);
+        Long carId = carsByJob.get(key);
+        CachedGraph cached = carId == null ? null : graphsByCar.get(carId);
+        if (cached == null) {
+            if (carId != null) {
+                carsByJob.remove(key, carId);
+            }
+            return;
+        }
+        cached.lock().lock();
+        try {
+            int node = cached.graph().indexOf(kind, jobId);
+            if (node >= 0) {
+                cached.graph().updateJob(node, durationMinutes, done);
+                logger.debug("Updated preparation graph of car {} after change of {} job {}", carId, kind, jobId);
+            }
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    private CachedGraph getGraph(Long carId) {
+        CachedGraph cached = graphsByCar.get(carId);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+        if (cached != null && graphsByCar.remove(carId, cached)) {
+            carsByJob.values().removeIf(carId::equals);
+        }
+        CachedGraph loaded = loadGraph(carId);
+        if (graphsByCar.size() >= Math.max(1, graphCacheMaxSize)) {
+            evictGraphs();
+        }
+        CachedGraph existing = graphsByCar.putIfAbsent(carId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void evictGraphs() {
+        int maxGraphs = Math.max(1, graphCacheMaxSize);
+        long now = System.currentTimeMillis();
+        Set<Long> evicted = new HashSet<>();
+        graphsByCar.entrySet().removeIf(entry -> entry.getValue().expiresAtMillis() <= now && evicted.add(entry.getKey()));
+        Iterator<Long> cars = graphsByCar.keySet().iterator();
+        int toRemove = graphsByCar.size() - maxGraphs + Math.max(1, maxGraphs / 10);
+        while (toRemove-- > 0 && cars.hasNext()) {
+            evicted.add(cars.next());
+            cars.remove();
+        }
+        carsByJob.values().removeIf(evicted::contains);
+        logger.debug("Evicted {} cached preparation graphs", evicted.size());
+    }
+
+    /**
+     * Loads the jobs linked to the car's tasks and the persisted dependencies between them.
+     * A task's valet job always follows its workshop job, as in a graph kept in memory since before the first explicit
+     * dependency; explicit dependencies add to these default ones.
+     */
+    private CachedGraph loadGraph(Long carId) {
+        logger.debug("Loading preparation graph for car with id: {}", carId);
+        CachedGraph cached = new CachedGraph(new PreparationGraph(), new ReentrantLock(),
+                System.currentTimeMillis() + graphCacheTtlInMs);
+        PreparationGraph graph = cached.graph();
+        List<Task> tasks = taskRepository.findByCarId(carId);
+        List<PreparationDependency> dependencies = dependencyRepository.findByCarId(carId);
+
+        for (Task task : tasks) {
+            int workshopNode = task.getWorkshop() == null ? -1 : addWorkshop(cached, carId, task.getWorkshop());
+            int valetNode = task.getValet() == null ? -1 : addValet(cached, carId, task.getValet());
+            if (workshopNode >= 0 && valetNode >= 0) {
+                graph.addDependency(workshopNode, valetNode);
+            }
+        }
+        for (PreparationDependency dependency : dependencies) {
+            int prerequisite = graph.indexOf(dependency.getPrerequisiteKind(), dependency.getPrerequisiteJobId());
+            int dependent = graph.indexOf(dependency.getDependentKind(), dependency.getDependentJobId());
+            if (prerequisite < 0 || dependent < 0) {
+                logger.warn("Skipping preparation dependency {} of car {}: its jobs are no longer part of the car's tasks",
+                        dependency.getId(), carId);
+                continue;
+            }
+            try {
+                graph.addDependency(prerequisite, dependent);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping preparation dependency {} of car {}: {}", dependency.getId(), carId, e.getMessage());
+            }
+        }
+        return cached;
+    }
+
+    private int loadNode(CachedGraph cached, Long carId, PreparationJobKind kind, Long jobId) {
+        cached.lock().lock();
+        try {
+            int node = cached.graph().indexOf(kind, jobId);
+            if (node >= 0) {
+                return node;
+            }
+        } finally {
+            cached.lock().unlock();
+        }
+        if (kind == PreparationJobKind.WORKSHOP) {
+            Workshop workshop = workshopRepository.findById(jobId).orElseThrow(() -> {
+                logger.error("Workshop not found with id: {}", jobId);
+                return new ResourceNotFoundException("Workshop not found with id: " + jobId);
+            });
+            if (!taskRepository.existsByCarIdAndWorkshopId(carId, jobId)) {
+                logger.error("Workshop job {} is not linked to a task of car {}", jobId, carId);
+                throw new ResourceNotFoundException("Workshop job " + jobId + " is not a job of car " + carId);
+            }
+            return addWorkshop(cached, carId, workshop);
+        }
+        Valet valet = valetRepository.findById(jobId).orElseThrow(() -> {
+            logger.error("Valet not found with id: {}", jobId);
+            return new ResourceNotFoundException("Valet not found with id: " + jobId);
+        });
+        if (!taskRepository.existsByCarIdAndValetId(carId, jobId)) {
+            logger.error("Valet job {} is not linked to a task of car {}", jobId, carId);
+            throw new ResourceNotFoundException("Valet job " + jobId + " is not a job of car " + carId);
+        }
+        return addValet(cached, carId, valet);
+    }
+
+    private int addWorkshop(CachedGraph cached, Long carId, Workshop workshop) {
+        carsByJob.put(new JobKey(PreparationJobKind.WORKSHOP, workshop.getId()), carId);
+        cached.lock().lock();
+        try {
+            return cached.graph().addJob(PreparationJobKind.WORKSHOP, workshop.getId(), String.valueOf(workshop.getWorkshopEnum()),
+                    jobDurations.minutes(workshop.getWorkshopEnum()), workshop.getWorkshopStatusEnum() == WorkshopStatusEnum.DONE);
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    private int addValet(CachedGraph cached, Long carId, Valet valet) {
+        carsByJob.put(new JobKey(PreparationJobKind.VALET, valet.getId()), carId);
+        cached.lock().lock();
+        try {
+            return cached.graph().addJob(PreparationJobKind.VALET, valet.getId(), String.valueOf(valet.getValetEnum()),
+                    jobDurations.minutes(valet.getValetEnum()), valet.getStatus() == ValetStatus.DONE);
+        } finally {
+            cached.lock().unlock();
+        }
+    }
+
+    private PreparationPlanDto toPlan(Car car, PreparationGraph graph) {
+        int remainingMinutes = graph.remainingMinutes();
+        LocalDateTime estimatedReadyAt = LocalDateTime.now().plusMinutes(remainingMinutes);
+        Boolean onTrack = car.getHandoverDate() == null ? null : !estimatedReadyAt.isAfter(car.getHandoverDate());
+        return new PreparationPlanDto(
+                car.getId(),
+                car.getHandoverDate(),
+                estimatedReadyAt,
+                remainingMinutes,
+                onTrack,
+                toJobs(graph, graph.readyToStart()),
+                toJobs(graph, graph.remainingInTopologicalOrder()),
+                toJobs(graph, graph.criticalPath()));
+    }
+
+    private List<PreparationJobDto> toJobs(PreparationGraph graph, List<Integer> nodes) {
+        return nodes.stream()
+                .map(node -> new PreparationJobDto(graph.kind(node), graph.jobId(node), graph.jobType(node),
+                        graph.isDone(node), graph.duration(node), graph.earliestFinish(node)))
+                .toList();
+    }
+
+    // Runs the action once the surrounding transaction commits, or right away outside a transaction
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Car getCar(Long carId) {
+        return carRepository.findById(carId).orElseThrow(() -> {
+            logger.error("Car not found with id: {}", carId);
+            return new CarNotFoundException("Car not found with id: " + carId);
+        });
+    }
+
+    private record JobKey(PreparationJobKind kind, Long jobId) {
+    }
+
+    private record CachedGraph(PreparationGraph graph, ReentrantLock lock, long expiresAtMillis) {
+    }
+}
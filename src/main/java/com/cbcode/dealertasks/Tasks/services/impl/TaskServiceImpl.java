@@ -10,6 +10,7 @@ import com.cbcode.dealertasks.ExceptionsConfig.UserNotFoundException;
 import com.cbcode.dealertasks.Tasks.model.DTOs.TaskDto;
 import com.cbcode.dealertasks.Tasks.model.Task;
 import com.cbcode.dealertasks.Tasks.repository.TaskRepository;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
 import com.cbcode.dealertasks.Tasks.services.TaskService;
 import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
@@ -32,12 +33,15 @@ public class TaskServiceImpl implements TaskService {
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
     private final CarRepository carRepository;
+    private final PreparationPlanService preparationPlanService;
 
-    public TaskServiceImpl(TaskRepository taskRepository, UserRepository userRepository, ModelMapper modelMapper, CarRepository carRepository) {
+    public TaskServiceImpl(TaskRepository taskRepository, UserRepository userRepository, ModelMapper modelMapper, CarRepository carRepository,
+                           PreparationPlanService preparationPlanService) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.modelMapper = modelMapper;
         this.carRepository = carRepository;
+        this.preparationPlanService = preparationPlanService;
     }
 
     /**
@@ -101,6 +105,8 @@ public class TaskServiceImpl implements TaskService {
         logger.info("Saving task and car in the database");
         task = taskRepository.save(task);
         logger.info("Task and car saved successfully with task id: {}", task.getId());
+        // The task may add workshop and valet jobs to the car's preparation plan
+        preparationPlanService.evict(task.getCar().getId());
 
         TaskDto createdTaskDto = modelMapper.map(task, TaskDto.class);
         logger.debug("Mapped Task Entity to TaskDto: {}", createdTaskDto);
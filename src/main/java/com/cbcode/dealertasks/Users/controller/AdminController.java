@@ -1,7 +1,10 @@
 package com.cbcode.dealertasks.Users.controller;
 
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportReport;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportRow;
 import com.cbcode.dealertasks.Users.service.AdminUserService;
+import com.cbcode.dealertasks.Users.service.UserImportService;
 import com.cbcode.dealertasks.Users.service.impl.DTOsResponses.UserDeletionResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +16,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/admin")
 @CrossOrigin(origins = "*") // This annotation needs
@@ -22,9 +27,11 @@ public class AdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
     private final AdminUserService adminUserService;
+    private final UserImportService userImportService;
 
-    public AdminController(AdminUserService adminUserService) {
+    public AdminController(AdminUserService adminUserService, UserImportService userImportService) {
         this.adminUserService = adminUserService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -100,4 +107,27 @@ public class AdminController {
     public ResponseEntity<UserDto> adminUpdateUserById(@PathVariable Long id, @RequestBody UserDto userDto) {
         return ResponseEntity.ok(adminUserService.adminUpdateUser(id, userDto));
     }
+
+    /**
+     * Creates many users at once, e.g. the staff of a new site, from a JSON array.
+     * Requires the user to have the 'ROLE_ADMIN' authority.
+     * @param rows the users, each with first name, last name, email, password and role names.
+     * @return a ResponseEntity with the outcome of every row.
+     */
+    @PostMapping(value = "/users/import", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<UserImportReport> importUsers(@RequestBody List<UserImportRow> rows) {
+        return ResponseEntity.ok(userImportService.importUsers(rows));
+    }
+
+    /**
+     * Creates many users at once from a CSV with the header firstName,lastName,email,password,roles
+     * (roles separated by ';').
+     * Requires the user to have the 'ROLE_ADMIN' authority.
+     * @param csv the CSV.
+     * @return a ResponseEntity with the outcome of every line after the header.
+     */
+    @PostMapping(value = "/users/import", consumes = "text/csv", produces = "application/json")
+    public ResponseEntity<UserImportReport> importUsersCsv(@RequestBody String csv) {
+        return ResponseEntity.ok(userImportService.importCsv(csv));
+    }
 }
@@ -1,18 +1,24 @@
 package com.cbcode.dealertasks.Users.controller;
 
 import com.cbcode.dealertasks.Users.security.AuthService;
+import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.LoginThrottleService;
 import com.cbcode.dealertasks.Users.security.DTOs.Request.RefreshTokenRequest;
 import com.cbcode.dealertasks.Users.security.DTOs.Request.SignInRequest;
 import com.cbcode.dealertasks.Users.security.DTOs.Request.SignUpRequest;
 import com.cbcode.dealertasks.Users.security.DTOs.Response.JwtAuthResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/auth")
@@ -22,9 +28,13 @@ public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private final AuthService authService;
+    private final LoginThrottleService loginThrottleService;
+    private final JwtService jwtService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginThrottleService loginThrottleService, JwtService jwtService) {
         this.authService = authService;
+        this.loginThrottleService = loginThrottleService;
+        this.jwtService = jwtService;
     }
 
     /**
@@ -43,11 +53,14 @@ public class AuthController {
 
     /**
      * Logs in a user.
+     * Attempts are throttled per client address and per email before the password is checked.
      * @param signInRequest the request body containing the user's email and password.
+     * @param request the HTTP request, for the client address.
      * @return a ResponseEntity with the JWT token and the user's full name.
      */
     @PostMapping(value = "/login", consumes = "application/json")
-    public ResponseEntity<JwtAuthResponse> loginUser(@RequestBody @Valid SignInRequest signInRequest) {
+    public ResponseEntity<JwtAuthResponse> loginUser(@RequestBody @Valid SignInRequest signInRequest, HttpServletRequest request) {
+        loginThrottleService.checkLoginAllowed(signInRequest.email(), request.getRemoteAddr());
         logger.info("Logging in user with email: {}", signInRequest.email());
         return ResponseEntity.ok(authService.loginUser(signInRequest));
     }
@@ -64,13 +77,20 @@ public class AuthController {
     }
 
     /**
-     * Logs out a user.
+     * Logs out a user, revoking the access token sent in the Authorization header and the session of the refresh token
+     * sent in the body.
+     * @param authorizationHeader the Authorization header, "Bearer " followed by the access token.
+     * @param refreshToken the request body containing the refresh token, optional.
      * @return a ResponseEntity with a message.
      */
     @PostMapping(value = "/logout")
-    public ResponseEntity<?> logoutUser() {
+    public ResponseEntity<?> logoutUser(@RequestHeader(name = "Authorization", required = false) String authorizationHeader,
+                                        @RequestBody(required = false) RefreshTokenRequest refreshToken) {
         logger.info("Logging out user");
-        authService.logoutUser();
+        String accessToken = authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                ? authorizationHeader.substring(7)
+                : null;
+        authService.logoutUser(accessToken, refreshToken == null ? null : refreshToken.refreshToken());
         return ResponseEntity.ok("User logged out successfully!");
     }
 
@@ -110,4 +130,16 @@ public class AuthController {
         authService.resetPassword(token, newPassword);
         return ResponseEntity.ok("Password reset successfully!");
     }
+
+    /**
+     * Publishes the public keys used to sign JWT tokens, so other services can verify them.
+     * Verifiers may cache the set for a few minutes and should refetch it when they meet an unknown key id.
+     * @return a ResponseEntity with the JWK set.
+     */
+    @GetMapping(value = "/jwks.json", produces = "application/json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwtService.getPublicJwks());
+    }
 }
@@ -1,6 +1,8 @@
 package com.cbcode.dealertasks.Users.controller;
 
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryDto;
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
 import com.cbcode.dealertasks.Users.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,4 +26,14 @@ public class UserController {
         UserDto updatedUser = userService.updateUser(id, userDto);
         return ResponseEntity.ok(updatedUser);
     }
+
+    @GetMapping(value = "/directory", produces = "application/json")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_SALES', 'ROLE_WORKSHOP', 'ROLE_VALETER')")
+    public ResponseEntity<UserDirectoryDto> searchDirectory(@RequestParam(name = "q") String query,
+                                                            @RequestParam(required = false) EnumRole role,
+                                                            @RequestParam(required = false) Boolean enabled,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(userService.searchDirectory(query, role, enabled, page, size));
+    }
 }
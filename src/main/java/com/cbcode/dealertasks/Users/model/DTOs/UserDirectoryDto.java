@@ -0,0 +1,15 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+import java.util.List;
+
+/**
+ * One page of staff directory matches, by last name then first name. There is no total, so that a search
+ * never counts all its matches.
+ */
+public record UserDirectoryDto(
+        List<UserDirectoryEntryDto> items,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
@@ -0,0 +1,7 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+/**
+ * A user as listed by the staff directory search, e.g. in an "assign to" picker.
+ */
+public record UserDirectoryEntryDto(Long id, String firstName, String lastName, String email, boolean enabled) {
+}
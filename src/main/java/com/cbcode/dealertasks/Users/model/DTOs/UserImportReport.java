@@ -0,0 +1,9 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+import java.util.List;
+
+/**
+ * The result of a bulk import, with one entry per row in the order of the import.
+ */
+public record UserImportReport(int total, int created, int rejected, long durationMillis, List<UserImportResult> rows) {
+}
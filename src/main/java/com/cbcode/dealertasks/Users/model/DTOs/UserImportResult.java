@@ -0,0 +1,10 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+import com.cbcode.dealertasks.Users.model.Enums.UserImportOutcome;
+
+/**
+ * The outcome of one row of a bulk import: the id of the created user, or why the row was not imported.
+ * @param row - The 1-based position of the row in the import, not counting the CSV header.
+ */
+public record UserImportResult(int row, String email, UserImportOutcome outcome, Long userId, String message) {
+}
@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+import java.util.Set;
+
+/**
+ * One user of a bulk import, as given in the JSON body or in a CSV line.
+ * @param roles - The role names, e.g. ROLE_SALES.
+ */
+public record UserImportRow(String firstName, String lastName, String email, String password, Set<String> roles) {
+
+    // Keeps the raw password out of logs
+    @Override
+    public String toString() {
+        return "UserImportRow[firstName=" + firstName + ", lastName=" + lastName + ", email=" + email + ", roles=" + roles + "]";
+    }
+}
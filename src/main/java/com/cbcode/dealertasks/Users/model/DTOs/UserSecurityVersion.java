@@ -0,0 +1,4 @@
+package com.cbcode.dealertasks.Users.model.DTOs;
+
+public record UserSecurityVersion(Long id, String email, long securityVersion) {
+}
@@ -0,0 +1,200 @@
+package com.cbcode.dealertasks.Users.model;
+
+import com.cbcode.dealertasks.Users.model.Enums.EmailKind;
+import com.cbcode.dealertasks.Users.model.Enums.EmailOutboxStatus;
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * An email waiting to be sent, written in the same transaction as the change that triggers it.
+ * A background dispatcher claims pending rows, sends them and records the outcome; failed sends are retried
+ * with exponential backoff and end up DEAD after too many attempts.
+ * The payload holds the template variables of the email as JSON (e.g. the reset link), and is cleared once the email
+ * is sent or dead; the locale is the recipient's language tag, used to pick the template.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_status_next_attempt_at", columnList = "status, next_attempt_at"))
+@SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 1, initialValue = 1)
+public class EmailOutboxMessage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    private Long id;
+
+    @Column(name = "kind", nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    private EmailKind kind;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "payload", length = 2048)
+    private String payload;
+
+    @Column(name = "locale", length = 35)
+    private String locale;
+
+    @Column(name = "status", nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private EmailOutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    // Lease of a claimed row: a row still SENDING after this time was claimed by an instance that died, and is claimed again
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    public EmailOutboxMessage() {
+    }
+
+    public EmailOutboxMessage(EmailKind kind, String recipient, String payload, String locale, Instant createdAt) {
+        this.kind = kind;
+        this.recipient = recipient;
+        this.payload = payload;
+        this.locale = locale;
+        this.status = EmailOutboxStatus.PENDING;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public EmailKind getKind() {
+        return kind;
+    }
+
+    public void setKind(EmailKind kind) {
+        this.kind = kind;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public void setLocale(String locale) {
+        this.locale = locale;
+    }
+
+    public EmailOutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EmailOutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        EmailOutboxMessage that = (EmailOutboxMessage) o;
+        return getAttempts() == that.getAttempts()
+                && Objects.equals(getId(), that.getId())
+                && getKind() == that.getKind()
+                && Objects.equals(getRecipient(), that.getRecipient())
+                && Objects.equals(getPayload(), that.getPayload())
+                && Objects.equals(getLocale(), that.getLocale())
+                && getStatus() == that.getStatus()
+                && Objects.equals(getNextAttemptAt(), that.getNextAttemptAt())
+                && Objects.equals(getLockedUntil(), that.getLockedUntil())
+                && Objects.equals(getLastError(), that.getLastError())
+                && Objects.equals(getCreatedAt(), that.getCreatedAt())
+                && Objects.equals(getSentAt(), that.getSentAt());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getKind(), getRecipient(), getPayload(), getLocale(), getStatus(), getAttempts(), getNextAttemptAt(),
+                getLockedUntil(), getLastError(), getCreatedAt(), getSentAt());
+    }
+}
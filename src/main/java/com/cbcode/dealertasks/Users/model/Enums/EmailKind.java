@@ -0,0 +1,5 @@
+package com.cbcode.dealertasks.Users.model.Enums;
+
+public enum EmailKind {
+    PASSWORD_RESET
+}
@@ -0,0 +1,8 @@
+package com.cbcode.dealertasks.Users.model.Enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
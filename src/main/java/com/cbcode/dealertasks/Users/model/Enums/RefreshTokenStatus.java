@@ -0,0 +1,7 @@
+package com.cbcode.dealertasks.Users.model.Enums;
+
+public enum RefreshTokenStatus {
+    ACTIVE,
+    ROTATED,
+    REVOKED
+}
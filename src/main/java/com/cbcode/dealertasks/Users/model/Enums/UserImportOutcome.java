@@ -0,0 +1,8 @@
+package com.cbcode.dealertasks.Users.model.Enums;
+
+public enum UserImportOutcome {
+    CREATED,
+    INVALID,
+    DUPLICATE,
+    FAILED
+}
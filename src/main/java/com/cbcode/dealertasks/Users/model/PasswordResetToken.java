@@ -0,0 +1,81 @@
+package com.cbcode.dealertasks.Users.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A pending password reset, identified by the SHA-256 hash of the token sent by email.
+ * Rows are deleted when the token is used, and purged once expired.
+ */
+@Entity
+@Table(name = "password_reset_tokens",
+        indexes = {
+                @Index(name = "idx_password_reset_tokens_user_id", columnList = "user_id"),
+                @Index(name = "idx_password_reset_tokens_expires_at", columnList = "expires_at")
+        })
+public class PasswordResetToken implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public PasswordResetToken() {
+    }
+
+    public PasswordResetToken(String tokenHash, Long userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PasswordResetToken that = (PasswordResetToken) o;
+        return Objects.equals(getTokenHash(), that.getTokenHash())
+                && Objects.equals(getUserId(), that.getUserId())
+                && Objects.equals(getExpiresAt(), that.getExpiresAt());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getTokenHash(), getUserId(), getExpiresAt());
+    }
+}
@@ -71,11 +71,9 @@ public class User implements Serializable {
     @LastModifiedBy
     private String lastModifiedBy;
 
-    @Column(name = "reset_token")
-    private String resetToken;
-
-    @Column(name = "reset_token_expiration")
-    private LocalDateTime resetTokenExpiration;
+    // Bumped whenever the user's access changes; tokens carrying an older value are rejected
+    @Column(name = "security_version", nullable = false, columnDefinition = "bigint default 0")
+    private long securityVersion;
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "users_roles",
@@ -158,18 +156,6 @@ public class User implements Serializable {
         this.updatedAt = updatedAt;
     }
 
-    public String getResetToken() {
-        return resetToken;
-    }
-
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
-    }
-
-    public LocalDateTime getResetTokenExpiration() {
-        return resetTokenExpiration;
-    }
-
     public String getLastModifiedBy() {
         return lastModifiedBy;
     }
@@ -178,8 +164,12 @@ public class User implements Serializable {
         this.lastModifiedBy = lastModifiedBy;
     }
 
-    public void setResetTokenExpiration(LocalDateTime resetTokenExpiration) {
-        this.resetTokenExpiration = resetTokenExpiration;
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public void setSecurityVersion(long securityVersion) {
+        this.securityVersion = securityVersion;
     }
 
     public Set<Role> getRoles() {
@@ -195,6 +185,7 @@ public class User implements Serializable {
         if (o == null || getClass() != o.getClass()) return false;
         User user = (User) o;
         return isEnabled() == user.isEnabled()
+                && getSecurityVersion() == user.getSecurityVersion()
                 && Objects.equals(getId(), user.getId())
                 && Objects.equals(getFirstName(), user.getFirstName())
                 && Objects.equals(getLastName(), user.getLastName())
@@ -203,14 +194,12 @@ public class User implements Serializable {
                 && Objects.equals(getCreatedAt(), user.getCreatedAt())
                 && Objects.equals(getUpdatedAt(), user.getUpdatedAt())
                 && Objects.equals(getLastModifiedBy(), user.getLastModifiedBy())
-                && Objects.equals(getResetToken(), user.getResetToken())
-                && Objects.equals(getResetTokenExpiration(), user.getResetTokenExpiration())
                 && Objects.equals(getRoles(), user.getRoles());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getFirstName(), getLastName(), getEmail(), getPassword(), isEnabled(), getCreatedAt(),
-                getUpdatedAt(), getLastModifiedBy(), getResetToken(), getResetTokenExpiration(), getRoles());
+        return Objects.hash(getId(), getFirstName(), getLastName(), getEmail(), getPassword(), isEnabled(), getSecurityVersion(),
+                getCreatedAt(), getUpdatedAt(), getLastModifiedBy(), getRoles());
     }
 }
@@ -0,0 +1,54 @@
+package com.cbcode.dealertasks.Users.repository;
+
+import com.cbcode.dealertasks.Users.model.EmailOutboxMessage;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Claims a batch in one statement. SKIP LOCKED lets several instances claim concurrently without waiting on each other
+    // or claiming the same row; rows whose lease ran out (claimed by an instance that died) are claimed again.
+    @Transactional
+    @Query(value = "UPDATE email_outbox SET status = 'SENDING', locked_until = :lease_until, attempts = attempts + 1 " +
+            "WHERE id IN (SELECT id FROM email_outbox " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= :now) OR (status = 'SENDING' AND locked_until <= :now) " +
+            "ORDER BY next_attempt_at LIMIT :batch_size FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *", nativeQuery = true)
+    List<EmailOutboxMessage> claimBatch(@Param("now") Instant now, @Param("lease_until") Instant leaseUntil,
+                                        @Param("batch_size") int batchSize);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'SENT', sent_at = :now, payload = NULL, locked_until = NULL, last_error = NULL " +
+            "WHERE id = :id AND status = 'SENDING'", nativeQuery = true)
+    int markSent(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'PENDING', next_attempt_at = :next_attempt_at, locked_until = NULL, " +
+            "last_error = :last_error WHERE id = :id AND status = 'SENDING'", nativeQuery = true)
+    int markForRetry(@Param("id") Long id, @Param("next_attempt_at") Instant nextAttemptAt, @Param("last_error") String lastError);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'DEAD', payload = NULL, locked_until = NULL, last_error = :last_error " +
+            "WHERE id = :id AND status = 'SENDING'", nativeQuery = true)
+    int markDead(@Param("id") Long id, @Param("last_error") String lastError);
+
+    @Query(value = "SELECT COUNT(*) FROM email_outbox WHERE status IN ('PENDING', 'SENDING')", nativeQuery = true)
+    long countUnsent();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE id IN " +
+            "(SELECT id FROM email_outbox WHERE status = 'SENT' AND sent_at <= :sent_before LIMIT :batch_size)", nativeQuery = true)
+    int deleteSentBatch(@Param("sent_before") Instant sentBefore, @Param("batch_size") int batchSize);
+}
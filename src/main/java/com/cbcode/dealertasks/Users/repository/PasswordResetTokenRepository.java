@@ -0,0 +1,33 @@
+package com.cbcode.dealertasks.Users.repository;
+
+import com.cbcode.dealertasks.Users.model.PasswordResetToken;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, String> {
+
+    // Single-use consumption: the row is deleted and its user returned in one statement, so two concurrent resets
+    // with the same token cannot both succeed. Run as a query (not @Modifying) to read the RETURNING value.
+    @Transactional
+    @Query(value = "DELETE FROM password_reset_tokens WHERE token_hash = :token_hash AND expires_at > :now RETURNING user_id",
+            nativeQuery = true)
+    Optional<Long> consume(@Param("token_hash") String tokenHash, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.userId = :user_id")
+    int deleteByUserId(@Param("user_id") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM password_reset_tokens WHERE token_hash IN " +
+            "(SELECT token_hash FROM password_reset_tokens WHERE expires_at <= :now LIMIT :batch_size)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batch_size") int batchSize);
+}
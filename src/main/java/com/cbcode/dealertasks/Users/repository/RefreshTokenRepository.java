@@ -0,0 +1,38 @@
+package com.cbcode.dealertasks.Users.repository;
+
+import com.cbcode.dealertasks.Users.model.Enums.RefreshTokenStatus;
+import com.cbcode.dealertasks.Users.model.RefreshToken;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = :rotated, r.rotatedAt = :now " +
+            "WHERE r.tokenHash = :token_hash AND r.status = :active AND r.expiresAt > :now")
+    int markRotated(@Param("token_hash") String tokenHash, @Param("now") Instant now,
+                    @Param("active") RefreshTokenStatus active, @Param("rotated") RefreshTokenStatus rotated);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = :revoked WHERE r.familyId IN :family_ids AND r.status <> :revoked")
+    int revokeFamilies(@Param("family_ids") Collection<String> familyIds, @Param("revoked") RefreshTokenStatus revoked);
+
+    @Query("SELECT r.familyId FROM RefreshToken r " +
+            "WHERE r.userId = :user_id AND r.status = :active AND r.expiresAt > :now ORDER BY r.createdAt DESC")
+    List<String> findActiveFamilyIds(@Param("user_id") Long userId, @Param("active") RefreshTokenStatus active, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE token_hash IN " +
+            "(SELECT token_hash FROM refresh_tokens WHERE expires_at <= :now LIMIT :batch_size)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batch_size") int batchSize);
+}
@@ -0,0 +1,72 @@
+package com.cbcode.dealertasks.Users.repository;
+
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts imported users with plain JDBC: the ids of a chunk come from users_seq in one query, and the users and their
+ * users_roles rows are written as two batches, instead of one INSERT per user and per role through the entity manager.
+ */
+@Repository
+public class UserImportRepository {
+
+    private static final String NEXT_IDS = "SELECT nextval('users_seq') FROM generate_series(1, ?)";
+
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, first_name, last_name, email, password, is_enabled, created_at, security_version)
+            VALUES (?, ?, ?, ?, ?, true, ?, 0)""";
+
+    private static final String INSERT_USER_ROLE = "INSERT INTO users_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param count - The number of ids to reserve.
+     * @return - New ids from users_seq, the same sequence the User entity uses.
+     */
+    public List<Long> nextUserIds(int count) {
+        return jdbcTemplate.queryForList(NEXT_IDS, Long.class, count);
+    }
+
+    /**
+     * Inserts the users and their roles in one transaction: all of them, or none if one fails (e.g. an email
+     * registered in the meantime).
+     * @param users - The users to insert, with ids from nextUserIds.
+     */
+    @Transactional
+    public void insertUsers(List<NewUser> users) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (statement, user) -> {
+            statement.setLong(1, user.id());
+            statement.setString(2, user.firstName());
+            statement.setString(3, user.lastName());
+            statement.setString(4, user.email());
+            statement.setString(5, user.passwordHash());
+            statement.setTimestamp(6, createdAt);
+        });
+        List<long[]> userRoles = new ArrayList<>();
+        for (NewUser user : users) {
+            for (Long roleId : user.roleIds()) {
+                userRoles.add(new long[]{user.id(), roleId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles, userRoles.size(), (statement, userRole) -> {
+            statement.setLong(1, userRole[0]);
+            statement.setLong(2, userRole[1]);
+        });
+    }
+
+    public record NewUser(long id, String firstName, String lastName, String email, String passwordHash, Set<Long> roleIds) {
+    }
+}
@@ -1,11 +1,19 @@
 package com.cbcode.dealertasks.Users.repository;
 
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryEntryDto;
+import com.cbcode.dealertasks.Users.model.DTOs.UserSecurityVersion;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
 import com.cbcode.dealertasks.Users.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,12 +22,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    Optional<User> findWithRolesByEmail(@Param("email") String email);
+
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.email = :email")
     Boolean existsByEmail(@Param("email") String email);
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :first_name, '%'))")
-    Optional<User> findUserByFirstNameContainingIgnoreCase(@Param("first_name") String firstName);
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    // Staff directory: the pattern is lower case, either a prefix ('jo%') or a substring ('%smi%'), matched against the
+    // indexed lower(...) expressions of UserSearchIndexInitializer, with '!' as escape character (see
+    // UserServiceImpl.escapeLike); role and enabled are optional filters
+    @Query("""
+            SELECT new com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryEntryDto(u.id, u.firstName, u.lastName, u.email, u.isEnabled)
+            FROM User u
+            WHERE (LOWER(u.firstName) LIKE :pattern ESCAPE '!' OR LOWER(u.lastName) LIKE :pattern ESCAPE '!'
+                OR LOWER(u.email) LIKE :pattern ESCAPE '!')
+            AND (:enabled IS NULL OR u.isEnabled = :enabled)
+            AND (:role IS NULL OR EXISTS (SELECT 1 FROM u.roles r WHERE r.name = :role))""")
+    Slice<UserDirectoryEntryDto> searchDirectory(@Param("pattern") String pattern, @Param("role") EnumRole role,
+                                                 @Param("enabled") Boolean enabled, Pageable pageable);
+
+    @Query("SELECT new com.cbcode.dealertasks.Users.model.DTOs.UserSecurityVersion(u.id, u.email, u.securityVersion) FROM User u WHERE u.id = :user_id")
+    Optional<UserSecurityVersion> findSecurityVersionById(@Param("user_id") Long userId);
+
+    @Query("SELECT new com.cbcode.dealertasks.Users.model.DTOs.UserSecurityVersion(u.id, u.email, u.securityVersion) FROM User u")
+    List<UserSecurityVersion> findAllSecurityVersions();
+
+    // Paged listings, first phase: the ids of the page only, so limit and offset apply to users rather than to
+    // user-role rows, and no collection is touched
+    @Query(value = "SELECT u.id FROM User u", countQuery = "SELECT COUNT(u) FROM User u")
+    Page<Long> findPageOfIds(Pageable pageable);
 
-    @Query("SELECT u FROM User u WHERE u.resetToken = :reset_token")
-    Optional<User> findByResetToken(@Param("reset_token") String resetToken);
+    // Paged listings, second phase: the users of the page with their roles, in one query
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.id IN :ids")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
 }
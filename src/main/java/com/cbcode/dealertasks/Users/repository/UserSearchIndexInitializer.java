@@ -0,0 +1,50 @@
+package com.cbcode.dealertasks.Users.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the expression indexes Hibernate cannot generate for the staff directory search (UserRepository.searchDirectory),
+ * on lower(first_name), lower(last_name) and lower(email):
+ * btree text_pattern_ops indexes for the prefix searches of short terms, and pg_trgm GIN indexes for the substring
+ * searches of longer ones. Runs once the schema is up to date, and is a no-op when the indexes already exist.
+ */
+@Component
+public class UserSearchIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndexInitializer.class);
+    private static final String[] COLUMNS = {"first_name", "last_name", "email"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void addIndexes() {
+        try {
+            for (String column : COLUMNS) {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_" + column + "_prefix ON users (lower(" + column + ") text_pattern_ops)");
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not add the user directory prefix indexes: {}", e.getMessage());
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (String column : COLUMNS) {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_" + column + "_trgm ON users USING gin (lower(" + column + ") gin_trgm_ops)");
+            }
+            logger.info("User directory search indexes in place");
+        } catch (DataAccessException e) {
+            // Substring searches then scan the users table; prefix searches still use their indexes
+            logger.warn("Could not add the user directory trigram indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -14,7 +14,7 @@ public interface AuthService {
 
     JwtAuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
 
-    void logoutUser();
+    void logoutUser(String accessToken, String refreshToken);
 
     UserDto forgotPassword(String email);
 
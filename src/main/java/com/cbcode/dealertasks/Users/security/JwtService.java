@@ -1,5 +1,6 @@
 package com.cbcode.dealertasks.Users.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Map;
@@ -10,9 +11,19 @@ public interface JwtService {
 
     String getUsernameFromToken(String token);
 
+    Claims verifyToken(String token);
+
+    boolean isTokenValid(Claims claims, UserDetails userDetails);
+
+    boolean isAccessToken(Claims claims);
+
+    UserDetails extractUserDetails(Claims claims);
+
     boolean validateToken(String token, UserDetails userDetails);
 
     boolean isTokenExpired(String token);
 
     String generateRefreshToken(Map<String, Object> claims, UserDetails userDetails);
+
+    Map<String, Object> getPublicJwks();
 }
@@ -0,0 +1,6 @@
+package com.cbcode.dealertasks.Users.security;
+
+public interface LoginThrottleService {
+
+    void checkLoginAllowed(String email, String clientAddress);
+}
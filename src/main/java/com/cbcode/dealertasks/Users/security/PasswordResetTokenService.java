@@ -0,0 +1,12 @@
+package com.cbcode.dealertasks.Users.security;
+
+public interface PasswordResetTokenService {
+
+    String issue(Long userId);
+
+    Long validate(String token);
+
+    Long consume(String token);
+
+    long getExpirationMinutes();
+}
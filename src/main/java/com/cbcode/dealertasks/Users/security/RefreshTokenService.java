@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Users.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
+public interface RefreshTokenService {
+
+    String issue(UserDetails userDetails);
+
+    String rotate(Claims refreshClaims, UserDetails userDetails);
+
+    void revoke(Claims refreshClaims);
+}
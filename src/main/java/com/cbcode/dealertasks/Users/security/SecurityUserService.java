@@ -4,4 +4,6 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 public interface SecurityUserService {
     UserDetailsService userDetailsService();
+
+    void evictUser(String email);
 }
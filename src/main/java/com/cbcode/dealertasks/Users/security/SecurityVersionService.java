@@ -0,0 +1,14 @@
+package com.cbcode.dealertasks.Users.security;
+
+import com.cbcode.dealertasks.Users.model.User;
+
+public interface SecurityVersionService {
+
+    boolean isCurrent(Long userId, long securityVersion);
+
+    long currentVersion(Long userId);
+
+    void bump(User user);
+
+    void userDeleted(Long userId);
+}
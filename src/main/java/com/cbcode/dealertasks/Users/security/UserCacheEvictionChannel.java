@@ -0,0 +1,15 @@
+package com.cbcode.dealertasks.Users.security;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries user cache evictions to every node running the application.
+ * The default implementation only reaches the local node; a multi-node deployment provides a @Primary
+ * implementation backed by a shared broker (e.g. Redis pub/sub or Postgres LISTEN/NOTIFY).
+ */
+public interface UserCacheEvictionChannel {
+
+    void publish(String email);
+
+    void subscribe(Consumer<String> listener);
+}
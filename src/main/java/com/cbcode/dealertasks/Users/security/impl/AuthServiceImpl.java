@@ -4,7 +4,6 @@ import com.cbcode.dealertasks.ExceptionsConfig.*;
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
 import com.cbcode.dealertasks.Users.model.Role;
 import com.cbcode.dealertasks.Users.model.User;
-import com.cbcode.dealertasks.Users.repository.RoleRepository;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
 import com.cbcode.dealertasks.Users.security.AuthService;
 import com.cbcode.dealertasks.Users.security.DTOs.Request.RefreshTokenRequest;
@@ -12,10 +11,19 @@ import com.cbcode.dealertasks.Users.security.DTOs.Request.SignInRequest;
 import com.cbcode.dealertasks.Users.security.DTOs.Request.SignUpRequest;
 import com.cbcode.dealertasks.Users.security.DTOs.Response.JwtAuthResponse;
 import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.PasswordResetTokenService;
+import com.cbcode.dealertasks.Users.security.RefreshTokenService;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
 import com.cbcode.dealertasks.Users.service.EmailService;
+import com.cbcode.dealertasks.Users.service.impl.RoleRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -24,11 +32,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,19 +45,32 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final ModelMapper modelMapper;
     private final EmailService emailService;
+    private final SecurityUserService securityUserService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordResetTokenService passwordResetTokenService;
+
+    @Value("${dealer_management_system.frontend.baseUrl:http://localhost:3000}")
+    private String frontendBaseUrl;
 
     public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
-                           EmailService emailService, AuthenticationManager authenticationManager, RoleRepository roleRepository, ModelMapper modelMapper) {
+                           EmailService emailService, AuthenticationManager authenticationManager, RoleRegistry roleRegistry, ModelMapper modelMapper,
+                           SecurityUserService securityUserService, TokenRevocationService tokenRevocationService,
+                           RefreshTokenService refreshTokenService, PasswordResetTokenService passwordResetTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.modelMapper = modelMapper;
         this.emailService = emailService;
+        this.securityUserService = securityUserService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordResetTokenService = passwordResetTokenService;
     }
 
     /**
@@ -77,8 +96,7 @@ public class AuthServiceImpl implements AuthService {
         }
         Set<Role> roles = signUpRequest.roles()
                 .stream()
-                .map(role -> roleRepository.findByName(role.getName())
-                        .orElseThrow(() -> new RoleNotFoundException("Role not found: " + role)))
+                .map(role -> roleRegistry.get(role.getName()))
                 .collect(Collectors.toSet());
 
         User user = new User();
@@ -116,7 +134,7 @@ public class AuthServiceImpl implements AuthService {
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String jwt = jwtService.generateJwtToken(userDetails);
-        String refreshToken = jwtService.generateRefreshToken(new HashMap<>(), userDetails);
+        String refreshToken = refreshTokenService.issue(userDetails);
 
         logger.info("User logged in successfully: {}", userDetails.getUsername());
         return new JwtAuthResponse(jwt, refreshToken);
@@ -124,25 +142,34 @@ public class AuthServiceImpl implements AuthService {
 
     /**
      * Refresh a JWT token.
-     * Validates the refresh token and generates a new JWT token.
+     * Validates the refresh token, rotates it within its token family and generates a new JWT token.
+     * A refresh token that was already used revokes its whole family.
      * If the refresh token is invalid, an exception is thrown.
      * If the token is successfully refreshed, a success message is logged.
      * @param refreshTokenRequest - The refresh token.
-     * @return - The new JWT token.
+     * @return - The new JWT token and the rotated refresh token.
+     * @throws InvalidTokenException - If the refresh token is invalid, revoked or already used.
      */
     @Override
     public JwtAuthResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
-        String username = jwtService.getUsernameFromToken(refreshTokenRequest.refreshToken());
-        UserDetails userDetails = userRepository.findByEmail(username)
+        Claims claims;
+        try {
+            claims = jwtService.verifyToken(refreshTokenRequest.refreshToken());
+        } catch (JwtException e) {
+            logger.error("Invalid refresh token: {}", e.getMessage());
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        String username = claims.getSubject();
+        UserDetails userDetails = userRepository.findWithRolesByEmail(username)
                 .map(AuthUser::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found" + username));
-        if (!jwtService.validateToken(refreshTokenRequest.refreshToken(), userDetails)) {
+        if (!jwtService.isTokenValid(claims, userDetails)) {
             logger.error("Invalid refresh token");
             throw new InvalidTokenException("Invalid refresh token");
         }
 
+        String refreshToken = refreshTokenService.rotate(claims, userDetails);
         String jwt = jwtService.generateJwtToken(userDetails);
-        String refreshToken = jwtService.generateRefreshToken(new HashMap<>(), userDetails);
 
         logger.info("Token refreshed successfully for user: {}", username);
         return new JwtAuthResponse(jwt, refreshToken);
@@ -150,18 +177,36 @@ public class AuthServiceImpl implements AuthService {
 
     /**
      * Logout a user.
-     * Clears the security context.
+     * Revokes the access token until its expiry, revokes the token family of the refresh token so the session cannot
+     * mint new access tokens, and clears the security context.
+     * An invalid or already expired token has nothing left to revoke and is ignored.
      * If the user is successfully logged out, a success message is logged.
+     * @param accessToken - The access token of the request, or null if none was sent.
+     * @param refreshToken - The refresh token of the session, or null if none was sent.
      */
     @Override
-    public void logoutUser() {
+    public void logoutUser(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                tokenRevocationService.revoke(jwtService.verifyToken(accessToken));
+            } catch (JwtException e) {
+                logger.warn("Logout with an invalid or expired token: {}", e.getMessage());
+            }
+        }
+        if (refreshToken != null) {
+            try {
+                refreshTokenService.revoke(jwtService.verifyToken(refreshToken));
+            } catch (JwtException | InvalidTokenException e) {
+                logger.warn("Logout with an invalid or expired refresh token: {}", e.getMessage());
+            }
+        }
         SecurityContextHolder.clearContext();
         logger.info("User logged out successfully");
     }
 
     /**
      * Forgot password.
-     * Generates a reset token and sends an email to the user with a link to reset the password.
+     * Generates a reset token and queues an email to the user with a link to reset the password, in one transaction.
      * If the user is not found, an exception is thrown.
      * If the reset token is successfully generated and the email is sent, a success message is logged.
      * @param email - The user's email.
@@ -169,6 +214,7 @@ public class AuthServiceImpl implements AuthService {
      * @throws UserNotFoundException - If the user is not found.
      */
     @Override
+    @Transactional
     public UserDto forgotPassword(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> {
@@ -176,13 +222,14 @@ public class AuthServiceImpl implements AuthService {
                     return new UserNotFoundException("User with email " + email + " not found");
                 });
 
-        String resetToken = UUID.randomUUID().toString();
-        user.setResetToken(resetToken);
-        user.setResetTokenExpiration(LocalDateTime.now().plusMinutes(30)); // The Token expires in 1 hour
-        userRepository.save(user);
+        String resetToken = passwordResetTokenService.issue(user.getId());
 
-        String resetLink = "http://localhost:3000/reset-password?token=" + resetToken; // Frontend reset password link with token as query parameter
-        emailService.sendPasswordResetEmail(email, resetLink);
+        String resetLink = UriComponentsBuilder.fromUriString(frontendBaseUrl)
+                .path("/reset-password")
+                .queryParam("token", resetToken)
+                .encode()
+                .toUriString(); // Frontend reset password page, with the token as query parameter
+        emailService.sendPasswordResetEmail(email, resetLink, passwordResetTokenService.getExpirationMinutes());
 
         return modelMapper.map(user, UserDto.class);
     }
@@ -199,18 +246,8 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public UserDto validateResetToken(String token) {
-        User user = userRepository.findByResetToken(token)
-                .orElseThrow(() -> {
-                    logger.error("Invalid reset token");
-                    return new InvalidTokenException("Invalid reset token");
-                });
-
-        if (user.getResetTokenExpiration().isBefore(LocalDateTime.now())) {
-            logger.error("Reset token expired");
-            throw new TokenExpiredException("Reset token expired");
-        }
-
-        return modelMapper.map(user, UserDto.class);
+        Long userId = passwordResetTokenService.validate(token);
+        return modelMapper.map(getUserById(userId), UserDto.class);
     }
 
     /**
@@ -225,21 +262,21 @@ public class AuthServiceImpl implements AuthService {
      * @throws TokenExpiredException - If the token is expired.
      */
     @Override
+    @Transactional
     public void resetPassword(String token, String newPassword) {
-        User user = userRepository.findByResetToken(token)
-                .orElseThrow(() -> {
-                    logger.error("Invalid reset token");
-                    return new InvalidTokenException("Invalid reset token");
-                });
-
-        if (user.getResetTokenExpiration().isBefore(LocalDateTime.now())) {
-            logger.error("Reset token expired");
-            throw new TokenExpiredException("Reset token expired");
-        }
+        Long userId = passwordResetTokenService.consume(token);
+        User user = getUserById(userId);
 
         user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiration(null);
         userRepository.save(user);
+        securityUserService.evictUser(user.getEmail());
+    }
+
+    private User getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    logger.error("Invalid reset token, user with id {} not found", userId);
+                    return new InvalidTokenException("Invalid reset token");
+                });
     }
 }
@@ -6,14 +6,45 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
+/**
+ * Immutable snapshot of a user for Spring Security. Everything, roles included, is copied when the snapshot is taken,
+ * so instances can be cached and shared between threads without touching the persistence context again.
+ */
 public class AuthUser implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final boolean enabled;
+    private final long securityVersion;
+    private final List<GrantedAuthority> authorities;
 
     public AuthUser(User user) {
-        this.user = user;
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        this.enabled = user.isEnabled();
+        this.securityVersion = user.getSecurityVersion();
+        this.authorities = user.getRoles()
+                .stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.getName().name()))
+                .toList();
+    }
+
+    /**
+     * @return the id of the user
+     */
+    public Long getId() {
+        return this.id;
+    }
+
+    /**
+     * @return the security version of the user, embedded in the tokens issued to them
+     */
+    public long getSecurityVersion() {
+        return this.securityVersion;
     }
 
     /**
@@ -23,10 +54,7 @@ public class AuthUser implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return this.user.getRoles()
-                .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName().name()))
-                .collect(Collectors.toList());
+        return this.authorities;
     }
 
     /**
@@ -36,7 +64,7 @@ public class AuthUser implements UserDetails {
      */
     @Override
     public String getPassword() {
-        return this.user.getPassword();
+        return this.password;
     }
 
     /**
@@ -47,7 +75,7 @@ public class AuthUser implements UserDetails {
      */
     @Override
     public String getUsername() {
-        return this.user.getEmail();
+        return this.email;
     }
 
     /**
@@ -58,6 +86,6 @@ public class AuthUser implements UserDetails {
      */
     @Override
     public boolean isEnabled() {
-        return this.user.isEnabled();
+        return this.enabled;
     }
 }
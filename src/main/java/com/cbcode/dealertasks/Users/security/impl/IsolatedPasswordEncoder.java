@@ -0,0 +1,145 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password encoding and matching on a dedicated, bounded pool, so hashing can never use more than its own threads
+ * and a burst of logins cannot take the CPU away from the request threads serving the rest of the API.
+ * Callers still wait for the result, but blocked rather than busy. When the queue is full, the call fails fast
+ * with a 429 instead of piling up work.
+ */
+public class IsolatedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final String METRIC = "security.password.hashing";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejections;
+
+    public IsolatedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder(METRIC + ".queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently busy")
+                .register(meterRegistry);
+        this.rejections = Counter.builder(METRIC + ".rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder(METRIC + ".wait")
+                .description("Time password hashing tasks spent queued")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder(METRIC + ".duration")
+                .description("Time spent hashing or matching a password")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Only inspects the stored hash, so it runs on the calling thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Encodes a password on the hashing pool without waiting, for callers hashing many passwords at once.
+     * @param rawPassword - The password to encode.
+     * @return - The encoded password, once a hashing thread has processed it.
+     * @throws TooManyRequestsException - If the hashing queue is full.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(queuedAt, () -> delegate.encode(rawPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> timed(queuedAt, task));
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    private <T> T timed(long queuedAt, Supplier<T> task) {
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+        try {
+            return task.get();
+        } finally {
+            hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TooManyRequestsException busy() {
+        rejections.increment();
+        return new TooManyRequestsException("Too many password operations in progress, try again shortly", 1);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.cbcode.dealertasks.Users.security.impl;
 
 import com.cbcode.dealertasks.Users.security.JwtService;
 import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -26,6 +28,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final SecurityUserService userSecurityService;
 
+    // When disabled, every request is re-validated against the (cached) user store instead of the token claims
+    @Value("${dealer_management_system.security.jwt.claimsAuthentication:true}")
+    private boolean claimsAuthentication = true;
+
     public JwtAuthFilter(JwtService jwtService, SecurityUserService userSecurityService) {
         this.jwtService = jwtService;
         this.userSecurityService = userSecurityService;
@@ -34,6 +40,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     /**
      * Method to intercept requests and validate JWT tokens.
      * If a valid token is found, the user is authenticated and added to the security context.
+     * The token is verified once and the same claims are used for the username and the validity checks.
+     * The user is rebuilt from the token claims; tokens issued without user claims, or all tokens when claims
+     * authentication is disabled, fall back to loading the user through the cached UserDetailsService.
+     * Refresh tokens are never accepted as bearer tokens.
      * If the token is invalid, the security context is cleared.
      * If no token is found, the request is passed to the next filter in the chain.
      * @param request - The request object.
@@ -56,16 +66,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String jwt = authorizationHeader.substring(7);
 
         try {
-            final String userEmail = jwtService.getUsernameFromToken(jwt);
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userSecurityService.userDetailsService().loadUserByUsername(userEmail);
-                if (jwtService.validateToken(jwt, userDetails)) {
+            final Claims claims = jwtService.verifyToken(jwt);
+            final String userEmail = claims.getSubject();
+            if (!jwtService.isAccessToken(claims)) {
+                // A refresh token only serves /auth/refresh; it outlives its session's access tokens and logout
+                logger.warn("Refresh token presented as a bearer token for user: {}", userEmail);
+            } else if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = claimsAuthentication ? jwtService.extractUserDetails(claims) : null;
+                if (userDetails == null) {
+                    userDetails = userSecurityService.userDetailsService().loadUserByUsername(userEmail);
+                }
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     securityContext.setAuthentication(authenticationToken);
                     SecurityContextHolder.setContext(securityContext);
-                    logger.info("Authenticated user: {}", userEmail);
+                    logger.debug("Authenticated user: {}", userEmail);
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,205 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys used to sign and verify JWTs, indexed by key id (the {@code kid} header).
+ * Tokens are signed with the active key only; every key of the ring verifies, so tokens signed with a previous key
+ * stay valid until they expire. Key material is decoded once when the ring is built and verification is a map lookup.
+ * Tokens without a {@code kid} (issued before key ids were used) are verified with the legacy secret.
+ * <p>
+ * A ring entry is {@code kid:alg:key}, where alg is HS256, EdDSA or ES256. For HS256 the key is the Base64 secret
+ * (at least 256 bits); for EdDSA and ES256 it is {@code private:public}, the Base64 PKCS#8 private key and the Base64
+ * X.509 public key. The private key may be left empty on keys that only verify.
+ * <p>
+ * Rotation without downtime: add the new key to the ring of every instance, then make it active, then remove the old
+ * key once the refresh token lifetime has passed. Public keys are published as a JWKS, so other services can verify
+ * EdDSA and ES256 tokens without sharing a secret; HMAC keys are never published.
+ */
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    public static final String LEGACY_KEY_ID = "legacy";
+
+    private final String activeKeyId;
+    private final Key signingKey;
+    private final SignatureAlgorithm signatureAlgorithm;
+    private final Map<String, Key> verificationKeys;
+    private final List<Map<String, Object>> publicJwks;
+
+    private JwtKeyRing(String activeKeyId, Key signingKey, SignatureAlgorithm signatureAlgorithm,
+                       Map<String, Key> verificationKeys, List<Map<String, Object>> publicJwks) {
+        this.activeKeyId = activeKeyId;
+        this.signingKey = signingKey;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.verificationKeys = verificationKeys;
+        this.publicJwks = publicJwks;
+    }
+
+    /**
+     * Builds the key ring from its configuration.
+     * @param legacySecret - The legacy HMAC secret (UTF-8), used for tokens without kid; may be blank when the ring has keys.
+     * @param entries - The ring entries, see the class documentation.
+     * @param activeKeyId - The kid of the signing key; blank to keep signing with the legacy secret.
+     * @return - The key ring.
+     * @throws IllegalStateException - If an entry is malformed or the active key cannot sign.
+     */
+    public static JwtKeyRing of(String legacySecret, String[] entries, String activeKeyId) {
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Map<String, Key> signingKeys = new HashMap<>();
+        Map<String, SignatureAlgorithm> algorithms = new HashMap<>();
+        List<Map<String, Object>> publicJwks = new ArrayList<>();
+
+        if (legacySecret != null && !legacySecret.isBlank()) {
+            SecretKey legacyKey = Keys.hmacShaKeyFor(legacySecret.getBytes(StandardCharsets.UTF_8));
+            verificationKeys.put(LEGACY_KEY_ID, legacyKey);
+            signingKeys.put(LEGACY_KEY_ID, legacyKey);
+        }
+        for (String entry : entries == null ? new String[0] : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", -1);
+            if (parts.length < 3 || parts[0].isBlank()) {
+                throw new IllegalStateException("Invalid JWT key entry, expected kid:alg:key");
+            }
+            String kid = parts[0];
+            if (verificationKeys.containsKey(kid)) {
+                throw new IllegalStateException("Duplicate JWT key id: " + kid);
+            }
+            try {
+                switch (parts[1]) {
+                    case "HS256" -> {
+                        SecretKey secretKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(parts[2]));
+                        verificationKeys.put(kid, secretKey);
+                        signingKeys.put(kid, secretKey);
+                    }
+                    case "EdDSA", "ES256" -> {
+                        if (parts.length != 4 || parts[3].isBlank()) {
+                            throw new IllegalStateException("JWT key " + kid + " needs a public key, expected kid:alg:private:public");
+                        }
+                        String keyAlgorithm = parts[1].equals("EdDSA") ? "Ed25519" : "EC";
+                        KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm);
+                        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(parts[3])));
+                        verificationKeys.put(kid, publicKey);
+                        publicJwks.add(toJwk(kid, parts[1], publicKey));
+                        algorithms.put(kid, parts[1].equals("EdDSA") ? Jwts.SIG.EdDSA : Jwts.SIG.ES256);
+                        if (!parts[2].isBlank()) {
+                            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(parts[2])));
+                            signingKeys.put(kid, privateKey);
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unsupported JWT key algorithm " + parts[1] + " for key " + kid);
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException | InvalidKeyException e) {
+                throw new IllegalStateException("Invalid JWT key " + kid + ": " + e.getMessage(), e);
+            }
+        }
+
+        String activeKid = activeKeyId == null || activeKeyId.isBlank() ? LEGACY_KEY_ID : activeKeyId;
+        Key signingKey = signingKeys.get(activeKid);
+        if (signingKey == null) {
+            throw new IllegalStateException("Active JWT key " + activeKid + " is not configured or has no private key");
+        }
+        return new JwtKeyRing(activeKid, signingKey, algorithms.get(activeKid), Map.copyOf(verificationKeys), List.copyOf(publicJwks));
+    }
+
+    /**
+     * Signs the token with the active key and sets its kid header.
+     * @param builder - The token builder.
+     * @return - The builder, ready to be compacted.
+     */
+    public JwtBuilder sign(JwtBuilder builder) {
+        builder.header().keyId(activeKeyId).and();
+        if (signingKey instanceof PrivateKey privateKey) {
+            return builder.signWith(privateKey, signatureAlgorithm);
+        }
+        return builder.signWith(signingKey);
+    }
+
+    /**
+     * Selects the verification key of a token from its kid header.
+     * A token can only be verified with a key of the family it was signed with (jjwt checks the algorithm against the key),
+     * so a public key can never be used as an HMAC secret.
+     * @throws InvalidKeyException - If the kid is unknown.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        Key key = verificationKeys.get(kid == null ? LEGACY_KEY_ID : kid);
+        if (key == null) {
+            throw new InvalidKeyException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * @return - The JWK set of the public keys of the ring, as served to other services.
+     */
+    public Map<String, Object> publicJwkSet() {
+        return Map.of("keys", publicJwks);
+    }
+
+    private static Map<String, Object> toJwk(String kid, String algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            if (ecPublicKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalArgumentException("ES256 needs a P-256 key");
+            }
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(unsigned(ecPublicKey.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url(unsigned(ecPublicKey.getW().getAffineY(), 32)));
+        } else {
+            // The X.509 encoding of an Ed25519 key ends with the 32 raw key bytes
+            byte[] encoded = publicKey.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", base64Url(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+        }
+        return jwk;
+    }
+
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] result = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, result, length - copy, copy);
+        return result;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
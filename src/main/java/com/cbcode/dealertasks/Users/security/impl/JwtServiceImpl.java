@@ -1,44 +1,82 @@
 package com.cbcode.dealertasks.Users.security.impl;
 
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtServiceImpl.class);
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String SECURITY_VERSION_CLAIM = "sv";
+    private static final String TOKEN_TYPE_CLAIM = "type";
+    private static final String ACCESS_TOKEN_TYPE = "access";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    // Set by the refresh token store on every refresh token, including those issued before the type claim
+    private static final String REFRESH_FAMILY_CLAIM = "fam";
 
-    @Value("${dealer_management_system.security.jwt.secret}")
+    private final SecurityVersionService securityVersionService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${dealer_management_system.security.jwt.secret:}")
     private String jwtSecret;
+    @Value("${dealer_management_system.security.jwt.keys:}")
+    private String[] jwtKeys;
+    @Value("${dealer_management_system.security.jwt.activeKeyId:}")
+    private String jwtActiveKeyId;
     @Value("${dealer_management_system.security.jwt.expiration}")
     private long jwtExpirationInMs;
     @Value("${dealer_management_system.security.jwt.refreshExpiration}")
     private long jwtRefreshExpirationInMs;
+    @Value("${dealer_management_system.security.jwt.claimsCacheSize:10000}")
+    private int claimsCacheSize;
+
+    // Built once at startup: the key ring and parser are immutable and thread-safe, so every request reuses them.
+    private JwtKeyRing keyRing;
+    private JwtParser jwtParser;
+    private VerifiedClaimsCache verifiedClaimsCache;
+
+    public JwtServiceImpl(SecurityVersionService securityVersionService, TokenRevocationService tokenRevocationService) {
+        this.securityVersionService = securityVersionService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
 
     /**
-     * The validateConfiguration method is used to validate the configuration values for the JWT secret and expiration.
-     * The method checks if the JWT secret is configured and if the expiration values are positive.
-     * If the JWT secret is not configured or the expiration values are not positive, the method throws an IllegalStateException.
-     * @throws IllegalStateException - If the JWT secret is not configured or the expiration values are not positive.
+     * The validateConfiguration method is used to validate the configuration values for the JWT keys and expiration.
+     * The method checks if a JWT secret or a key ring is configured and if the expiration values are positive.
+     * If no key is configured, a key is invalid or the expiration values are not positive, the method throws an IllegalStateException.
+     * Once the configuration is valid, the key ring, the verifying parser and the verified-claims cache are built.
+     * @throws IllegalStateException - If the JWT keys are not configured or invalid, or the expiration values are not positive.
      */
     @PostConstruct
     public void validateConfiguration() {
-        if (jwtSecret == null || jwtSecret.isBlank()) {
+        if ((jwtSecret == null || jwtSecret.isBlank()) && (jwtKeys == null || jwtKeys.length == 0)) {
             logger.error("JWT secret is not configured");
             throw new IllegalStateException("JWT secret is not configured");
         }
@@ -46,36 +84,139 @@ public class JwtServiceImpl implements JwtService {
             logger.error("JWT expiration must be a positive value");
             throw new IllegalStateException("JWT expiration must be a positive value");
         }
+        keyRing = JwtKeyRing.of(jwtSecret, jwtKeys, jwtActiveKeyId);
+        jwtParser = Jwts.parser().keyLocator(keyRing).build();
+        verifiedClaimsCache = new VerifiedClaimsCache(claimsCacheSize);
+        logger.info("JWT tokens are signed with key {}", keyRing.getActiveKeyId());
     }
 
     /**
      * The generateJwtToken method is used to generate a JWT token for the given UserDetails object.
-     * The method creates a JWT token with the subject set to the username of the UserDetails object;
+     * The method creates a JWT token with a random id (jti, used for revocation), the subject set to the username
+     * of the UserDetails object; the user id, roles, enabled state and security version as claims (so requests can be authenticated without loading the user),
      * the issuedAt date set to the current time, the expiration date set to the current time plus the expiration value,
-     * and signs the token using the signing key.
+     * and signs the token with the active key of the key ring.
      * @param userDetails - The UserDetails object for which to generate the JWT token.
      * @return - The generated JWT token.
      */
     @Override
     public String generateJwtToken(UserDetails userDetails) {
         logger.info("Generating JWT token for user: {}", userDetails.getUsername());
-        return Jwts.builder()
+        Map<String, Object> claims = userClaims(userDetails);
+        claims.put(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE);
+        return keyRing.sign(Jwts.builder()
+                .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
-                .signWith(getSignInKey())
+                .expiration(new Date(System.currentTimeMillis() + jwtExpirationInMs)))
                 .compact();
     }
 
     /**
-     * The getSignInKey method is used to generate the signing key for the JWT token.
-     * The method converts the JWT secret to bytes and creates a SecretKey using the HMAC SHA algorithm.
-     * The StandardCharsets.UTF_8 encoding is used to convert the JWT secret to bytes.
-     * @return - The signing key for the JWT token.
+     * The getPublicJwks method returns the public keys of the key ring as a JWK set,
+     * so other services can verify the tokens signed with asymmetric keys.
+     * @return - The JWK set.
+     */
+    @Override
+    public Map<String, Object> getPublicJwks() {
+        return keyRing.publicJwkSet();
+    }
+
+    /**
+     * The verifyToken method verifies the signature and expiration of the JWT token and returns its claims.
+     * Tokens that were already verified are served from a bounded cache keyed by the token hash,
+     * whose entries expire together with the token, so a request parses its token at most once.
+     * @param token - The JWT token to verify.
+     * @return - The verified claims of the token.
+     * @throws JwtException - If the token is invalid or expired.
+     */
+    @Override
+    public Claims verifyToken(String token) {
+        Claims cached = verifiedClaimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = extractAllClaims(token);
+        verifiedClaimsCache.put(token, claims);
+        return claims;
+    }
+
+    /**
+     * The isTokenValid method checks already verified claims against the given UserDetails object.
+     * Tokens carrying a security version are only valid while the user is enabled and the version is still current,
+     * so disabling a user or changing their roles revokes every token issued before the change.
+     * Tokens revoked individually (logout) are rejected as well.
+     * @param claims - The verified claims of the token.
+     * @param userDetails - The UserDetails object to validate.
+     * @return - True if the claims belong to the enabled user, are not expired and are not revoked, false otherwise.
+     */
+    @Override
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        Date expiration = claims.getExpiration();
+        if (!userDetails.getUsername().equals(claims.getSubject())
+                || !userDetails.isEnabled()
+                || (expiration != null && expiration.before(new Date()))
+                || tokenRevocationService.isRevoked(claims)) {
+            return false;
+        }
+        Number securityVersion = claims.get(SECURITY_VERSION_CLAIM, Number.class);
+        if (securityVersion == null) {
+            return true;
+        }
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null && securityVersionService.isCurrent(userId.longValue(), securityVersion.longValue());
+    }
+
+    /**
+     * The isAccessToken method tells access tokens from refresh tokens, which are signed with the same keys.
+     * Refresh tokens issued before the type claim are recognised by their refresh family.
+     * @param claims - The verified claims of the token.
+     * @return - False for refresh tokens, true otherwise.
      */
-    private SecretKey getSignInKey() {
-        byte[]  keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Override
+    public boolean isAccessToken(Claims claims) {
+        return !REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)) && !claims.containsKey(REFRESH_FAMILY_CLAIM);
+    }
+
+    /**
+     * The extractUserDetails method rebuilds the user from the claims of an access token, without a database lookup.
+     * The returned user has no password and only carries what the token states; its validity is checked by isTokenValid.
+     * @param claims - The verified claims of the token.
+     * @return - The user described by the claims, or null for tokens issued without user claims.
+     * @throws IllegalArgumentException - If the token carries an unknown role.
+     */
+    @Override
+    public UserDetails extractUserDetails(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number securityVersion = claims.get(SECURITY_VERSION_CLAIM, Number.class);
+        List<?> roleNames = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || securityVersion == null || roleNames == null) {
+            return null;
+        }
+        Set<Role> roles = new HashSet<>();
+        for (Object roleName : roleNames) {
+            roles.add(new Role(EnumRole.valueOf(String.valueOf(roleName))));
+        }
+        User user = new User();
+        user.setId(userId.longValue());
+        user.setEmail(claims.getSubject());
+        user.setEnabled(Boolean.TRUE.equals(claims.get(ENABLED_CLAIM, Boolean.class)));
+        user.setSecurityVersion(securityVersion.longValue());
+        user.setRoles(roles);
+        return new AuthUser(user);
+    }
+
+    private Map<String, Object> userClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof AuthUser authUser) {
+            Collection<? extends GrantedAuthority> authorities = authUser.getAuthorities();
+            claims.put(USER_ID_CLAIM, authUser.getId());
+            claims.put(ROLES_CLAIM, authorities.stream().map(GrantedAuthority::getAuthority).toList());
+            claims.put(ENABLED_CLAIM, authUser.isEnabled());
+            claims.put(SECURITY_VERSION_CLAIM, authUser.getSecurityVersion());
+        }
+        return claims;
     }
 
     /**
@@ -87,36 +228,19 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public String getUsernameFromToken(String token) {
         logger.debug("Extracting username from token");
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    /**
-     * The extractClaim method is a generic method used to extract a claim from the JWT token.
-     * The method extracts the claim using the claimsResolver function.
-     * @param token - The JWT token from which to extract the claim.
-     * @param claimsResolver - The function used to extract the claim from the token.
-     * @param <T> - The type of the claim to extract.
-     * @return - The extracted claim.
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return verifyToken(token).getSubject();
     }
 
     /**
      * The extractAllClaims method is used to extract all claims from the JWT token.
-     * The method verifies the token using the signing key and extracts the payload from the token.
+     * The method verifies the token with the key of the key ring named by its kid header and extracts the payload from the token.
      * @param token - The JWT token from which to extract the claims.
      * @return - The extracted claims from the JWT token.
      * @throws JwtException - If the token is invalid.
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (JwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
             throw new JwtException("Invalid JWT token", e);
@@ -125,8 +249,7 @@ public class JwtServiceImpl implements JwtService {
 
     /**
      * The validateToken method is used to validate the JWT token for the given UserDetails object.
-     * The method extracts the username from the token and compares it with the username from the UserDetails object.
-     * The method also checks if the token is expired using the isTokenExpired method.
+     * The method verifies the token once and checks the username and expiration of its claims using the isTokenValid method.
      * @param token - The JWT token to validate.
      * @param userDetails - The UserDetails object to validate.
      * @throws JwtException - If the token is invalid.
@@ -136,8 +259,7 @@ public class JwtServiceImpl implements JwtService {
     public boolean validateToken(String token, UserDetails userDetails) {
         logger.debug("Validating token for user: {}", userDetails.getUsername());
         try {
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return isTokenValid(verifyToken(token), userDetails);
         } catch (JwtException e) {
             logger.error("Token validation failed: {}", e.getMessage());
             return false;
@@ -159,19 +281,22 @@ public class JwtServiceImpl implements JwtService {
 
     /**
      * The extractExpiration method is used to extract the expiration date from the JWT token.
-     * The method extracts the expiration claim from the token using the extractClaim method.
+     * The method reads the expiration claim from the verified claims of the token.
      * @param token - The JWT token from which to extract the expiration date.
      * @return - The expiration date extracted from the JWT token.
      */
     private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verifyToken(token).getExpiration();
     }
 
     /**
      * The generateRefreshToken method is used to generate a refresh token for the given UserDetails object.
      * The method creates a refresh token with the subject set to the username of the UserDetails object;
      * the issuedAt date set to the current time, the expiration date set to the current time plus the refresh expiration value,
-     * and signs the token using the signing key.
+     * and signs the token with the active key of the key ring.
+     * The user id and security version are added, so a refresh token is revoked together with the access tokens.
+     * The token is typed as a refresh token, so it is never accepted in place of an access token.
+     * A random jti is set unless the given claims already carry one (the refresh token store assigns its own).
      * @param claims - The claims to include in the refresh token.
      * @param userDetails - The UserDetails object for which to generate the refresh token.
      * @return - The generated refresh token.
@@ -179,13 +304,19 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public String generateRefreshToken(Map<String, Object> claims, UserDetails userDetails) {
         logger.info("Generating refresh token for user: {}", userDetails.getUsername());
-        return Jwts
+        Map<String, Object> refreshClaims = new HashMap<>(claims);
+        refreshClaims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
+        if (userDetails instanceof AuthUser authUser) {
+            refreshClaims.put(USER_ID_CLAIM, authUser.getId());
+            refreshClaims.put(SECURITY_VERSION_CLAIM, authUser.getSecurityVersion());
+        }
+        return keyRing.sign(Jwts
                 .builder()
-                .claims(claims)
+                .id(UUID.randomUUID().toString())
+                .claims(refreshClaims)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationInMs))
-                .signWith(getSignInKey())
+                .expiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationInMs)))
                 .compact();
     }
 }
@@ -0,0 +1,28 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.Users.security.UserCacheEvictionChannel;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+public class LocalUserCacheEvictionChannel implements UserCacheEvictionChannel {
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Delivers the eviction to the listeners of this node only.
+     * @param email - The email of the user to evict.
+     */
+    @Override
+    public void publish(String email) {
+        listeners.forEach(listener -> listener.accept(email));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,96 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.TooManyRequestsException;
+import com.cbcode.dealertasks.Users.security.LoginThrottleService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles login attempts per client address and per email before any password hashing happens,
+ * so a credential-stuffing burst is turned away with cheap 429s instead of BCrypt work.
+ */
+@Service
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleServiceImpl.class);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${dealer_management_system.security.loginThrottle.emailCapacity:5}")
+    private int emailCapacity;
+    @Value("${dealer_management_system.security.loginThrottle.emailRefillInterval:60000}")
+    private long emailRefillIntervalInMs;
+    @Value("${dealer_management_system.security.loginThrottle.addressCapacity:20}")
+    private int addressCapacity;
+    @Value("${dealer_management_system.security.loginThrottle.addressRefillInterval:3000}")
+    private long addressRefillIntervalInMs;
+    @Value("${dealer_management_system.security.loginThrottle.maxKeys:100000}")
+    private int maxKeys;
+
+    private TokenBucketLimiter emailLimiter;
+    private TokenBucketLimiter addressLimiter;
+    private Counter emailRejections;
+    private Counter addressRejections;
+
+    public LoginThrottleServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void initializeLimiters() {
+        emailLimiter = new TokenBucketLimiter(emailCapacity, TimeUnit.MILLISECONDS.toNanos(emailRefillIntervalInMs), maxKeys);
+        addressLimiter = new TokenBucketLimiter(addressCapacity, TimeUnit.MILLISECONDS.toNanos(addressRefillIntervalInMs), maxKeys);
+        emailRejections = Counter.builder("security.login.throttled").tag("key", "email").register(meterRegistry);
+        addressRejections = Counter.builder("security.login.throttled").tag("key", "address").register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the bucket of the client address and one from the bucket of the email.
+     * @param email - The email of the login attempt.
+     * @param clientAddress - The remote address of the client.
+     * @throws TooManyRequestsException - If either bucket is empty, with the time until the next attempt is allowed.
+     */
+    @Override
+    public void checkLoginAllowed(String email, String clientAddress) {
+        long now = System.nanoTime();
+        long wait = addressLimiter.tryAcquire(clientAddress == null ? "unknown" : clientAddress, now);
+        if (wait > 0) {
+            addressRejections.increment();
+            logger.debug("Login attempts from {} throttled", clientAddress);
+            throw tooManyAttempts(wait);
+        }
+        wait = emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now);
+        if (wait > 0) {
+            emailRejections.increment();
+            logger.debug("Login attempts for {} throttled", email);
+            throw tooManyAttempts(wait);
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely, so memory only holds keys with recent attempts.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.security.loginThrottle.evictionInterval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = emailLimiter.evictIdle(now) + addressLimiter.evictIdle(now);
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle login throttle buckets", evicted);
+        }
+    }
+
+    private static TooManyRequestsException tooManyAttempts(long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TooManyRequestsException("Too many login attempts, try again in " + retryAfterSeconds + " seconds",
+                retryAfterSeconds);
+    }
+}
@@ -0,0 +1,127 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.InvalidTokenException;
+import com.cbcode.dealertasks.ExceptionsConfig.TokenExpiredException;
+import com.cbcode.dealertasks.Users.model.PasswordResetToken;
+import com.cbcode.dealertasks.Users.repository.PasswordResetTokenRepository;
+import com.cbcode.dealertasks.Users.security.PasswordResetTokenService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password reset tokens kept in their own table, keyed by the SHA-256 hash of the token.
+ * The raw token only travels in the reset email, every lookup is a primary key probe,
+ * and a token is consumed with one conditional DELETE ... RETURNING, so it can be used exactly once.
+ */
+@Service
+public class PasswordResetTokenServiceImpl implements PasswordResetTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordResetTokenServiceImpl.class);
+
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Value("${dealer_management_system.security.passwordReset.expiration:1800000}")
+    private long expirationInMs;
+    @Value("${dealer_management_system.security.passwordReset.purgeBatchSize:1000}")
+    private int purgeBatchSize;
+    @Value("${dealer_management_system.security.passwordReset.purgeMaxBatches:100}")
+    private int purgeMaxBatches;
+
+    public PasswordResetTokenServiceImpl(PasswordResetTokenRepository passwordResetTokenRepository) {
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+    }
+
+    /**
+     * Issues a new reset token for a user. Tokens issued earlier for the same user stop working.
+     * @param userId - The id of the user.
+     * @return - The raw token, to be sent to the user.
+     */
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        passwordResetTokenRepository.deleteByUserId(userId);
+        String token = UUID.randomUUID().toString();
+        passwordResetTokenRepository.save(new PasswordResetToken(TokenHashes.sha256(token), userId,
+                Instant.now().plusMillis(expirationInMs)));
+        return token;
+    }
+
+    /**
+     * Checks a reset token without using it.
+     * @param token - The raw reset token.
+     * @return - The id of the user the token was issued to.
+     * @throws InvalidTokenException - If the token is unknown.
+     * @throws TokenExpiredException - If the token is expired.
+     */
+    @Override
+    public Long validate(String token) {
+        PasswordResetToken resetToken = passwordResetTokenRepository.findById(TokenHashes.sha256(token))
+                .orElseThrow(() -> {
+                    logger.error("Invalid reset token");
+                    return new InvalidTokenException("Invalid reset token");
+                });
+        if (!resetToken.getExpiresAt().isAfter(Instant.now())) {
+            logger.error("Reset token expired");
+            throw new TokenExpiredException("Reset token expired");
+        }
+        return resetToken.getUserId();
+    }
+
+    /**
+     * Uses a reset token. The token is deleted by the same statement that checks it,
+     * so when the surrounding transaction commits the token cannot be used again.
+     * @param token - The raw reset token.
+     * @return - The id of the user the token was issued to.
+     * @throws InvalidTokenException - If the token is unknown or was already used.
+     * @throws TokenExpiredException - If the token is expired.
+     */
+    @Override
+    @Transactional
+    public Long consume(String token) {
+        String tokenHash = TokenHashes.sha256(token);
+        return passwordResetTokenRepository.consume(tokenHash, Instant.now())
+                .orElseThrow(() -> {
+                    // Only the failure path pays for a second probe, to tell an expired token from an unknown one
+                    if (passwordResetTokenRepository.existsById(tokenHash)) {
+                        logger.error("Reset token expired");
+                        return new TokenExpiredException("Reset token expired");
+                    }
+                    logger.error("Invalid reset token");
+                    return new InvalidTokenException("Invalid reset token");
+                });
+    }
+
+    /**
+     * @return - How long a reset token stays valid, in minutes.
+     */
+    @Override
+    public long getExpirationMinutes() {
+        return TimeUnit.MILLISECONDS.toMinutes(expirationInMs);
+    }
+
+    /**
+     * Deletes expired reset tokens in bounded batches, so a backlog never turns into one long-running delete.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.security.passwordReset.purgeInterval:600000}")
+    public void purgeExpired() {
+        int deleted = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            int count = passwordResetTokenRepository.deleteExpiredBatch(Instant.now(), purgeBatchSize);
+            deleted += count;
+            if (count < purgeBatchSize) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            logger.debug("Purged {} expired password reset tokens", deleted);
+        }
+    }
+}
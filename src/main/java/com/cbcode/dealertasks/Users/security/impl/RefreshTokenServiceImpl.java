@@ -0,0 +1,220 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.InvalidTokenException;
+import com.cbcode.dealertasks.Users.model.Enums.RefreshTokenStatus;
+import com.cbcode.dealertasks.Users.model.RefreshToken;
+import com.cbcode.dealertasks.Users.repository.RefreshTokenRepository;
+import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.RefreshTokenService;
+import io.jsonwebtoken.Claims;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Refresh token store with rotation and reuse detection.
+ * Every login starts a token family; each refresh rotates the single active token of the family with one conditional
+ * UPDATE, and presenting a token that was already rotated revokes the whole family (the token was stolen or replayed).
+ * Only hashes of the token ids are stored. An in-memory front keeps recently issued tokens and revoked families,
+ * so replays are rejected without reading the database; the table stays authoritative across nodes.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+    private static final String FAMILY_CLAIM = "fam";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+
+    private final Map<String, FrontEntry> tokensByHash = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    @Value("${dealer_management_system.security.jwt.refreshExpiration}")
+    private long jwtRefreshExpirationInMs;
+    @Value("${dealer_management_system.security.refresh.maxSessions:5}")
+    private int maxSessions;
+    @Value("${dealer_management_system.security.refresh.frontSize:100000}")
+    private int frontSize;
+    @Value("${dealer_management_system.security.refresh.purgeBatchSize:1000}")
+    private int purgeBatchSize;
+    @Value("${dealer_management_system.security.refresh.purgeMaxBatches:100}")
+    private int purgeMaxBatches;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, JwtService jwtService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * Starts a new token family for a login and returns its first refresh token.
+     * When the user has more active sessions than allowed, the oldest families are revoked.
+     * @param userDetails - The authenticated user.
+     * @return - The refresh token.
+     */
+    @Override
+    @Transactional
+    public String issue(UserDetails userDetails) {
+        Long userId = userId(userDetails);
+        String refreshToken = store(userDetails, userId, UUID.randomUUID().toString());
+        enforceSessionLimit(userId);
+        return refreshToken;
+    }
+
+    /**
+     * Rotates a refresh token: the presented token is marked as rotated and a new token of the same family is returned.
+     * The family revocation on reuse is kept even though the call fails.
+     * @param refreshClaims - The verified claims of the presented refresh token.
+     * @param userDetails - The user the token belongs to.
+     * @return - The new refresh token.
+     * @throws InvalidTokenException - If the token is not a refresh token, its family is revoked, or it was already used.
+     */
+    @Override
+    @Transactional(dontRollbackOn = InvalidTokenException.class)
+    public String rotate(Claims refreshClaims, UserDetails userDetails) {
+        String familyId = refreshClaims.get(FAMILY_CLAIM, String.class);
+        if (refreshClaims.getId() == null || familyId == null) {
+            logger.error("Token presented for refresh is not a refresh token");
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (revokedFamilies.containsKey(familyId)) {
+            logger.warn("Refresh token of revoked family {} presented by {}", familyId, refreshClaims.getSubject());
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        String tokenHash = TokenHashes.sha256(refreshClaims.getId());
+        FrontEntry entry = tokensByHash.get(tokenHash);
+        if (entry != null && !entry.rotated.compareAndSet(false, true)) {
+            throw reuseDetected(familyId, refreshClaims);
+        }
+        if (entry != null) {
+            releaseOnRollback(entry);
+        }
+        // The conditional update is the source of truth: it fails if another node already rotated or revoked the token
+        if (refreshTokenRepository.markRotated(tokenHash, Instant.now(), RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED) == 0) {
+            throw reuseDetected(familyId, refreshClaims);
+        }
+        return store(userDetails, userId(userDetails), familyId);
+    }
+
+    /**
+     * Revokes the token family of a refresh token, e.g. at logout, so no token of the session can be rotated any more.
+     * @param refreshClaims - The verified claims of the refresh token.
+     * @throws InvalidTokenException - If the token is not a refresh token.
+     */
+    @Override
+    @Transactional
+    public void revoke(Claims refreshClaims) {
+        String familyId = refreshClaims.get(FAMILY_CLAIM, String.class);
+        if (familyId == null) {
+            logger.error("Token presented for revocation is not a refresh token");
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        revokeFamilies(List.of(familyId));
+        logger.info("Revoked refresh token family {} of user {}", familyId, refreshClaims.getSubject());
+    }
+
+    /**
+     * Removes expired tokens from memory and deletes expired rows in bounded batches, each in its own transaction,
+     * so the sweep never holds long locks on the table.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.security.refresh.purgeInterval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tokensByHash.values().removeIf(entry -> entry.expiresAtMillis <= now);
+        revokedFamilies.values().removeIf(forgetAt -> forgetAt <= now);
+
+        int deleted = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            int count = refreshTokenRepository.deleteExpiredBatch(Instant.now(), purgeBatchSize);
+            deleted += count;
+            if (count < purgeBatchSize) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            logger.debug("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String store(UserDetails userDetails, Long userId, String familyId) {
+        String jti = UUID.randomUUID().toString();
+        String tokenHash = TokenHashes.sha256(jti);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(jwtRefreshExpirationInMs);
+        refreshTokenRepository.save(new RefreshToken(tokenHash, familyId, userId, now, expiresAt));
+        if (tokensByHash.size() < frontSize) {
+            tokensByHash.put(tokenHash, new FrontEntry(expiresAt.toEpochMilli()));
+        }
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, jti);
+        claims.put(FAMILY_CLAIM, familyId);
+        return jwtService.generateRefreshToken(claims, userDetails);
+    }
+
+    private void enforceSessionLimit(Long userId) {
+        List<String> families = refreshTokenRepository.findActiveFamilyIds(userId, RefreshTokenStatus.ACTIVE, Instant.now());
+        if (families.size() > maxSessions) {
+            List<String> oldest = families.subList(maxSessions, families.size());
+            logger.info("User {} exceeded {} sessions, revoking {} oldest", userId, maxSessions, oldest.size());
+            revokeFamilies(oldest);
+        }
+    }
+
+    private InvalidTokenException reuseDetected(String familyId, Claims refreshClaims) {
+        logger.warn("Refresh token reuse detected for user {}, revoking token family {}", refreshClaims.getSubject(), familyId);
+        revokeFamilies(List.of(familyId));
+        return new InvalidTokenException("Refresh token has already been used");
+    }
+
+    private void revokeFamilies(Collection<String> familyIds) {
+        long forgetAt = System.currentTimeMillis() + jwtRefreshExpirationInMs;
+        familyIds.forEach(familyId -> revokedFamilies.put(familyId, forgetAt));
+        refreshTokenRepository.revokeFamilies(familyIds, RefreshTokenStatus.REVOKED);
+    }
+
+    private void releaseOnRollback(FrontEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    entry.rotated.set(false);
+                }
+            }
+        });
+    }
+
+    private static Long userId(UserDetails userDetails) {
+        if (userDetails instanceof AuthUser authUser && authUser.getId() != null) {
+            return authUser.getId();
+        }
+        throw new IllegalStateException("Refresh tokens can only be issued to persisted users");
+    }
+
+    private static final class FrontEntry {
+        private final long expiresAtMillis;
+        private final AtomicBoolean rotated = new AtomicBoolean();
+
+        private FrontEntry(long expiresAtMillis) {
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
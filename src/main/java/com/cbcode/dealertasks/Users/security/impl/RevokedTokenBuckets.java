@@ -0,0 +1,59 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids grouped into buckets by expiry time.
+ * A token's own expiry tells which bucket to look in, so a lookup is one hash probe into one set,
+ * and once a bucket's time range has passed every token in it is expired, so the whole set is dropped at once.
+ * Memory is therefore bounded by the number of revoked tokens that are still alive.
+ */
+public class RevokedTokenBuckets {
+
+    private final long bucketMillis;
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+    public RevokedTokenBuckets(long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket width must be a positive value");
+        }
+        this.bucketMillis = bucketMillis;
+    }
+
+    public void add(String jti, long expiresAtMillis) {
+        buckets.computeIfAbsent(bucketOf(expiresAtMillis), bucket -> ConcurrentHashMap.newKeySet()).add(jti);
+    }
+
+    public boolean contains(String jti, long expiresAtMillis) {
+        Set<String> bucket = buckets.get(bucketOf(expiresAtMillis));
+        return bucket != null && bucket.contains(jti);
+    }
+
+    /**
+     * Drops every bucket whose time range ends at or before the given time.
+     * @return - The number of token ids dropped.
+     */
+    public int dropExpired(long nowMillis) {
+        int dropped = 0;
+        Iterator<Map.Entry<Long, Set<String>>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Set<String>> bucket = iterator.next();
+            if ((bucket.getKey() + 1) * bucketMillis <= nowMillis) {
+                dropped += bucket.getValue().size();
+                iterator.remove();
+            }
+        }
+        return dropped;
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private long bucketOf(long expiresAtMillis) {
+        return Math.floorDiv(expiresAtMillis, bucketMillis);
+    }
+}
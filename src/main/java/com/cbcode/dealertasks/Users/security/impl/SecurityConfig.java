@@ -1,11 +1,15 @@
 package com.cbcode.dealertasks.Users.security.impl;
 
 import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -15,15 +19,19 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -33,12 +41,26 @@ public class SecurityConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
+    private static final String BCRYPT = "bcrypt";
+
     private final JwtAuthFilter jwtAuthFilter;
     private final SecurityUserService securityUserService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${dealer_management_system.security.passwordHashing.strength:10}")
+    private int passwordHashingStrength;
+    @Value("${dealer_management_system.security.passwordHashing.threads:0}")
+    private int passwordHashingThreads;
+    @Value("${dealer_management_system.security.passwordHashing.queueCapacity:64}")
+    private int passwordHashingQueueCapacity;
 
-    public SecurityConfig(JwtAuthFilter jwtAuthFilter, SecurityUserService securityUserService) {
+    public SecurityConfig(JwtAuthFilter jwtAuthFilter, SecurityUserService securityUserService,
+                          UserDetailsPasswordService userDetailsPasswordService, MeterRegistry meterRegistry) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.securityUserService = securityUserService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -46,6 +68,7 @@ public class SecurityConfig {
      * Disables CSRF and CORS, or configure them with private methods.
      * Configure the authorization rules for the endpoints.
      * Configure the session management policy.
+     * Answers 401 to requests without a valid access token.
      * Adds the JWT authentication filter before the UsernamePasswordAuthenticationFilter.
      * @param http the HttpSecurity object
      * @return the SecurityFilterChain object
@@ -65,9 +88,13 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
+                                // Completion of streamed responses (status board); the request was authorized on the way in
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/auth/**").permitAll()
                                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html/**").permitAll()
                                 .requestMatchers("/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                                .requestMatchers("/users/directory").hasAnyRole("ADMIN", "SALES", "WORKSHOP", "VALETER")
                                 .requestMatchers("/users/**").hasAnyRole( "SALES", "WORKSHOP", "VALETER")
                                 .requestMatchers("/cars/**").hasAnyRole("ADMIN", "SALES")
                                 .requestMatchers("/cars/users/**").hasAnyRole("ADMIN", "SALES", "WORKSHOP", "VALETER")
@@ -78,6 +105,10 @@ public class SecurityConfig {
                 .sessionManagement(sessionManagement ->
                         sessionManagement
                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Requests without a valid access token are unauthenticated, not forbidden
+                .exceptionHandling(exceptionHandling ->
+                        exceptionHandling
+                                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
@@ -105,6 +136,7 @@ public class SecurityConfig {
     /**
      * Configures the authentication provider.
      * Uses the custom UserDetailsService and PasswordEncoder.
+     * Passwords stored with an outdated encoding or cost factor are re-hashed after a successful login.
      * @return the AuthenticationProvider object
      * @see DaoAuthenticationProvider for more details.
      */
@@ -113,19 +145,31 @@ public class SecurityConfig {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(securityUserService.userDetailsService());
         provider.setPasswordEncoder(passwordEncoder());
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         logger.info("Configured DaoAuthenticationProvider with custom UserDetailsService and PasswordEncoder");
         return provider;
     }
 
     /**
      * Configures the PasswordEncoder.
-     * Uses the BCryptPasswordEncoder.
+     * Uses a DelegatingPasswordEncoder that encodes with BCrypt at the configured strength ({bcrypt} prefix)
+     * and still matches the unprefixed BCrypt hashes stored before; those are upgraded on the next login.
+     * All hashing runs on a dedicated, bounded pool (half the cores by default) so it cannot starve request threads.
      * @return the PasswordEncoder object
      * @see BCryptPasswordEncoder for more details.
+     * @see IsolatedPasswordEncoder for more details.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordHashingStrength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = passwordHashingThreads > 0
+                ? passwordHashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        logger.info("Configured password hashing with BCrypt strength {} on {} threads", passwordHashingStrength, threads);
+        return new IsolatedPasswordEncoder(delegating, threads, passwordHashingQueueCapacity, meterRegistry);
     }
 
     /**
@@ -1,40 +1,129 @@
 package com.cbcode.dealertasks.Users.security.impl;
 
+import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
 import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.UserCacheEvictionChannel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class SecurityUserServiceImpl implements SecurityUserService {
+public class SecurityUserServiceImpl implements SecurityUserService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(SecurityUserServiceImpl.class);
+    private static final String CACHE_METRIC = "security.user.cache";
+
     private final UserRepository userRepository;
+    private final UserCacheEvictionChannel evictionChannel;
+    private final MeterRegistry meterRegistry;
+    private final UserDetailsService userDetailsService = this::loadUserByEmail;
+
+    @Value("${dealer_management_system.security.userCache.maxSize:10000}")
+    private int userCacheMaxSize;
+    @Value("${dealer_management_system.security.userCache.ttl:300000}")
+    private long userCacheTtlInMs;
+
+    private UserDetailsCache userCache;
+    private Timer loadTimer;
 
-    public SecurityUserServiceImpl(UserRepository userRepository) {
+    public SecurityUserServiceImpl(UserRepository userRepository, UserCacheEvictionChannel evictionChannel, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.evictionChannel = evictionChannel;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Builds the user cache, subscribes it to the eviction channel and registers its metrics:
+     * requests by result (hit/miss), current size and the latency of loads from the database.
+     */
+    @PostConstruct
+    public void initializeCache() {
+        userCache = new UserDetailsCache(userCacheMaxSize, userCacheTtlInMs);
+        evictionChannel.subscribe(userCache::invalidate);
+
+        FunctionCounter.builder(CACHE_METRIC + ".requests", userCache, UserDetailsCache::hits)
+                .tag("result", "hit")
+                .description("User details lookups served from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder(CACHE_METRIC + ".requests", userCache, UserDetailsCache::misses)
+                .tag("result", "miss")
+                .description("User details lookups that went to the database")
+                .register(meterRegistry);
+        Gauge.builder(CACHE_METRIC + ".size", userCache, UserDetailsCache::size)
+                .description("Cached user details snapshots")
+                .register(meterRegistry);
+        loadTimer = Timer.builder(CACHE_METRIC + ".load")
+                .description("Time to load a user and their roles from the database")
+                .register(meterRegistry);
+        logger.info("User details cache configured with max size {} and TTL {} ms", userCacheMaxSize, userCacheTtlInMs);
     }
 
     /**
-     * @return
+     * @return - A UserDetailsService serving immutable AuthUser snapshots from a bounded TTL cache,
+     * loading the user and their roles in one query on a miss.
      */
     @Override
     public UserDetailsService userDetailsService() {
-        return new UserDetailsService() {
-            @Override
-            public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-                logger.info("Loading user by email: " + email);
-                return userRepository.findByEmail(email)
-                        .map(AuthUser::new)
-                        .orElseThrow(() -> {
-                            logger.error("User not found with email: {}", email);
-                            return new UsernameNotFoundException("User not found with email: " + email);
-                        });
-            }
-        };
+        return userDetailsService;
+    }
+
+    /**
+     * Evicts a user from the cache of every node once the surrounding transaction commits.
+     * Called whenever the user's password, enabled state or roles change, or the user is deleted.
+     * @param email - The email of the user.
+     */
+    @Override
+    public void evictUser(String email) {
+        AfterCommit.run(() -> {
+            logger.debug("Evicting cached user details for: {}", email);
+            evictionChannel.publish(email);
+        });
+    }
+
+    /**
+     * Stores a password re-hashed after a successful login, because the stored hash used an outdated encoding
+     * or cost factor, and evicts the cached snapshot holding the old hash.
+     * @param user - The authenticated user.
+     * @param newPassword - The password encoded with the current encoder.
+     * @return - The user with the new password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findWithRolesByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        User saved = userRepository.save(entity);
+        evictUser(saved.getEmail());
+        logger.info("Upgraded password encoding for user: {}", saved.getEmail());
+        return new AuthUser(saved);
+    }
+
+    private UserDetails loadUserByEmail(String email) throws UsernameNotFoundException {
+        AuthUser cached = userCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        logger.debug("Loading user by email: {}", email);
+        long stamp = userCache.stamp();
+        AuthUser user = loadTimer.record(() -> userRepository.findWithRolesByEmail(email)
+                .map(AuthUser::new)
+                .orElse(null));
+        if (user == null) {
+            logger.error("User not found with email: {}", email);
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        userCache.put(email, user, stamp);
+        return user;
     }
 }
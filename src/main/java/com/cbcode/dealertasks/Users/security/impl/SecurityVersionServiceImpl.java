@@ -0,0 +1,142 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.Users.model.DTOs.UserSecurityVersion;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
+import com.cbcode.dealertasks.Users.security.UserCacheEvictionChannel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory table of the current security version of every user.
+ * Access tokens carry the version they were issued with; bumping the version (disable, role change, deletion)
+ * revokes all outstanding tokens of the user without a database lookup per request.
+ * The version is persisted on the user row, so the table is rebuilt at startup and filled lazily for new users.
+ * Other nodes learn about a bump through the user cache eviction channel, which every change of a user's access
+ * publishes to; entries also expire after a short TTL, so a node that missed an eviction re-reads the version.
+ */
+@Service
+public class SecurityVersionServiceImpl implements SecurityVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityVersionServiceImpl.class);
+    private static final long DELETED = -1L;
+
+    private final UserRepository userRepository;
+    private final UserCacheEvictionChannel evictionChannel;
+    private final Map<Long, CachedVersion> versionsByUser = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${dealer_management_system.security.versionCache.ttl:30000}")
+    private long versionCacheTtlInMs;
+
+    public SecurityVersionServiceImpl(UserRepository userRepository, UserCacheEvictionChannel evictionChannel) {
+        this.userRepository = userRepository;
+        this.evictionChannel = evictionChannel;
+    }
+
+    /**
+     * Drops the cached version of a user whenever the user is evicted on any node.
+     */
+    @PostConstruct
+    public void subscribeToEvictions() {
+        evictionChannel.subscribe(this::evict);
+        logger.info("Security version cache configured with TTL {} ms", versionCacheTtlInMs);
+    }
+
+    /**
+     * Loads the security versions of all users once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSecurityVersions() {
+        List<UserSecurityVersion> versions = userRepository.findAllSecurityVersions();
+        versions.forEach(version -> versionsByUser.merge(version.id(), cached(version.email(), version.securityVersion()),
+                SecurityVersionServiceImpl::newer));
+        logger.info("Loaded security versions of {} users", versions.size());
+    }
+
+    /**
+     * @param userId - The id of the user the token was issued to.
+     * @param securityVersion - The security version carried by the token.
+     * @return - True if the token was issued after the last change of the user's access.
+     */
+    @Override
+    public boolean isCurrent(Long userId, long securityVersion) {
+        return userId != null && currentVersion(userId) == securityVersion;
+    }
+
+    /**
+     * @param userId - The id of the user.
+     * @return - The current security version of the user, or -1 if the user does not exist.
+     */
+    @Override
+    public long currentVersion(Long userId) {
+        CachedVersion current = versionsByUser.get(userId);
+        if (current != null && current.expiresAtMillis() > System.currentTimeMillis()) {
+            return current.version();
+        }
+        long stamp = invalidations.get();
+        CachedVersion loaded = userRepository.findSecurityVersionById(userId)
+                .map(version -> cached(version.email(), version.securityVersion()))
+                .orElseGet(() -> cached(current == null ? null : current.email(), DELETED));
+        CachedVersion merged = versionsByUser.merge(userId, loaded, SecurityVersionServiceImpl::newer);
+        // A load that raced with an eviction may have read the version from before the change
+        if (invalidations.get() != stamp) {
+            versionsByUser.remove(userId, merged);
+        }
+        return merged.version();
+    }
+
+    /**
+     * Increments the security version of the user. The caller persists the user;
+     * the in-memory table is only updated once the surrounding transaction commits,
+     * so a rolled back change never locks the user out.
+     * @param user - The user whose access changed.
+     */
+    @Override
+    public void bump(User user) {
+        long next = user.getSecurityVersion() + 1;
+        user.setSecurityVersion(next);
+        AfterCommit.run(() -> versionsByUser.merge(user.getId(), cached(user.getEmail(), next), SecurityVersionServiceImpl::newer));
+        logger.debug("Security version of user {} bumped to {}", user.getId(), next);
+    }
+
+    /**
+     * Rejects all tokens of a deleted user once the surrounding transaction commits.
+     * @param userId - The id of the deleted user.
+     */
+    @Override
+    public void userDeleted(Long userId) {
+        AfterCommit.run(() -> versionsByUser.put(userId, cached(null, DELETED)));
+    }
+
+    // Evictions follow changes of a user's access only, so a scan of the table is cheap enough
+    private void evict(String email) {
+        invalidations.incrementAndGet();
+        versionsByUser.values().removeIf(cached -> email.equals(cached.email()));
+    }
+
+    private CachedVersion cached(String email, long version) {
+        return new CachedVersion(version, email, System.currentTimeMillis() + versionCacheTtlInMs);
+    }
+
+    // Versions only move forward, and a deleted user stays deleted
+    private static CachedVersion newer(CachedVersion current, CachedVersion candidate) {
+        long version = current.version() == DELETED ? DELETED : Math.max(current.version(), candidate.version());
+        String email = candidate.email() != null ? candidate.email() : current.email();
+        return new CachedVersion(version, email, Math.max(current.expiresAtMillis(), candidate.expiresAtMillis()));
+    }
+
+    private record CachedVersion(long version, String email, long expiresAtMillis) {
+    }
+}
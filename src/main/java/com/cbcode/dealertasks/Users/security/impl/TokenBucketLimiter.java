@@ -0,0 +1,115 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token buckets per key, without locks: buckets live in a ConcurrentHashMap (striped per bin) and each bucket
+ * is an immutable state swapped with compare-and-set. A rejected attempt only reads, so a flood of rejected
+ * attempts costs a hash lookup and some arithmetic per request.
+ * The number of keys is bounded: when it is reached, a new key first evicts about a tenth of the buckets, those with
+ * the most tokens left. Idle keys go first and the keys being throttled last, so a flood of new keys neither locks
+ * other keys out nor resets the keys under attack. The bound is soft while an eviction is running.
+ */
+public class TokenBucketLimiter {
+
+    private final int capacity;
+    private final long refillNanosPerToken;
+    private final int maxKeys;
+    private final Map<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public TokenBucketLimiter(int capacity, long refillNanosPerToken, int maxKeys) {
+        if (capacity <= 0 || refillNanosPerToken <= 0) {
+            throw new IllegalArgumentException("Bucket capacity and refill interval must be positive values");
+        }
+        this.capacity = capacity;
+        this.refillNanosPerToken = refillNanosPerToken;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes one token from the bucket of the key.
+     * @param key - The throttled key, e.g. an email or a client address.
+     * @param nowNanos - The current System.nanoTime().
+     * @return - 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicReference<Bucket> bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                makeRoom(nowNanos);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicReference<>(new Bucket(capacity, nowNanos)));
+        }
+        while (true) {
+            Bucket current = bucket.get();
+            double tokens = available(current, nowNanos);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) * refillNanosPerToken);
+            }
+            Bucket next = new Bucket(tokens - 1, Math.max(current.refilledAtNanos(), nowNanos));
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets that have refilled completely; they are indistinguishable from a new bucket.
+     * @return - The number of evicted keys.
+     */
+    public int evictIdle(long nowNanos) {
+        int evicted = 0;
+        Iterator<Map.Entry<String, AtomicReference<Bucket>>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AtomicReference<Bucket>> entry = iterator.next();
+            if (available(entry.getValue().get(), nowNanos) >= capacity && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // One thread evicts at a time; the others add their key meanwhile instead of waiting
+    private void makeRoom(long nowNanos) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Candidate> candidates = new ArrayList<>(buckets.size());
+            buckets.forEach((key, bucket) -> candidates.add(new Candidate(key, bucket, available(bucket.get(), nowNanos))));
+            int excess = candidates.size() - maxKeys + Math.max(1, maxKeys / 10);
+            if (excess <= 0) {
+                return;
+            }
+            candidates.sort(Comparator.comparingDouble(Candidate::tokens).reversed());
+            for (Candidate candidate : candidates.subList(0, Math.min(excess, candidates.size()))) {
+                buckets.remove(candidate.key(), candidate.bucket());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private double available(Bucket bucket, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - bucket.refilledAtNanos());
+        return Math.min(capacity, bucket.tokens() + (double) elapsed / refillNanosPerToken);
+    }
+
+    private record Bucket(double tokens, long refilledAtNanos) {
+    }
+
+    private record Candidate(String key, AtomicReference<Bucket> bucket, double tokens) {
+    }
+}
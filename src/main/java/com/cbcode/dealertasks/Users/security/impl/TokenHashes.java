@@ -0,0 +1,29 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Hashing of tokens and token ids before they are used as keys, in memory or in the database,
+ * so that raw credentials are never stored.
+ */
+final class TokenHashes {
+
+    private TokenHashes() {
+    }
+
+    /**
+     * @return - The unpadded base64url SHA-256 hash of the value (43 characters).
+     */
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
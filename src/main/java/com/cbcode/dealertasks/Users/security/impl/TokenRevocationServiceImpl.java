@@ -0,0 +1,101 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import com.cbcode.dealertasks.Users.model.RevokedToken;
+import com.cbcode.dealertasks.Users.repository.RevokedTokenRepository;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revocation store for tokens revoked before their expiry (logout).
+ * Checks are served from in-memory, expiry-bucketed sets; the revoked_tokens table only exists to rebuild them after a restart.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${dealer_management_system.security.revocation.bucketWidth:60000}")
+    private long bucketWidthInMs;
+
+    private RevokedTokenBuckets revokedTokens;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    public void initializeBuckets() {
+        revokedTokens = new RevokedTokenBuckets(bucketWidthInMs);
+    }
+
+    /**
+     * Reloads the tokens that were revoked before the last restart and have not expired yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTokens() {
+        List<RevokedToken> tokens = revokedTokenRepository.findUnexpired(Instant.now());
+        tokens.forEach(token -> revokedTokens.add(token.getJti(), token.getExpiresAt().toEpochMilli()));
+        logger.info("Loaded {} revoked tokens", tokens.size());
+    }
+
+    /**
+     * Revokes a token until its expiry. The in-memory set is updated first, so the token is rejected
+     * by the next request even before the row is committed.
+     * @param claims - The verified claims of the token to revoke.
+     */
+    @Override
+    @Transactional
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        Date expiration = claims.getExpiration();
+        if (jti == null || expiration == null) {
+            logger.warn("Token of user {} has no id or expiration and cannot be revoked", claims.getSubject());
+            return;
+        }
+        if (expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokens.add(jti, expiration.getTime());
+        revokedTokenRepository.save(new RevokedToken(jti, expiration.toInstant()));
+        logger.info("Revoked token {} of user {}", jti, claims.getSubject());
+    }
+
+    /**
+     * @param claims - The verified claims of a token.
+     * @return - True if the token was revoked. Constant time, no database access.
+     */
+    @Override
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        Date expiration = claims.getExpiration();
+        return jti != null && expiration != null && revokedTokens.contains(jti, expiration.getTime());
+    }
+
+    /**
+     * Drops the buckets and rows of revoked tokens that have expired since the last run.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.security.revocation.purgeInterval:60000}")
+    @Transactional
+    public void purgeExpired() {
+        int dropped = revokedTokens.dropExpired(System.currentTimeMillis());
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (dropped > 0 || deleted > 0) {
+            logger.debug("Purged {} expired revoked tokens from memory and {} from the database", dropped, deleted);
+        }
+    }
+}
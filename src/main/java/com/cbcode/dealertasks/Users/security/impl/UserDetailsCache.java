@@ -0,0 +1,103 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, TTL-based cache of {@link AuthUser} snapshots keyed by email.
+ * Every invalidation moves a stamp forward; a load that started before an invalidation cannot store its result,
+ * so a user evicted while being loaded is never cached with stale data.
+ */
+public class UserDetailsCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserDetailsCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @param email - The email of the user.
+     * @return - The cached snapshot, or null if the user is not cached or the entry is older than the TTL.
+     */
+    public AuthUser get(String email) {
+        Entry entry = entries.get(email);
+        if (entry != null && entry.expiresAtMillis() > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.user();
+        }
+        if (entry != null) {
+            entries.remove(email, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * @return - The stamp to pass to {@link #put(String, AuthUser, long)}, taken before loading the user.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Caches a freshly loaded snapshot, unless an invalidation happened since the stamp was taken.
+     */
+    public void put(String email, AuthUser user, long stamp) {
+        if (maxEntries == 0 || ttlMillis <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(email, new Entry(user, System.currentTimeMillis() + ttlMillis));
+        if (invalidations.get() != stamp) {
+            entries.remove(email);
+        }
+    }
+
+    public void invalidate(String email) {
+        invalidations.incrementAndGet();
+        entries.remove(email);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        Iterator<String> keys = entries.keySet().iterator();
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(AuthUser user, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.cbcode.dealertasks.Users.security.impl;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache from the SHA-256 hash of a token to its already verified claims.
+ * Raw tokens are never kept in memory, and every entry expires together with the token it was built from,
+ * so an expired token always falls through to a full parse and is rejected there.
+ * A size of zero disables the cache.
+ */
+public class VerifiedClaimsCache {
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    public VerifiedClaimsCache(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.entries = new ConcurrentHashMap<>(Math.min(this.maxEntries, 1024));
+    }
+
+    /**
+     * @param token - The raw JWT token.
+     * @return - The verified claims of the token, or null if the token is not cached or has expired.
+     */
+    public Claims get(String token) {
+        if (maxEntries == 0) {
+            return null;
+        }
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims();
+    }
+
+    /**
+     * Caches the verified claims of a token until the token expires.
+     * When the cache is full, expired entries are dropped first and then arbitrary entries until there is room.
+     * @param token - The raw JWT token.
+     * @param claims - The claims returned by the verifying parser.
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (maxEntries == 0 || expiration == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(hash(token), new Entry(claims, expiration.getTime()));
+    }
+
+    /**
+     * Removes the cached claims of a token, if any.
+     * @param token - The raw JWT token.
+     */
+    public void invalidate(String token) {
+        if (maxEntries > 0) {
+            entries.remove(hash(token));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        Iterator<String> keys = entries.keySet().iterator();
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        return TokenHashes.sha256(token);
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+}
@@ -2,5 +2,5 @@ package com.cbcode.dealertasks.Users.service;
 
 public interface EmailService {
 
-    void sendPasswordResetEmail(String toEmail, String resetLink);
+    void sendPasswordResetEmail(String toEmail, String resetLink, long expiresInMinutes);
 }
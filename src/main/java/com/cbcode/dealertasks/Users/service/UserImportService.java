@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Users.service;
+
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportReport;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportRow;
+
+import java.util.List;
+
+public interface UserImportService {
+
+    UserImportReport importUsers(List<UserImportRow> rows);
+
+    UserImportReport importCsv(String csv);
+}
@@ -1,5 +1,6 @@
 package com.cbcode.dealertasks.Users.service;
 
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryDto;
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
 import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
 import com.cbcode.dealertasks.Users.model.Role;
@@ -13,4 +14,6 @@ import java.util.Set;
 public interface UserService {
 
     UserDto updateUser(Long id, UserDto userDto);
+
+    UserDirectoryDto searchDirectory(String query, EnumRole role, Boolean enabled, int page, int size);
 }
@@ -1,12 +1,14 @@
 package com.cbcode.dealertasks.Users.service.impl;
 
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+import com.cbcode.dealertasks.Audit.service.AuditService;
 import com.cbcode.dealertasks.ExceptionsConfig.*;
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
-import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
 import com.cbcode.dealertasks.Users.model.Role;
 import com.cbcode.dealertasks.Users.model.User;
-import com.cbcode.dealertasks.Users.repository.RoleRepository;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
 import com.cbcode.dealertasks.Users.service.AdminUserService;
 import com.cbcode.dealertasks.Users.service.impl.DTOsResponses.UserDeletionResponse;
 import jakarta.transaction.Transactional;
@@ -17,6 +19,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -24,8 +27,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,15 +41,23 @@ public class AdminUserServiceImpl implements AdminUserService {
     private static final String USER_NOT_FOUND = "User not found";
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
+    private final SecurityVersionService securityVersionService;
+    private final SecurityUserService securityUserService;
+    private final AuditService auditService;
 
-    public AdminUserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper) {
+    public AdminUserServiceImpl(UserRepository userRepository, RoleRegistry roleRegistry, PasswordEncoder passwordEncoder, ModelMapper modelMapper,
+                                SecurityVersionService securityVersionService, SecurityUserService securityUserService,
+                                AuditService auditService) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
         this.passwordEncoder = passwordEncoder;
         this.modelMapper = modelMapper;
+        this.securityVersionService = securityVersionService;
+        this.securityUserService = securityUserService;
+        this.auditService = auditService;
     }
 
     /**
@@ -73,7 +87,10 @@ public class AdminUserServiceImpl implements AdminUserService {
 
             // Perform user deletion
             userRepository.delete(user);
+            securityVersionService.userDeleted(id);
+            securityUserService.evictUser(user.getEmail());
             logger.info("User deleted successfully with ID: {} and email: {}", id, user.getEmail());
+            auditService.record(AuditAction.USER_DELETED, id, user.getEmail(), null);
 
             // Return a user deletion response object with ID, email, message, and timestamp
             return new UserDeletionResponse(
@@ -112,11 +129,15 @@ public class AdminUserServiceImpl implements AdminUserService {
             User user = findUserById(id);
             logger.debug("Found user: {} for role update", user.getEmail());
 
-            Set<Role> roleEntities = fetchOrCreateRoleEntities(roleNames);
+            Set<Role> roleEntities = roleRegistry.resolve(roleNames);
             updateUserRole(user, roleEntities);
+            // Tokens issued with the old roles are rejected from now on
+            securityVersionService.bump(user);
 
             User updatedUser = userRepository.save(user);
+            securityUserService.evictUser(updatedUser.getEmail());
             logger.info("User roles updated successfully: {}", updatedUser.getEmail());
+            auditService.record(AuditAction.USER_ROLES_CHANGED, id, updatedUser.getEmail(), "roles=" + roleNames.stream().sorted().toList());
 
             return convertToDto(updatedUser);
         } catch (DataAccessException e) {
@@ -127,6 +148,8 @@ public class AdminUserServiceImpl implements AdminUserService {
 
     /**
      * Fetch all users from the database with pagination.
+     * The page is read in two phases, the ids of the page and then those users with their roles, so a page costs
+     * the same three statements (ids, count, users) whatever its size, instead of one roles query per user.
      * @param pageable - Pageable object containing page number, page size, and sorting details.
      * @return - Page object containing a list of UserDto objects.
      * @throws UserRetrievalException - If a database error occurs during the user retrieval process.
@@ -137,14 +160,28 @@ public class AdminUserServiceImpl implements AdminUserService {
         logger.info("Fetching all users with page request: {}", pageable);
 
         try {
-            Page<User> userPage = userRepository.findAll(pageable);
-            logger.debug("Retrieved {} users on page {} of size {}", userPage.getNumberOfElements(), userPage.getNumber(), userPage.getTotalPages());
+            Page<Long> idPage = userRepository.findPageOfIds(pageable);
+            logger.debug("Retrieved {} users on page {} of size {}", idPage.getNumberOfElements(), idPage.getNumber(), idPage.getTotalPages());
 
-            if (userPage.isEmpty()) {
+            if (idPage.isEmpty()) {
                 logger.error("No users found for page request: {}", pageable);
                 return Page.empty(pageable);
             }
-            return userPage.map(this::convertToDto);
+            Map<Long, User> usersById = userRepository.findAllWithRolesByIdIn(idPage.getContent())
+                    .stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            // Keep the order of the id page; the second query has no ORDER BY. A user deleted between the two queries
+            // is left out of the page
+            List<UserDto> users = idPage.getContent().stream()
+                    .map(usersById::get)
+                    .filter(Objects::nonNull)
+                    .map(this::convertToDto)
+                    .toList();
+            if (users.size() < idPage.getNumberOfElements()) {
+                logger.debug("{} users of page {} were deleted while it was read", idPage.getNumberOfElements() - users.size(),
+                        idPage.getNumber());
+            }
+            return new PageImpl<>(users, idPage.getPageable(), idPage.getTotalElements());
         } catch (DataAccessException e) {
             logger.error("Database error while fetching users with pageable: {}", pageable, e);
             throw new UserRetrievalException("Failed to retrieve users due to database error", e);
@@ -201,7 +238,9 @@ public class AdminUserServiceImpl implements AdminUserService {
             updateUserFields(user, userDto);
 
             User updatedUser = userRepository.save(user);
+            securityUserService.evictUser(updatedUser.getEmail());
             logger.info("User updated successfully: {}", updatedUser.getEmail());
+            auditService.record(AuditAction.USER_UPDATED, id, updatedUser.getEmail(), null);
 
             return convertToDto(updatedUser);
         } catch (DataAccessException e) {
@@ -233,9 +272,13 @@ public class AdminUserServiceImpl implements AdminUserService {
             user.setEnabled(false);
             user.setUpdatedAt(LocalDateTime.now()); // Track when it was disabled
             user.setLastModifiedBy(auth.getName());
+            // Revokes every token issued to the user
+            securityVersionService.bump(user);
 
             User updatedUser = userRepository.save(user);
+            securityUserService.evictUser(updatedUser.getEmail());
             logger.info("User {} disabled successfully by: {}", updatedUser.getEmail(), auth.getName());
+            auditService.record(AuditAction.USER_DISABLED, id, updatedUser.getEmail(), null);
             return convertToDto(updatedUser);
         } catch (DataAccessException e) {
             logger.error("Database error while disabling user with ID: {}", id, e);
@@ -267,7 +310,9 @@ public class AdminUserServiceImpl implements AdminUserService {
             user.setLastModifiedBy(auth.getName());
 
             User updatedUser = userRepository.save(user);
+            securityUserService.evictUser(updatedUser.getEmail());
             logger.info("User {} enabled successfully by: {}", updatedUser.getEmail(), auth.getName());
+            auditService.record(AuditAction.USER_ENABLED, id, updatedUser.getEmail(), null);
             return convertToDto(user);
         } catch (DataAccessException e) {
             logger.error("Database error while enabling user with ID: {}", id, e);
@@ -397,27 +442,6 @@ public class AdminUserServiceImpl implements AdminUserService {
         }
     }
 
-    private Set<Role> fetchOrCreateRoleEntities(@NotNull Set<String> roleNames) {
-        return roleNames.stream()
-                .map(roleName -> {
-                    try {
-                        EnumRole enumRole = EnumRole.valueOf(roleName);
-                        return roleRepository.findByName(enumRole)
-                                .orElseGet(() -> {
-                                    logger.info("Creating new role: {}", roleName);
-                                    Role newRole = new Role();
-                                    newRole.setName(enumRole);
-                                    return roleRepository.save(newRole);
-                                });
-                    } catch (IllegalArgumentException e) {
-                        logger.error("Invalid role name provided: {}", roleName);
-                        throw new RoleNotFoundException("Role not found: " + roleName);
-                    }
-                })
-                .collect(Collectors.toSet());
-    }
-
-
     private void updateUserRole(@NotNull User user, Set<Role> roles) {
         user.getRoles().clear();
         user.getRoles().addAll(roles);
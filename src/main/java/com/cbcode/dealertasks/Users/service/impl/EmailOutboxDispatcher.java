@@ -0,0 +1,209 @@
+package com.cbcode.dealertasks.Users.service.impl;
+
+import com.cbcode.dealertasks.Users.model.EmailOutboxMessage;
+import com.cbcode.dealertasks.Users.repository.EmailOutboxRepository;
+import com.cbcode.dealertasks.Users.service.templates.EmailTemplateRegistry;
+import com.cbcode.dealertasks.Users.service.templates.RenderedEmail;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the email outbox in the background.
+ * Each run claims batches of due messages (several instances can run it at once, see EmailOutboxRepository.claimBatch),
+ * renders them from their templates (HTML with a plain-text alternative, in the recipient's locale),
+ * sends a batch over a single SMTP connection and records the outcome of every message.
+ * A failed message is retried with exponential backoff and jitter, and marked DEAD after maxAttempts;
+ * a message that cannot be rendered is marked DEAD at once, since retrying would not help.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final String METRIC = "email.outbox.messages";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateRegistry emailTemplateRegistry;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+    @Value("${dealer_management_system.email.outbox.batchSize:50}")
+    private int batchSize;
+    @Value("${dealer_management_system.email.outbox.maxBatches:20}")
+    private int maxBatches;
+    @Value("${dealer_management_system.email.outbox.maxAttempts:8}")
+    private int maxAttempts;
+    @Value("${dealer_management_system.email.outbox.retryBaseDelay:30000}")
+    private long retryBaseDelayInMs;
+    @Value("${dealer_management_system.email.outbox.retryMaxDelay:3600000}")
+    private long retryMaxDelayInMs;
+    @Value("${dealer_management_system.email.outbox.lease:120000}")
+    private long leaseInMs;
+    @Value("${dealer_management_system.email.outbox.retention:604800000}")
+    private long retentionInMs;
+
+    private Counter sentMessages;
+    private Counter retriedMessages;
+    private Counter deadMessages;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository, JavaMailSender mailSender,
+                                 EmailTemplateRegistry emailTemplateRegistry, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.emailTemplateRegistry = emailTemplateRegistry;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        sentMessages = Counter.builder(METRIC).tag("result", "sent").register(meterRegistry);
+        retriedMessages = Counter.builder(METRIC).tag("result", "retried").register(meterRegistry);
+        deadMessages = Counter.builder(METRIC).tag("result", "dead").register(meterRegistry);
+    }
+
+    /**
+     * Sends the due messages, batch by batch, until a batch comes back short or maxBatches is reached.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.email.outbox.pollInterval:1000}")
+    public void dispatch() {
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Instant now = Instant.now();
+            List<EmailOutboxMessage> messages = emailOutboxRepository.claimBatch(now, now.plusMillis(leaseInMs), batchSize);
+            if (!messages.isEmpty()) {
+                send(messages);
+            }
+            if (messages.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes sent messages older than the retention, in bounded batches.
+     */
+    @Scheduled(fixedDelayString = "${dealer_management_system.email.outbox.purgeInterval:3600000}")
+    public void purgeSent() {
+        Instant sentBefore = Instant.now().minusMillis(retentionInMs);
+        int deleted = 0;
+        int count;
+        do {
+            count = emailOutboxRepository.deleteSentBatch(sentBefore, batchSize * 20);
+            deleted += count;
+        } while (count == batchSize * 20);
+        if (deleted > 0) {
+            logger.debug("Purged {} sent emails from the outbox", deleted);
+        }
+    }
+
+    private void send(List<EmailOutboxMessage> claimed) {
+        List<EmailOutboxMessage> messages = new ArrayList<>(claimed.size());
+        List<MimeMessage> composed = new ArrayList<>(claimed.size());
+        for (EmailOutboxMessage message : claimed) {
+            try {
+                composed.add(compose(message));
+                messages.add(message);
+            } catch (MessagingException | JsonProcessingException | RuntimeException e) {
+                emailOutboxRepository.markDead(message.getId(), truncate(String.valueOf(e.getMessage())));
+                deadMessages.increment();
+                logger.error("Cannot render {} email {}: {}", message.getKind(), message.getId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        MimeMessage[] mailMessages = composed.toArray(new MimeMessage[0]);
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            mailSender.send(mailMessages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = failures.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+
+        Instant now = Instant.now();
+        for (int i = 0; i < messages.size(); i++) {
+            EmailOutboxMessage message = messages.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(mailMessages[i]);
+            if (failure == null) {
+                emailOutboxRepository.markSent(message.getId(), now);
+                sentMessages.increment();
+            } else {
+                recordFailure(message, failure, now);
+            }
+        }
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception failure, Instant now) {
+        String error = truncate(String.valueOf(failure.getMessage()));
+        if (message.getAttempts() >= maxAttempts) {
+            emailOutboxRepository.markDead(message.getId(), error);
+            deadMessages.increment();
+            logger.error("Giving up on {} email {} after {} attempts: {}", message.getKind(), message.getId(), message.getAttempts(), error);
+            return;
+        }
+        emailOutboxRepository.markForRetry(message.getId(), now.plusMillis(backoff(message.getAttempts())), error);
+        retriedMessages.increment();
+        logger.warn("Failed to send {} email {} (attempt {}), retrying later: {}", message.getKind(), message.getId(),
+                message.getAttempts(), error);
+    }
+
+    /**
+     * Exponential backoff with jitter: between half and all of base * 2^(attempts - 1), capped at the max delay,
+     * so messages failing together during an outage do not all retry at the same moment.
+     */
+    private long backoff(int attempts) {
+        long delay = retryMaxDelayInMs;
+        if (attempts - 1 < Long.numberOfLeadingZeros(retryBaseDelayInMs) - 1) {
+            delay = Math.min(retryMaxDelayInMs, retryBaseDelayInMs << (attempts - 1));
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private MimeMessage compose(EmailOutboxMessage message) throws MessagingException, JsonProcessingException {
+        Map<String, Object> variables = message.getPayload() == null ? Map.of() : objectMapper.readValue(message.getPayload(), VARIABLES_TYPE);
+        RenderedEmail email = emailTemplateRegistry.render(message.getKind(), message.getLocale(), variables);
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(message.getRecipient());
+        helper.setSubject(email.subject());
+        helper.setText(email.text(), email.html());
+        return mimeMessage;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
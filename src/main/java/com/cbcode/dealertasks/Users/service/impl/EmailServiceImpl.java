@@ -1,43 +1,52 @@
 package com.cbcode.dealertasks.Users.service.impl;
 
+import com.cbcode.dealertasks.Users.model.EmailOutboxMessage;
+import com.cbcode.dealertasks.Users.model.Enums.EmailKind;
+import com.cbcode.dealertasks.Users.repository.EmailOutboxRepository;
 import com.cbcode.dealertasks.Users.service.EmailService;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Map;
+
 @Service
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final ObjectMapper objectMapper;
 
-    public EmailServiceImpl(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailServiceImpl(EmailOutboxRepository emailOutboxRepository, ObjectMapper objectMapper) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Sends a password reset email to the user.
+     * Queues a password reset email to the user.
+     * The email is written to the outbox in the caller's transaction and sent by the EmailOutboxDispatcher,
+     * so the request never waits on the mail server and the email is only sent if the reset token was committed.
+     * It is rendered from the password-reset templates, in the locale of the current request.
      * @param toEmail the email address of the user
      * @param resetLink the link to reset the password
+     * @param expiresInMinutes the validity of the link
      */
     @Override
-    public void sendPasswordResetEmail(String toEmail, String resetLink) {
+    @Transactional
+    public void sendPasswordResetEmail(String toEmail, String resetLink, long expiresInMinutes) {
+        enqueue(EmailKind.PASSWORD_RESET, toEmail, Map.of("resetLink", resetLink, "expiresInMinutes", expiresInMinutes));
+    }
+
+    private void enqueue(EmailKind kind, String toEmail, Map<String, Object> variables) {
+        String payload;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("Password Reset Request");
-            message.setText("To reset your password, click the link below:\n\n" +
-                    "https://yourdomain.com/reset-password?token=" + resetLink + "\n\n" +
-                    "If you didn't request a password reset, please ignore this email.\n\n" +
-                    "This link will expire in 30 minutes.");
-            mailSender.send(message);
-        } catch (MailException e) {
-            throw new RuntimeException("Failed to send email " ,e);
+            payload = objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize email variables", e);
         }
+        String locale = LocaleContextHolder.getLocale().toLanguageTag();
+        emailOutboxRepository.save(new EmailOutboxMessage(kind, toEmail, payload, locale, Instant.now()));
     }
 }
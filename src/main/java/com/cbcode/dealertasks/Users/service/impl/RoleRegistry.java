@@ -0,0 +1,111 @@
+package com.cbcode.dealertasks.Users.service.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.RoleNotFoundException;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The Role rows of every EnumRole, seeded and loaded once at startup.
+ * Roles never change at runtime, so lookups are served from memory without a query.
+ * The returned entities are detached, but carry their id: assigning them to User.roles (no cascade) only writes
+ * the users_roles join rows, so they can be used in any transaction.
+ */
+@Component
+public class RoleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleRegistry.class);
+
+    private final RoleRepository roleRepository;
+    private Map<EnumRole, Role> roles = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Inserts the missing roles and loads all of them.
+     * When another instance inserts the same role concurrently, the unique name constraint rejects
+     * the second insert and the roles are loaded again.
+     */
+    @PostConstruct
+    public void loadRoles() {
+        Map<EnumRole, Role> loaded = findAll();
+        for (EnumRole name : EnumRole.values()) {
+            if (!loaded.containsKey(name)) {
+                try {
+                    loaded.put(name, roleRepository.save(new Role(name)));
+                    logger.info("Created role {}", name);
+                } catch (DataIntegrityViolationException e) {
+                    logger.info("Role {} was created concurrently, reloading roles", name);
+                    loaded = findAll();
+                }
+            }
+        }
+        if (loaded.size() != EnumRole.values().length) {
+            throw new IllegalStateException("Failed to load roles, found " + loaded.keySet());
+        }
+        roles = Collections.unmodifiableMap(loaded);
+        logger.info("Loaded roles {}", roles.keySet());
+    }
+
+    /**
+     * @param name - The name of the role.
+     * @return - The role entity.
+     * @throws RoleNotFoundException - If the name is null.
+     */
+    public Role get(EnumRole name) {
+        Role role = name != null ? roles.get(name) : null;
+        if (role == null) {
+            throw new RoleNotFoundException("Role not found: " + name);
+        }
+        return role;
+    }
+
+    /**
+     * @param roleNames - The role names, e.g. ROLE_ADMIN.
+     * @return - The role entities.
+     * @throws RoleNotFoundException - If a name is not a role.
+     */
+    public Set<Role> resolve(Collection<String> roleNames) {
+        return roleNames.stream()
+                .map(this::resolve)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @param roleName - The role name, e.g. ROLE_ADMIN.
+     * @return - The role entity.
+     * @throws RoleNotFoundException - If the name is not a role.
+     */
+    public Role resolve(String roleName) {
+        try {
+            return get(EnumRole.valueOf(roleName));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.error("Invalid role name provided: {}", roleName);
+            throw new RoleNotFoundException("Role not found: " + roleName);
+        }
+    }
+
+    // Rows duplicated by the former runtime insert path resolve to the oldest one
+    private Map<EnumRole, Role> findAll() {
+        return roleRepository.findAll().stream()
+                .filter(role -> role.getName() != null)
+                .sorted(Comparator.comparing(Role::getId))
+                .collect(Collectors.toMap(Role::getName, role -> role, (first, duplicate) -> first,
+                        () -> new EnumMap<>(EnumRole.class)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.cbcode.dealertasks.Users.service.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportRow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the CSV of a bulk user import (RFC 4180: comma separated, fields optionally in double quotes).
+ * The header names the columns, in any order: firstName, lastName, email, password, roles (case and underscores
+ * ignored). Roles are separated by ';' or '|', e.g. {@code ROLE_SALES;ROLE_WORKSHOP}. Blank lines are skipped.
+ */
+public final class UserImportCsv {
+
+    private static final List<String> COLUMNS = List.of("firstname", "lastname", "email", "password", "roles");
+
+    private UserImportCsv() {
+    }
+
+    /**
+     * @param csv - The CSV, header line first.
+     * @return - The rows, in the order of the file.
+     * @throws ArgumentNotPresentException - If the header misses a column, or a quote is not closed.
+     */
+    public static List<UserImportRow> parse(String csv) {
+        List<List<String>> records = records(csv == null ? "" : csv);
+        if (records.isEmpty()) {
+            throw new ArgumentNotPresentException("The CSV is empty");
+        }
+        List<String> header = records.getFirst().stream()
+                .map(name -> name.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        int[] positions = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            positions[i] = header.indexOf(COLUMNS.get(i));
+            if (positions[i] < 0) {
+                throw new ArgumentNotPresentException("The CSV header has no " + COLUMNS.get(i) + " column");
+            }
+        }
+        List<UserImportRow> rows = new ArrayList<>(records.size() - 1);
+        for (List<String> fields : records.subList(1, records.size())) {
+            rows.add(new UserImportRow(field(fields, positions[0]), field(fields, positions[1]), field(fields, positions[2]),
+                    field(fields, positions[3]), roles(field(fields, positions[4]))));
+        }
+        return rows;
+    }
+
+    private static String field(List<String> fields, int position) {
+        if (position >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Set<String> roles(String value) {
+        if (value == null) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split("[;|]"))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static List<List<String>> records(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int start = !csv.isEmpty() && csv.charAt(0) == '\uFEFF' ? 1 : 0;
+        for (int i = start; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRecord(records, fields, field);
+                fields = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ArgumentNotPresentException("The CSV has an unclosed quote");
+        }
+        endRecord(records, fields, field);
+        return records;
+    }
+
+    private static void endRecord(List<List<String>> records, List<String> fields, StringBuilder field) {
+        fields.add(field.toString());
+        field.setLength(0);
+        if (fields.size() > 1 || !fields.getFirst().isBlank()) {
+            records.add(fields);
+        }
+    }
+}
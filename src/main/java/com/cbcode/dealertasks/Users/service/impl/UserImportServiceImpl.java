@@ -0,0 +1,274 @@
+package com.cbcode.dealertasks.Users.service.impl;
+
+import com.cbcode.dealertasks.Audit.model.Enums.AuditAction;
+import com.cbcode.dealertasks.Audit.service.AuditService;
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.ExceptionsConfig.RoleNotFoundException;
+import com.cbcode.dealertasks.ExceptionsConfig.TooManyRequestsException;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportReport;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportResult;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportRow;
+import com.cbcode.dealertasks.Users.model.Enums.UserImportOutcome;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.repository.UserImportRepository;
+import com.cbcode.dealertasks.Users.repository.UserImportRepository.NewUser;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.DTOs.Request.SignUpRequest;
+import com.cbcode.dealertasks.Users.security.impl.IsolatedPasswordEncoder;
+import com.cbcode.dealertasks.Users.service.UserImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many users at once, e.g. the staff of a new dealership site.
+ * Every row is validated like a sign-up, then the valid rows are created in chunks: the passwords of a chunk are
+ * hashed in parallel on the password hashing pool, and the chunk is inserted with two JDBC batches.
+ * Each chunk commits on its own, so a failure only affects its rows; importing the same file again is safe,
+ * as the users already created come back as DUPLICATE.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+    private static final int MIN_NAME_LENGTH = 2;
+    private static final int MAX_NAME_LENGTH = 50;
+
+    @Value("${dealer_management_system.users.import.maxRows:1000}")
+    private int maxRows;
+    @Value("${dealer_management_system.users.import.batchSize:100}")
+    private int batchSize;
+    // Passwords of a chunk submitted to the hashing pool at once; below its queue capacity, so that an import
+    // alone never fills the queue and logins keep getting through
+    @Value("${dealer_management_system.users.import.hashingWindow:32}")
+    private int hashingWindow;
+
+    private final UserRepository userRepository;
+    private final UserImportRepository userImportRepository;
+    private final RoleRegistry roleRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final AuditService auditService;
+
+    public UserImportServiceImpl(UserRepository userRepository, UserImportRepository userImportRepository,
+                                 RoleRegistry roleRegistry, PasswordEncoder passwordEncoder, AuditService auditService) {
+        this.userRepository = userRepository;
+        this.userImportRepository = userImportRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.auditService = auditService;
+    }
+
+    /**
+     * Creates the users of the rows that are valid, and reports the outcome of every row.
+     * @param rows - The users to create.
+     * @return - The report, with one result per row in the order of the rows.
+     * @throws ArgumentNotPresentException - If there are no rows, or more than the configured maximum.
+     */
+    @Override
+    public UserImportReport importUsers(List<UserImportRow> rows) {
+        if (rows == null || rows.isEmpty()) {
+            logger.error("No users to import");
+            throw new ArgumentNotPresentException("No users to import");
+        }
+        if (rows.size() > maxRows) {
+            logger.error("Import of {} users exceeds the limit of {}", rows.size(), maxRows);
+            throw new ArgumentNotPresentException("At most " + maxRows + " users can be imported at once");
+        }
+        long start = System.nanoTime();
+        UserImportResult[] results = new UserImportResult[rows.size()];
+        List<Candidate> candidates = validate(rows, results);
+
+        boolean hashingAvailable = true;
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            List<Candidate> chunk = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            if (hashingAvailable) {
+                hashingAvailable = create(chunk, results);
+            } else {
+                chunk.forEach(candidate -> fail(results, candidate, "Password hashing is busy, import this user again"));
+            }
+        }
+
+        int created = (int) Arrays.stream(results).filter(result -> result.outcome() == UserImportOutcome.CREATED).count();
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Imported {} of {} users in {} ms", created, rows.size(), durationMillis);
+        return new UserImportReport(rows.size(), created, rows.size() - created, durationMillis, List.of(results));
+    }
+
+    /**
+     * Same as importUsers, for a CSV with a header line.
+     * @param csv - The CSV. See UserImportCsv for its format.
+     * @return - The report, with one result per CSV line after the header.
+     * @throws ArgumentNotPresentException - If the CSV cannot be read, has no rows or more than the configured maximum.
+     */
+    @Override
+    public UserImportReport importCsv(String csv) {
+        return importUsers(UserImportCsv.parse(csv));
+    }
+
+    // Rejects invalid rows, repeated emails and emails already in use; the rest is left to create
+    private List<Candidate> validate(List<UserImportRow> rows, UserImportResult[] results) {
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        Map<String, Integer> rowByEmail = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow row = rows.get(i);
+            int number = i + 1;
+            if (row == null) {
+                results[i] = new UserImportResult(number, null, UserImportOutcome.INVALID, null, "Empty row");
+                continue;
+            }
+            String email = trim(row.email());
+            SignUpRequest request;
+            try {
+                validateNameLength("First name", trim(row.firstName()));
+                validateNameLength("Last name", trim(row.lastName()));
+                Set<Role> roles = roleRegistry.resolve(row.roles() == null ? Set.of() : row.roles());
+                request = new SignUpRequest(trim(row.firstName()), trim(row.lastName()), email, row.password(), roles);
+            } catch (IllegalArgumentException | RoleNotFoundException e) {
+                results[i] = new UserImportResult(number, email, UserImportOutcome.INVALID, null, e.getMessage());
+                continue;
+            }
+            Integer firstRow = rowByEmail.putIfAbsent(email, number);
+            if (firstRow != null) {
+                results[i] = new UserImportResult(number, email, UserImportOutcome.DUPLICATE, null, "Same email as row " + firstRow);
+                continue;
+            }
+            candidates.add(new Candidate(number, request));
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> existing = new HashSet<>(userRepository.findEmailsIn(rowByEmail.keySet()));
+        List<Candidate> toCreate = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (existing.contains(candidate.request().email())) {
+                results[candidate.row() - 1] = new UserImportResult(candidate.row(), candidate.request().email(),
+                        UserImportOutcome.DUPLICATE, null, "Email already in use");
+            } else {
+                toCreate.add(candidate);
+            }
+        }
+        return toCreate;
+    }
+
+    /**
+     * Hashes the passwords of a chunk and inserts its users.
+     * @return - False if the hashing pool rejected the chunk; its rows are then reported as failed.
+     */
+    private boolean create(List<Candidate> chunk, UserImportResult[] results) {
+        List<String> hashes;
+        try {
+            hashes = hash(chunk);
+        } catch (TooManyRequestsException e) {
+            logger.warn("Password hashing pool is full, aborting the import of the remaining users");
+            chunk.forEach(candidate -> fail(results, candidate, "Password hashing is busy, import this user again"));
+            return false;
+        }
+        List<Long> ids = userImportRepository.nextUserIds(chunk.size());
+        List<NewUser> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            SignUpRequest request = chunk.get(i).request();
+            Set<Long> roleIds = request.roles().stream().map(Role::getId).collect(Collectors.toSet());
+            users.add(new NewUser(ids.get(i), request.firstName(), request.lastName(), request.email(), hashes.get(i), roleIds));
+        }
+        try {
+            userImportRepository.insertUsers(users);
+            for (int i = 0; i < chunk.size(); i++) {
+                created(results, chunk.get(i), users.get(i));
+            }
+        } catch (DataAccessException e) {
+            // Typically an email registered since the validation; find the rows at fault one by one
+            logger.warn("Batch insert of {} imported users failed, inserting them one by one: {}", users.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                insertOne(chunk.get(i), users.get(i), results);
+            }
+        }
+        return true;
+    }
+
+    private void insertOne(Candidate candidate, NewUser user, UserImportResult[] results) {
+        try {
+            userImportRepository.insertUsers(List.of(user));
+            created(results, candidate, user);
+        } catch (DuplicateKeyException e) {
+            results[candidate.row() - 1] = new UserImportResult(candidate.row(), user.email(), UserImportOutcome.DUPLICATE,
+                    null, "Email already in use");
+        } catch (DataAccessException e) {
+            logger.error("Failed to import user {}: {}", user.email(), e.getMessage());
+            fail(results, candidate, "The user could not be saved");
+        }
+    }
+
+    // Submits at most hashingWindow passwords at a time and keeps the order of the chunk
+    private List<String> hash(List<Candidate> chunk) {
+        List<String> hashes = new ArrayList<>(chunk.size());
+        for (int from = 0; from < chunk.size(); from += hashingWindow) {
+            List<CompletableFuture<String>> window = chunk.subList(from, Math.min(from + hashingWindow, chunk.size()))
+                    .stream()
+                    .map(candidate -> encodeAsync(candidate.request().password()))
+                    .toList();
+            for (CompletableFuture<String> hash : window) {
+                hashes.add(join(hash));
+            }
+        }
+        return hashes;
+    }
+
+    private CompletableFuture<String> encodeAsync(String rawPassword) {
+        if (passwordEncoder instanceof IsolatedPasswordEncoder isolatedPasswordEncoder) {
+            return isolatedPasswordEncoder.encodeAsync(rawPassword);
+        }
+        return CompletableFuture.completedFuture(passwordEncoder.encode(rawPassword));
+    }
+
+    private static String join(CompletableFuture<String> hash) {
+        try {
+            return hash.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void created(UserImportResult[] results, Candidate candidate, NewUser user) {
+        results[candidate.row() - 1] = new UserImportResult(candidate.row(), user.email(), UserImportOutcome.CREATED,
+                user.id(), null);
+        auditService.record(AuditAction.USER_IMPORTED, user.id(), user.email(),
+                "roles=" + candidate.request().roles().stream().map(role -> role.getName().name()).sorted().toList());
+    }
+
+    private static void fail(UserImportResult[] results, Candidate candidate, String message) {
+        results[candidate.row() - 1] = new UserImportResult(candidate.row(), candidate.request().email(),
+                UserImportOutcome.FAILED, null, message);
+    }
+
+    private static void validateNameLength(String field, String name) {
+        if (name != null && (name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH)) {
+            throw new IllegalArgumentException(field + " must be between " + MIN_NAME_LENGTH + " and " + MAX_NAME_LENGTH + " characters");
+        }
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private record Candidate(int row, SignUpRequest request) {
+    }
+}
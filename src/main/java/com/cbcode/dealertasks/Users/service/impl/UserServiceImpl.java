@@ -1,9 +1,13 @@
 package com.cbcode.dealertasks.Users.service.impl;
 
 import com.cbcode.dealertasks.ExceptionsConfig.*;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryDto;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryEntryDto;
 import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
 import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
 import com.cbcode.dealertasks.Users.service.UserService;
 import jakarta.transaction.Transactional;
 import org.jetbrains.annotations.NotNull;
@@ -11,12 +15,17 @@ import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 @Service
@@ -26,19 +35,27 @@ public class UserServiceImpl implements UserService {
 
     private static final String USER_NOT_FOUND = "User not found with ID";
     private static final int MIN_PASSWORD_LENGTH = 8;
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 50;
+    // Trigram indexes only help from three characters on; shorter terms are searched as prefixes
+    private static final int MIN_SUBSTRING_TERM_LENGTH = 3;
+    private static final Sort DIRECTORY_ORDER = Sort.by("lastName", "firstName", "id");
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[0-9])(?=.*[a-z])(?=.*[!@#$%^&*])(?=\\S+$).{8,}$");
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper modelMapper;
+    private final SecurityUserService securityUserService;
 
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper,
+                           SecurityUserService securityUserService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.modelMapper = modelMapper;
+        this.securityUserService = securityUserService;
     }
 
     /**
      * Update user details, with validation to prevent unauthorized updates and password changes.
+     * A new password or name evicts the cached user details on every node once the update commits.
      * @param id - The ID of the user to be updated.
      * @param userDto - New user details to be updated.
      * @return - Updated UserDto object containing the updated user details.
@@ -66,12 +83,21 @@ public class UserServiceImpl implements UserService {
 
         // Validate user update permissions and update user fields if validation passes successfully
         validateUserUpdatePermissions(authentication, currentPrincipalName, user, userDto);
+        String previousPassword = user.getPassword();
+        String previousFirstName = user.getFirstName();
+        String previousLastName = user.getLastName();
         updateUserFields(user, userDto);
 
         try {
             // Save updated user details to the database
             User updatedUser = userRepository.save(user);
             logger.info("Successfully updated user: {}", updatedUser.getEmail());
+            if (!Objects.equals(previousPassword, updatedUser.getPassword())
+                    || !Objects.equals(previousFirstName, updatedUser.getFirstName())
+                    || !Objects.equals(previousLastName, updatedUser.getLastName())) {
+                // The cached user still holds the old password hash
+                securityUserService.evictUser(updatedUser.getEmail());
+            }
 
             // Return updated user details in UserDto format for response output
             return modelMapper.map(updatedUser, UserDto.class);
@@ -81,6 +107,32 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * Searches the staff directory by first name, last name or email, case-insensitively, e.g. for an "assign to" picker.
+     * Terms shorter than three characters match the start of a name or email, longer ones any part of it.
+     * @param query - The search term.
+     * @param role - Only users with this role, or null for all.
+     * @param enabled - Only enabled (true) or disabled (false) users, or null for all.
+     * @param page - The page number, from 0.
+     * @param size - The page size, at most 50.
+     * @return - The page of matching users, by last name then first name.
+     * @throws ArgumentNotPresentException - If the term is blank, or the page or size is out of range.
+     */
+    @Override
+    public UserDirectoryDto searchDirectory(String query, EnumRole role, Boolean enabled, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new ArgumentNotPresentException("A search term is required");
+        }
+        if (page < 0 || size < 1 || size > MAX_DIRECTORY_PAGE_SIZE) {
+            throw new ArgumentNotPresentException("Page must be 0 or more and size between 1 and " + MAX_DIRECTORY_PAGE_SIZE);
+        }
+        String term = query.strip().toLowerCase(Locale.ROOT);
+        String pattern = term.length() < MIN_SUBSTRING_TERM_LENGTH ? escapeLike(term) + "%" : "%" + escapeLike(term) + "%";
+        Slice<UserDirectoryEntryDto> matches = userRepository.searchDirectory(pattern, role, enabled,
+                PageRequest.of(page, size, DIRECTORY_ORDER));
+        return new UserDirectoryDto(matches.getContent(), page, size, matches.hasNext());
+    }
+
     private void validateInput(Long id, UserDto userDto) {
         // Validate input parameters for a user update process to prevent null or invalid values from being processed
         if (id == null || id <= 0) {
@@ -159,4 +211,9 @@ public class UserServiceImpl implements UserService {
         return authentication.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
     }
+
+    // The default LIKE escape character differs between databases, so searchDirectory declares its own: '!'
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
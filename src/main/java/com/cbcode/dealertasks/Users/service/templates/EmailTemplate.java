@@ -0,0 +1,105 @@
+package com.cbcode.dealertasks.Users.service.templates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled email template. The source is parsed once into alternating literal segments and variable names
+ * ({@code {{name}}}), so rendering is a single pass of appends into a pre-sized StringBuilder: no parsing,
+ * no regex and no intermediate strings. Variables of HTML templates are escaped.
+ * Instances are immutable and thread-safe.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int VARIABLE_SIZE_ESTIMATE = 32;
+
+    private final String[] literals;
+    private final String[] variables;
+    private final boolean html;
+    private final int literalLength;
+
+    private EmailTemplate(String[] literals, String[] variables, boolean html) {
+        this.literals = literals;
+        this.variables = variables;
+        this.html = html;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles a template source.
+     * @param source - The template text, with variables written as {{name}}.
+     * @param html - Whether variable values must be HTML-escaped.
+     * @return - The compiled template.
+     * @throws IllegalArgumentException - If a variable is not closed or has an invalid name.
+     */
+    public static EmailTemplate compile(String source, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template variable at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty() || !name.chars().allMatch(Character::isLetterOrDigit)) {
+                throw new IllegalArgumentException("Invalid template variable name '" + name + "' at offset " + open);
+            }
+            literals.add(source.substring(position, open));
+            variables.add(name);
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        return new EmailTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]), html);
+    }
+
+    /**
+     * Renders the template.
+     * @param values - The variable values, by name.
+     * @return - The rendered text.
+     * @throws IllegalArgumentException - If a variable of the template has no value.
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder out = new StringBuilder(literalLength + VARIABLE_SIZE_ESTIMATE * variables.length);
+        out.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            Object value = values.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for template variable " + variables[i]);
+            }
+            if (html) {
+                appendEscaped(out, value.toString());
+            } else {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+        return out.toString();
+    }
+
+    public List<String> variables() {
+        return List.of(variables);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.cbcode.dealertasks.Users.service.templates;
+
+import com.cbcode.dealertasks.Users.model.Enums.EmailKind;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The email templates of every EmailKind, compiled once at startup.
+ * Templates are read from {@code email-templates/<kind>/<locale>.subject.txt}, {@code .txt} and {@code .html}
+ * on the classpath, e.g. {@code email-templates/password-reset/en.html}, for each configured locale.
+ * The default locale must provide every kind, so a missing template fails the startup rather than a send;
+ * other locales fall back to it.
+ */
+@Component
+public class EmailTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRegistry.class);
+    private static final String LOCATION = "email-templates/";
+
+    @Value("${dealer_management_system.email.locales:en}")
+    private String[] locales;
+    @Value("${dealer_management_system.email.defaultLocale:en}")
+    private String defaultLocale;
+
+    private final Map<EmailKind, Map<String, LocalizedTemplate>> templates = new EnumMap<>(EmailKind.class);
+
+    @PostConstruct
+    public void compileTemplates() {
+        for (EmailKind kind : EmailKind.values()) {
+            Map<String, LocalizedTemplate> byLocale = new HashMap<>();
+            for (String locale : locales) {
+                LocalizedTemplate template = load(kind, locale.trim());
+                if (template != null) {
+                    byLocale.put(locale.trim(), template);
+                }
+            }
+            if (!byLocale.containsKey(defaultLocale)) {
+                throw new IllegalStateException("Missing " + defaultLocale + " email template for " + kind);
+            }
+            templates.put(kind, Map.copyOf(byLocale));
+        }
+        logger.info("Compiled email templates for locales {}", String.join(", ", locales));
+    }
+
+    /**
+     * Renders the subject, plain-text and HTML variants of an email.
+     * @param kind - The kind of email.
+     * @param languageTag - The locale of the recipient (e.g. en-GB), or null for the default locale.
+     * @param values - The template variables.
+     * @return - The rendered email.
+     * @throws IllegalArgumentException - If a template variable has no value.
+     */
+    public RenderedEmail render(EmailKind kind, String languageTag, Map<String, ?> values) {
+        LocalizedTemplate template = resolve(templates.get(kind), languageTag);
+        return new RenderedEmail(template.subject().render(values), template.text().render(values), template.html().render(values));
+    }
+
+    private LocalizedTemplate resolve(Map<String, LocalizedTemplate> byLocale, String languageTag) {
+        if (languageTag != null) {
+            LocalizedTemplate template = byLocale.get(languageTag);
+            if (template == null) {
+                template = byLocale.get(Locale.forLanguageTag(languageTag).getLanguage());
+            }
+            if (template != null) {
+                return template;
+            }
+        }
+        return byLocale.get(defaultLocale);
+    }
+
+    private LocalizedTemplate load(EmailKind kind, String locale) {
+        String base = LOCATION + kind.name().toLowerCase(Locale.ROOT).replace('_', '-') + "/" + locale;
+        String subject = read(base + ".subject.txt");
+        String text = read(base + ".txt");
+        String html = read(base + ".html");
+        if (subject == null || text == null || html == null) {
+            logger.debug("No complete {} email template for locale {}", kind, locale);
+            return null;
+        }
+        return new LocalizedTemplate(EmailTemplate.compile(subject.strip(), false), EmailTemplate.compile(text, false),
+                EmailTemplate.compile(html, true));
+    }
+
+    private static String read(String path) {
+        ClassPathResource resource = new ClassPathResource(path);
+        if (!resource.exists()) {
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read email template " + path, e);
+        }
+    }
+
+    private record LocalizedTemplate(EmailTemplate subject, EmailTemplate text, EmailTemplate html) {
+    }
+}
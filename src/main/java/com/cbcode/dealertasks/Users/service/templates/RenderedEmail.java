@@ -0,0 +1,4 @@
+package com.cbcode.dealertasks.Users.service.templates;
+
+public record RenderedEmail(String subject, String text, String html) {
+}
@@ -1,14 +1,18 @@
 package com.cbcode.dealertasks.Valet.controller;
 
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
 import com.cbcode.dealertasks.Valet.service.ValetService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/valet")
 @CrossOrigin(origins = "*")
-@PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_VALET')")
+@PreAuthorize("hasAnyAuthority('ROLE_ADMIN','ROLE_VALETER')")
 public class ValetController {
 
     private final ValetService valetService;
@@ -21,4 +25,19 @@ public class ValetController {
     public ResponseEntity<?> updateValetStatus(@PathVariable Long id, @RequestParam String status) {
         return ResponseEntity.ok(valetService.updateValetStatus(id, status));
     }
+
+    @GetMapping(value = "/my-queue", produces = "application/json")
+    public ResponseEntity<?> getMyQueue(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(valetService.getMyQueue(page, size));
+    }
+
+    @GetMapping(value = "/my-queue/count", produces = "application/json")
+    public ResponseEntity<?> countMyOpenJobs() {
+        return ResponseEntity.ok(Map.of("openCount", valetService.countMyOpenJobs()));
+    }
+
+    @PatchMapping(value = "/status", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<?> updateValetStatuses(@RequestBody List<JobStatusUpdate> updates) {
+        return ResponseEntity.ok(valetService.updateValetStatuses(updates));
+    }
 }
@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Valet.model.DTOs;
+
+import com.cbcode.dealertasks.Valet.model.Enums.ValetEnum;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
+
+public record ValetQueueItemDto(
+        Long id,
+        ValetEnum valetEnum,
+        ValetStatus status,
+        String comments,
+        String regNumber
+) {
+}
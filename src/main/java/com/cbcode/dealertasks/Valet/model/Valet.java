@@ -10,7 +10,8 @@ import java.io.Serializable;
 import java.util.Objects;
 
 @Entity
-@Table(name = "valets")
+@Table(name = "valets",
+        indexes = @Index(name = "idx_valets_user_status_id", columnList = "user_id, status, id"))
 @SequenceGenerator(name = "valets_seq", sequenceName = "valets_seq", allocationSize = 1, initialValue = 1)
 public class Valet implements Serializable {
 
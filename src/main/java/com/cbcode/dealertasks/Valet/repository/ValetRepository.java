@@ -1,16 +1,48 @@
 package com.cbcode.dealertasks.Valet.repository;
 
+import com.cbcode.dealertasks.Valet.model.DTOs.ValetQueueItemDto;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
 import com.cbcode.dealertasks.Valet.model.Valet;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ValetRepository extends JpaRepository<Valet, Long> {
 
-    @Query("SELECT v FROM Valet v WHERE v.user.id = :user_id")
-    Optional<Valet> findByUser_Id(@Param("user_id") Long user);
+    // Queue, first phase: the ids of the page, oldest first, read from idx_valets_user_status_id alone
+    @Query("SELECT v.id FROM Valet v WHERE v.user.id = :user_id AND v.status IN :statuses ORDER BY v.id")
+    Slice<Long> findQueueIdsByUserId(@Param("user_id") Long userId, @Param("statuses") Collection<ValetStatus> statuses, Pageable pageable);
+
+    // Queue, second phase: the jobs of the page by primary key; the car is joined through the task owning the job,
+    // for the registration number only
+    @Query("SELECT new com.cbcode.dealertasks.Valet.model.DTOs.ValetQueueItemDto(v.id, v.valetEnum, v.status, v.comments, c.regNumber) " +
+            "FROM Valet v LEFT JOIN Task t ON t.valet = v LEFT JOIN t.car c " +
+            "WHERE v.id IN :ids ORDER BY v.id")
+    List<ValetQueueItemDto> findQueueItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(v) FROM Valet v WHERE v.user.id = :user_id AND v.status IN :statuses")
+    long countByUserIdAndStatusIn(@Param("user_id") Long userId, @Param("statuses") Collection<ValetStatus> statuses);
+
+    // Bulk status updates, first step: the jobs with their user in one statement, locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Valet v LEFT JOIN FETCH v.user WHERE v.id IN :ids")
+    List<Valet> findAllWithUserByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Bulk status updates, second step: one statement per target status. The jobs loaded before are detached, so they
+    // are not written again at flush
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Valet v SET v.status = :status WHERE v.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ValetStatus status);
 }
@@ -1,8 +1,20 @@
 package com.cbcode.dealertasks.Valet.service;
 
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobQueueDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdateResult;
 import com.cbcode.dealertasks.Valet.model.DTOs.ValetDto;
+import com.cbcode.dealertasks.Valet.model.DTOs.ValetQueueItemDto;
+
+import java.util.List;
 
 public interface ValetService {
 
     ValetDto updateValetStatus(Long id, String valetStatus);
+
+    List<JobStatusUpdateResult> updateValetStatuses(List<JobStatusUpdate> updates);
+
+    JobQueueDto<ValetQueueItemDto> getMyQueue(int page, int size);
+
+    long countMyOpenJobs();
 }
@@ -1,29 +1,72 @@
 package com.cbcode.dealertasks.Valet.service.impl;
 
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
 import com.cbcode.dealertasks.ExceptionsConfig.NotAuthorizedAccessException;
 import com.cbcode.dealertasks.ExceptionsConfig.ResourceNotFoundException;
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobQueueDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdateResult;
+import com.cbcode.dealertasks.Tasks.model.Enums.JobStatusUpdateOutcome;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
+import com.cbcode.dealertasks.Tasks.services.impl.OpenJobCounts;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
 import com.cbcode.dealertasks.Valet.model.DTOs.ValetDto;
+import com.cbcode.dealertasks.Valet.model.DTOs.ValetQueueItemDto;
 import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
 import com.cbcode.dealertasks.Valet.model.Valet;
 import com.cbcode.dealertasks.Valet.repository.ValetRepository;
 import com.cbcode.dealertasks.Valet.service.ValetService;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class ValetServiceImpl implements ValetService {
 
     private static final Logger logger = LoggerFactory.getLogger(ValetServiceImpl.class);
+    private static final int MAX_BULK_UPDATE_SIZE = 500;
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+    private static final List<ValetStatus> OPEN_STATUSES = List.of(ValetStatus.PENDING, ValetStatus.IN_PROGRESS);
+
+    @Value("${dealer_management_system.queue.openCountTtl:30000}")
+    private long openCountTtl;
 
     private final ValetRepository valetRepository;
     private final ModelMapper modelMapper;
+    private final PreparationPlanService preparationPlanService;
+    private final ApplicationEventPublisher eventPublisher;
+    private OpenJobCounts openJobCounts;
 
-    public ValetServiceImpl(ValetRepository valetRepository, ModelMapper modelMapper) {
+    public ValetServiceImpl(ValetRepository valetRepository, ModelMapper modelMapper, PreparationPlanService preparationPlanService,
+                            ApplicationEventPublisher eventPublisher) {
         this.valetRepository = valetRepository;
         this.modelMapper = modelMapper;
+        this.preparationPlanService = preparationPlanService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        openJobCounts = new OpenJobCounts(userId -> valetRepository.countByUserIdAndStatusIn(userId, OPEN_STATUSES), openCountTtl);
     }
 
     /**
@@ -64,6 +107,9 @@ public class ValetServiceImpl implements ValetService {
             valet.setComments(valet.getComments());
             valet.setStatus(status);
             valetRepository.save(valet);
+            preparationPlanService.onValetJobChanged(valet);
+            openJobCounts.evict(userId(valet));
+            publishStatusChanged(valet);
 
             logger.info("Valet status updated successfully");
             return modelMapper.map(valet, ValetDto.class);
@@ -72,4 +118,152 @@ public class ValetServiceImpl implements ValetService {
             throw new IllegalArgumentException("Invalid valet status: " + valetStatus);
         }
     }
+
+    /**
+     * Updates the status of several valet jobs with one locking SELECT and one UPDATE per distinct target status,
+     * instead of a select and a save per job. Jobs already in the requested status are left untouched.
+     * @param updates - valet ids with their new status (PENDING, IN_PROGRESS, DONE), each id at most once
+     * @return - one result per update, in request order
+     */
+    @Override
+    @Transactional
+    public List<JobStatusUpdateResult> updateValetStatuses(List<JobStatusUpdate> updates) {
+        // Check if user is authenticated
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getPrincipal() == null) {
+            logger.error("User not authenticated");
+            throw new NotAuthorizedAccessException("User not authenticated");
+        }
+        validateBulkUpdate(updates);
+
+        List<Long> ids = new ArrayList<>(updates.size());
+        for (JobStatusUpdate update : updates) {
+            if (parseStatus(update.status()) != null) {
+                ids.add(update.id());
+            }
+        }
+        // Locked, so no other transaction changes a status between this read and the updates below
+        Map<Long, Valet> valets = new HashMap<>();
+        if (!ids.isEmpty()) {
+            valetRepository.findAllWithUserByIdInForUpdate(ids).forEach(valet -> valets.put(valet.getId(), valet));
+        }
+
+        Map<ValetStatus, List<Long>> idsByStatus = new EnumMap<>(ValetStatus.class);
+        for (JobStatusUpdate update : updates) {
+            ValetStatus status = parseStatus(update.status());
+            Valet valet = valets.get(update.id());
+            if (status != null && valet != null && valet.getStatus() != status) {
+                idsByStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(update.id());
+            }
+        }
+
+        Set<Long> updatedIds = new HashSet<>();
+        idsByStatus.forEach((status, statusIds) -> {
+            valetRepository.updateStatus(statusIds, status);
+            // Detached by the update: the new status only serves the listeners and the results
+            statusIds.forEach(id -> valets.get(id).setStatus(status));
+            updatedIds.addAll(statusIds);
+        });
+        for (Long id : updatedIds) {
+            preparationPlanService.onValetJobChanged(valets.get(id));
+            openJobCounts.evict(userId(valets.get(id)));
+            publishStatusChanged(valets.get(id));
+        }
+
+        List<JobStatusUpdateResult> results = new ArrayList<>(updates.size());
+        for (JobStatusUpdate update : updates) {
+            Valet valet = valets.get(update.id());
+            String current = valet != null && valet.getStatus() != null ? valet.getStatus().name() : null;
+            JobStatusUpdateOutcome outcome;
+            if (parseStatus(update.status()) == null) {
+                outcome = JobStatusUpdateOutcome.INVALID_STATUS;
+            } else if (updatedIds.contains(update.id())) {
+                outcome = JobStatusUpdateOutcome.UPDATED;
+            } else if (valet != null) {
+                outcome = JobStatusUpdateOutcome.UNCHANGED;
+            } else {
+                outcome = JobStatusUpdateOutcome.NOT_FOUND;
+            }
+            results.add(new JobStatusUpdateResult(update.id(), outcome, current));
+        }
+        logger.info("User '{}' bulk updated valet statuses: {} requested, {} updated",
+                authentication.getPrincipal().toString(), updates.size(), updatedIds.size());
+        return results;
+    }
+
+    /**
+     * The open (PENDING or IN_PROGRESS) valet jobs of the authenticated user, oldest first.
+     * Read in two phases: the ids of the page by an index-only scan of (user_id, status, id), then those jobs with the
+     * registration of their car by primary key.
+     * @param page - The page number, from 0.
+     * @param size - The page size, at most 100.
+     * @return - The page of jobs, with the count of all the user's open jobs.
+     */
+    @Override
+    public JobQueueDto<ValetQueueItemDto> getMyQueue(int page, int size) {
+        Long userId = getAuthenticatedUserId();
+        if (page < 0 || size < 1 || size > MAX_QUEUE_PAGE_SIZE) {
+            throw new ArgumentNotPresentException("Page must be 0 or more and size between 1 and " + MAX_QUEUE_PAGE_SIZE);
+        }
+        Slice<Long> ids = valetRepository.findQueueIdsByUserId(userId, OPEN_STATUSES, PageRequest.of(page, size));
+        List<ValetQueueItemDto> queue = ids.isEmpty() ? List.of() : valetRepository.findQueueItemsByIdIn(ids.getContent());
+        return new JobQueueDto<>(queue, page, size, ids.hasNext(), openJobCounts.get(userId));
+    }
+
+    /**
+     * @return - The number of open valet jobs of the authenticated user, served from memory between changes.
+     */
+    @Override
+    public long countMyOpenJobs() {
+        return openJobCounts.get(getAuthenticatedUserId());
+    }
+
+    private static Long getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthUser authUser)) {
+            logger.error("User not authenticated");
+            throw new NotAuthorizedAccessException("User not authenticated");
+        }
+        return authUser.getId();
+    }
+
+    // Delivered to the status board after commit
+    private void publishStatusChanged(Valet valet) {
+        eventPublisher.publishEvent(new JobStatusChangedEvent(PreparationJobKind.VALET, valet.getId(),
+                valet.getValetEnum() != null ? valet.getValetEnum().name() : null, valet.getStatus().name(), userId(valet),
+                Instant.now()));
+    }
+
+    private static Long userId(Valet valet) {
+        return valet != null && valet.getUser() != null ? valet.getUser().getId() : null;
+    }
+
+    private static void validateBulkUpdate(List<JobStatusUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new ArgumentNotPresentException("No valet status updates given");
+        }
+        if (updates.size() > MAX_BULK_UPDATE_SIZE) {
+            throw new ArgumentNotPresentException("At most " + MAX_BULK_UPDATE_SIZE + " valet status updates per request");
+        }
+        Set<Long> seen = new HashSet<>();
+        for (JobStatusUpdate update : updates) {
+            if (update == null || update.id() == null) {
+                throw new ArgumentNotPresentException("Valet id is required for every status update");
+            }
+            if (!seen.add(update.id())) {
+                throw new ArgumentNotPresentException("Duplicate valet id in status updates: " + update.id());
+            }
+        }
+    }
+
+    private static ValetStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return ValetStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -1,10 +1,18 @@
 package com.cbcode.dealertasks.Workshop.controller;
 
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Workshop.service.WorkshopScheduleService;
 import com.cbcode.dealertasks.Workshop.service.WorkshopService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/workshop")
 @CrossOrigin(origins = "*")
@@ -12,9 +20,11 @@ import org.springframework.web.bind.annotation.*;
 public class WorkshopController {
 
     private final WorkshopService workshopService;
+    private final WorkshopScheduleService workshopScheduleService;
 
-    public WorkshopController(WorkshopService workshopService) {
+    public WorkshopController(WorkshopService workshopService, WorkshopScheduleService workshopScheduleService) {
         this.workshopService = workshopService;
+        this.workshopScheduleService = workshopScheduleService;
     }
 
     @PatchMapping(value = "/{id}/status", produces = "application/json")
@@ -22,4 +32,35 @@ public class WorkshopController {
         return ResponseEntity.ok(workshopService.updateWorkshopStatus(id, status));
     }
 
+    @GetMapping(value = "/my-queue", produces = "application/json")
+    public ResponseEntity<?> getMyQueue(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(workshopService.getMyQueue(page, size));
+    }
+
+    @GetMapping(value = "/my-queue/count", produces = "application/json")
+    public ResponseEntity<?> countMyOpenJobs() {
+        return ResponseEntity.ok(Map.of("openCount", workshopService.countMyOpenJobs()));
+    }
+
+    @PatchMapping(value = "/status", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<?> updateWorkshopStatuses(@RequestBody List<JobStatusUpdate> updates) {
+        return ResponseEntity.ok(workshopService.updateWorkshopStatuses(updates));
+    }
+
+    @PostMapping(value = "/{id}/slot", produces = "application/json")
+    public ResponseEntity<?> reserveSlot(@PathVariable Long id,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime notBefore) {
+        return ResponseEntity.ok(workshopScheduleService.reserveSlot(id, notBefore));
+    }
+
+    @DeleteMapping(value = "/{id}/slot")
+    public ResponseEntity<?> cancelSlot(@PathVariable Long id) {
+        workshopScheduleService.cancelSlot(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(value = "/schedule", produces = "application/json")
+    public ResponseEntity<?> getSchedule(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(workshopScheduleService.getSchedule(date != null ? date : LocalDate.now()));
+    }
 }
@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Workshop.model.DTOs;
+
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+
+import java.time.LocalDateTime;
+
+public record WorkshopBookingDto(
+        Long workshopId,
+        WorkshopEnum workshopEnum,
+        WorkshopStatusEnum workshopStatusEnum,
+        int bay,
+        LocalDateTime startsAt,
+        LocalDateTime endsAt
+) {
+}
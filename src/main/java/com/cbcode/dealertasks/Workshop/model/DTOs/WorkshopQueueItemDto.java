@@ -0,0 +1,13 @@
+package com.cbcode.dealertasks.Workshop.model.DTOs;
+
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+
+public record WorkshopQueueItemDto(
+        Long id,
+        WorkshopEnum workshopEnum,
+        WorkshopStatusEnum workshopStatusEnum,
+        String comments,
+        String regNumber
+) {
+}
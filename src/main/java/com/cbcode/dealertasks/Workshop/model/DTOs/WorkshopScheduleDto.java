@@ -0,0 +1,14 @@
+package com.cbcode.dealertasks.Workshop.model.DTOs;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public record WorkshopScheduleDto(
+        LocalDate date,
+        LocalTime openingTime,
+        LocalTime closingTime,
+        int bays,
+        List<WorkshopBookingDto> bookings
+) {
+}
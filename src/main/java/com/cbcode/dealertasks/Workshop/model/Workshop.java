@@ -10,7 +10,8 @@ import java.io.Serializable;
 import java.util.Objects;
 
 @Entity
-@Table(name = "workshops")
+@Table(name = "workshops",
+        indexes = @Index(name = "idx_workshops_user_status_id", columnList = "user_id, workshop_name, id"))
 @SequenceGenerator(name = "workshops_seq", sequenceName = "workshops_seq", allocationSize = 1, initialValue = 1)
 public class Workshop implements Serializable {
 
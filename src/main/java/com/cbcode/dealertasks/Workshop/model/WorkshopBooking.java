@@ -0,0 +1,79 @@
+package com.cbcode.dealertasks.Workshop.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The bay and time slot reserved for a workshop job, [startsAt, endsAt).
+ * Two bookings of the same bay never overlap: besides the scheduler checking its timelines, every reservation locks
+ * the bay and checks for overlaps in the database (see WorkshopBookingSlotRepository), and the table carries an
+ * exclusion constraint (see WorkshopBookingConstraintInitializer), so concurrent reservations cannot double-book a bay.
+ */
+@Entity
+@Table(name = "workshop_bookings",
+        indexes = @Index(name = "idx_workshop_bookings_starts_at", columnList = "starts_at"))
+@SequenceGenerator(name = "workshop_bookings_seq", sequenceName = "workshop_bookings_seq", allocationSize = 1, initialValue = 1)
+public class WorkshopBooking implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "workshop_bookings_seq")
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "workshop_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Workshop workshop;
+
+    @Column(name = "bay", nullable = false)
+    private int bay;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+
+    public WorkshopBooking() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Workshop getWorkshop() {
+        return workshop;
+    }
+
+    public int getBay() {
+        return bay;
+    }
+
+    public LocalDateTime getStartsAt() {
+        return startsAt;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        WorkshopBooking that = (WorkshopBooking) o;
+        return Objects.equals(getId(), that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+}
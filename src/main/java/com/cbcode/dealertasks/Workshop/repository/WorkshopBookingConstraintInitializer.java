@@ -0,0 +1,55 @@
+package com.cbcode.dealertasks.Workshop.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the constraints Hibernate cannot generate to workshop_bookings: bookings of one bay must not overlap,
+ * enforced by an exclusion constraint over (bay, tsrange(starts_at, ends_at)), which needs the btree_gist extension
+ * for the equality on bay. Runs once the schema is up to date, and is a no-op when the constraints already exist.
+ * Reservations do not depend on it: WorkshopBookingSlotRepository locks the bay and checks for overlaps itself.
+ */
+@Component
+public class WorkshopBookingConstraintInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkshopBookingConstraintInitializer.class);
+
+    private static final String ADD_CONSTRAINTS = """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'workshop_bookings_valid_slot') THEN
+                    ALTER TABLE workshop_bookings
+                        ADD CONSTRAINT workshop_bookings_valid_slot CHECK (ends_at > starts_at);
+                END IF;
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'workshop_bookings_no_overlap') THEN
+                    ALTER TABLE workshop_bookings
+                        ADD CONSTRAINT workshop_bookings_no_overlap
+                        EXCLUDE USING gist (bay WITH =, tsrange(starts_at, ends_at) WITH &&);
+                END IF;
+            END
+            $$""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkshopBookingConstraintInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void addConstraints() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute(ADD_CONSTRAINTS);
+            logger.info("Workshop booking constraints in place");
+        } catch (DataAccessException e) {
+            // Reservations still lock the bay and check for overlaps; only writes bypassing them are unchecked
+            logger.warn("Could not add the workshop booking exclusion constraint, relying on the reservation lock: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.cbcode.dealertasks.Workshop.repository;
+
+import com.cbcode.dealertasks.Workshop.model.WorkshopBooking;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkshopBookingRepository extends JpaRepository<WorkshopBooking, Long> {
+
+    @Query("SELECT b FROM WorkshopBooking b WHERE b.workshop.id = :workshop_id")
+    Optional<WorkshopBooking> findByWorkshop_Id(@Param("workshop_id") Long workshopId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WorkshopBooking b WHERE b.workshop.id = :workshop_id")
+    int deleteByWorkshop_Id(@Param("workshop_id") Long workshopId);
+
+    @Query("SELECT b FROM WorkshopBooking b WHERE b.endsAt > :time")
+    List<WorkshopBooking> findEndingAfter(@Param("time") LocalDateTime time);
+
+    @Query("SELECT b FROM WorkshopBooking b WHERE b.bay = :bay AND b.endsAt > :time")
+    List<WorkshopBooking> findByBayEndingAfter(@Param("bay") int bay, @Param("time") LocalDateTime time);
+
+    @Query("SELECT b FROM WorkshopBooking b JOIN FETCH b.workshop " +
+            "WHERE b.startsAt < :range_end AND b.endsAt > :range_start ORDER BY b.bay, b.startsAt")
+    List<WorkshopBooking> findOverlapping(@Param("range_start") LocalDateTime rangeStart, @Param("range_end") LocalDateTime rangeEnd);
+}
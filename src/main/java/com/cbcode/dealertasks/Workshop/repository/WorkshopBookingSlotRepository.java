@@ -0,0 +1,48 @@
+package com.cbcode.dealertasks.Workshop.repository;
+
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reserves workshop slots with plain JDBC: the reservation is an advisory lock on the bay followed by an insert that
+ * checks for overlapping bookings itself, in one transaction. Concurrent reservations of a bay are serialised by the
+ * lock, so no double booking gets through even where the exclusion constraint could not be created; where it exists,
+ * the constraint remains the last line of defence.
+ */
+@Repository
+public class WorkshopBookingSlotRepository {
+
+    // Held until the transaction ends; the insert below runs after it is granted, so it sees the competing booking
+    private static final String LOCK_BAY = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('workshop_bookings'), ?)";
+
+    private static final String INSERT_IF_FREE = """
+            INSERT INTO workshop_bookings (id, workshop_id, bay, starts_at, ends_at)
+            SELECT nextval('workshop_bookings_seq'), ?, ?, ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM workshop_bookings WHERE bay = ? AND starts_at < ? AND ends_at > ?)
+            ON CONFLICT DO NOTHING RETURNING id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkshopBookingSlotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Books the slot unless it overlaps a booking of the bay or the job is booked already.
+     * @return - The id of the booking, or empty if the slot or the job was taken.
+     */
+    @Transactional
+    public Optional<Long> insertIfFree(Long workshopId, int bay, LocalDateTime startsAt, LocalDateTime endsAt) {
+        jdbcTemplate.queryForObject(LOCK_BAY, Integer.class, bay);
+        Timestamp start = Timestamp.valueOf(startsAt);
+        Timestamp end = Timestamp.valueOf(endsAt);
+        List<Long> ids = jdbcTemplate.queryForList(INSERT_IF_FREE, Long.class, workshopId, bay, start, end, bay, end, start);
+        return ids.stream().findFirst();
+    }
+}
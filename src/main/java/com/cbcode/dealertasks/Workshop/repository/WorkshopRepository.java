@@ -1,16 +1,48 @@
 package com.cbcode.dealertasks.Workshop.repository;
 
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopQueueItemDto;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
 import com.cbcode.dealertasks.Workshop.model.Workshop;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface WorkshopRepository extends JpaRepository<Workshop, Long> {
 
-    @Query("SELECT w FROM Workshop w WHERE w.user.id = :user_id")
-    Optional<Workshop> findByUser_Id(@Param("user_id") Long user);
+    // Queue, first phase: the ids of the page, oldest first, read from idx_workshops_user_status_id alone
+    @Query("SELECT w.id FROM Workshop w WHERE w.user.id = :user_id AND w.workshopStatusEnum IN :statuses ORDER BY w.id")
+    Slice<Long> findQueueIdsByUserId(@Param("user_id") Long userId, @Param("statuses") Collection<WorkshopStatusEnum> statuses, Pageable pageable);
+
+    // Queue, second phase: the jobs of the page by primary key; the car is joined through the task owning the job,
+    // for the registration number only
+    @Query("SELECT new com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopQueueItemDto(w.id, w.workshopEnum, w.workshopStatusEnum, w.comments, c.regNumber) " +
+            "FROM Workshop w LEFT JOIN Task t ON t.workshop = w LEFT JOIN t.car c " +
+            "WHERE w.id IN :ids ORDER BY w.id")
+    List<WorkshopQueueItemDto> findQueueItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(w) FROM Workshop w WHERE w.user.id = :user_id AND w.workshopStatusEnum IN :statuses")
+    long countByUserIdAndStatusIn(@Param("user_id") Long userId, @Param("statuses") Collection<WorkshopStatusEnum> statuses);
+
+    // Bulk status updates, first step: the jobs with their user in one statement, locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Workshop w LEFT JOIN FETCH w.user WHERE w.id IN :ids")
+    List<Workshop> findAllWithUserByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Bulk status updates, second step: one statement per target status. The jobs loaded before are detached, so they
+    // are not written again at flush
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Workshop w SET w.workshopStatusEnum = :status WHERE w.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") WorkshopStatusEnum status);
 }
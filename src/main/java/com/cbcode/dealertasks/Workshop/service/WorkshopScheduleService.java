@@ -0,0 +1,16 @@
+package com.cbcode.dealertasks.Workshop.service;
+
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopBookingDto;
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopScheduleDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface WorkshopScheduleService {
+
+    WorkshopBookingDto reserveSlot(Long workshopId, LocalDateTime notBefore);
+
+    void cancelSlot(Long workshopId);
+
+    WorkshopScheduleDto getSchedule(LocalDate date);
+}
@@ -1,9 +1,21 @@
 package com.cbcode.dealertasks.Workshop.service;
 
 
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobQueueDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdateResult;
 import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopDto;
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopQueueItemDto;
 import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
 
+import java.util.List;
+
 public interface WorkshopService {
     WorkshopDto updateWorkshopStatus(Long id, String workshopStatus);
+
+    List<JobStatusUpdateResult> updateWorkshopStatuses(List<JobStatusUpdate> updates);
+
+    JobQueueDto<WorkshopQueueItemDto> getMyQueue(int page, int size);
+
+    long countMyOpenJobs();
 }
@@ -0,0 +1,89 @@
+package com.cbcode.dealertasks.Workshop.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The booked time of one workshop bay: non-overlapping [start, end) intervals sorted by start.
+ * As bookings of a bay never overlap, their ends are sorted too, so a tree keyed by start answers the queries an
+ * interval tree would: the conflict check is one lookup, O(log n), and the earliest free slot is found by walking
+ * the gaps after the last booking starting before the requested time.
+ * Not thread-safe; callers guard it.
+ */
+public class BayTimeline {
+
+    private final NavigableMap<LocalDateTime, LocalDateTime> bookings = new TreeMap<>();
+
+    /**
+     * @param start - The start of the slot, inclusive.
+     * @param end - The end of the slot, exclusive.
+     * @return - True if no booking overlaps the slot.
+     */
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> last = bookings.lowerEntry(end);
+        return last == null || !last.getValue().isAfter(start);
+    }
+
+    /**
+     * Finds the earliest slot of the given length starting at or after from and ending by until.
+     * @param from - The earliest start.
+     * @param until - The latest end.
+     * @param duration - The length of the slot.
+     * @return - The start of the slot, or null if the bay has no such gap.
+     */
+    public LocalDateTime earliestStart(LocalDateTime from, LocalDateTime until, Duration duration) {
+        LocalDateTime candidate = from;
+        Map.Entry<LocalDateTime, LocalDateTime> previous = bookings.floorEntry(from);
+        if (previous != null && previous.getValue().isAfter(candidate)) {
+            candidate = previous.getValue();
+        }
+        for (Map.Entry<LocalDateTime, LocalDateTime> next : bookings.tailMap(from, false).entrySet()) {
+            if (!candidate.plus(duration).isAfter(next.getKey()) || !next.getKey().isBefore(until)) {
+                break;
+            }
+            if (next.getValue().isAfter(candidate)) {
+                candidate = next.getValue();
+            }
+        }
+        return candidate.plus(duration).isAfter(until) ? null : candidate;
+    }
+
+    /**
+     * @throws IllegalStateException - If the slot overlaps a booking.
+     */
+    public void add(LocalDateTime start, LocalDateTime end) {
+        if (!isFree(start, end)) {
+            throw new IllegalStateException("Slot " + start + " - " + end + " overlaps a booking");
+        }
+        bookings.put(start, end);
+    }
+
+    public void remove(LocalDateTime start) {
+        bookings.remove(start);
+    }
+
+    /**
+     * Drops the bookings that ended by the given time; they can no longer conflict with a new slot.
+     */
+    public void removeEndedBy(LocalDateTime time) {
+        Iterator<Map.Entry<LocalDateTime, LocalDateTime>> iterator = bookings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isAfter(time)) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    public void clear() {
+        bookings.clear();
+    }
+
+    public int size() {
+        return bookings.size();
+    }
+}
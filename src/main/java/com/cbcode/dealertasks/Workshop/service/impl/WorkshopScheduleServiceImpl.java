@@ -0,0 +1,259 @@
+package com.cbcode.dealertasks.Workshop.service.impl;
+
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.ExceptionsConfig.ResourceNotFoundException;
+import com.cbcode.dealertasks.Tasks.services.impl.JobDurations;
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopBookingDto;
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopScheduleDto;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+import com.cbcode.dealertasks.Workshop.model.WorkshopBooking;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopBookingRepository;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopBookingSlotRepository;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopRepository;
+import com.cbcode.dealertasks.Workshop.service.WorkshopScheduleService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class WorkshopScheduleServiceImpl implements WorkshopScheduleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkshopScheduleServiceImpl.class);
+
+    @Value("${dealer_management_system.workshop.bays:4}")
+    private int bays;
+    @Value("${dealer_management_system.workshop.openingTime:08:00}")
+    private String openingTimeValue;
+    @Value("${dealer_management_system.workshop.closingTime:18:00}")
+    private String closingTimeValue;
+    @Value("${dealer_management_system.workshop.horizonDays:30}")
+    private int horizonDays;
+    @Value("${dealer_management_system.workshop.maxReservationAttempts:3}")
+    private int maxReservationAttempts;
+    @Value("${dealer_management_system.workshop.timelineTtl:60000}")
+    private long timelineTtlInMs;
+
+    private final WorkshopRepository workshopRepository;
+    private final WorkshopBookingRepository bookingRepository;
+    private final WorkshopBookingSlotRepository slotRepository;
+    private final JobDurations jobDurations;
+
+    // Timelines of the bookings not yet ended, per bay, kept up to date by this instance and reloaded once older than
+    // the TTL, so bookings and cancellations of other instances are seen. The database stays the authority: a rejected
+    // insert means the bay was booked meanwhile, and that bay's timeline is reloaded. Each bay has its own lock, held
+    // only while its timeline is read or changed; the database is never called under it.
+    private final Map<Integer, Bay> timelines = new ConcurrentHashMap<>();
+
+    private LocalTime openingTime;
+    private LocalTime closingTime;
+
+    public WorkshopScheduleServiceImpl(WorkshopRepository workshopRepository, WorkshopBookingRepository bookingRepository,
+                                       WorkshopBookingSlotRepository slotRepository, JobDurations jobDurations) {
+        this.workshopRepository = workshopRepository;
+        this.bookingRepository = bookingRepository;
+        this.slotRepository = slotRepository;
+        this.jobDurations = jobDurations;
+    }
+
+    @PostConstruct
+    public void init() {
+        openingTime = LocalTime.parse(openingTimeValue);
+        closingTime = LocalTime.parse(closingTimeValue);
+        if (!closingTime.isAfter(openingTime) || bays < 1) {
+            throw new IllegalStateException("Workshop needs at least one bay and a closing time after its opening time");
+        }
+    }
+
+    /**
+     * Reserves the earliest slot, in any bay, long enough for the standard duration of the job,
+     * within opening hours and starting no earlier than notBefore.
+     * @param workshopId - The id of the workshop job.
+     * @param notBefore - The earliest start, or null for now.
+     * @return - The reserved booking.
+     * @throws ResourceNotFoundException - If the workshop job is not found.
+     * @throws ArgumentNotPresentException - If the job is done or already booked, or no bay is free within the horizon.
+     */
+    @Override
+    public WorkshopBookingDto reserveSlot(Long workshopId, LocalDateTime notBefore) {
+        Workshop workshop = workshopRepository.findById(workshopId)
+                .orElseThrow(() -> {
+                    logger.error("Workshop not found with id: {}", workshopId);
+                    return new ResourceNotFoundException("Workshop not found with id: " + workshopId);
+                });
+        if (workshop.getWorkshopStatusEnum() == WorkshopStatusEnum.DONE) {
+            throw new ArgumentNotPresentException("Workshop job is already done: " + workshopId);
+        }
+        if (bookingRepository.findByWorkshop_Id(workshopId).isPresent()) {
+            throw new ArgumentNotPresentException("Workshop job already has a slot: " + workshopId);
+        }
+        Duration duration = Duration.ofMinutes(jobDurations.minutes(workshop.getWorkshopEnum()));
+        if (duration.isZero() || duration.compareTo(Duration.between(openingTime, closingTime)) > 0) {
+            throw new ArgumentNotPresentException("Workshop job does not fit in a working day: " + workshopId);
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime from = notBefore == null || notBefore.isBefore(now) ? now : notBefore.truncatedTo(ChronoUnit.MINUTES);
+
+        for (int attempt = 1; attempt <= maxReservationAttempts; attempt++) {
+            Slot slot = findEarliestSlot(from, duration, now);
+            if (slot == null) {
+                throw new ArgumentNotPresentException("No free workshop bay in the next " + horizonDays + " days");
+            }
+            LocalDateTime end = slot.start().plus(duration);
+            Optional<Long> bookingId = slotRepository.insertIfFree(workshopId, slot.bay(), slot.start(), end);
+            if (bookingId.isPresent()) {
+                addToTimeline(slot.bay(), slot.start(), end);
+                logger.info("Reserved bay {} from {} to {} for workshop job {}", slot.bay(), slot.start(), end, workshopId);
+                return new WorkshopBookingDto(workshopId, workshop.getWorkshopEnum(), workshop.getWorkshopStatusEnum(),
+                        slot.bay(), slot.start(), end);
+            }
+            if (bookingRepository.findByWorkshop_Id(workshopId).isPresent()) {
+                throw new ArgumentNotPresentException("Workshop job already has a slot: " + workshopId);
+            }
+            logger.info("Bay {} was booked meanwhile, reloading it", slot.bay());
+            bay(slot.bay()).expire();
+        }
+        throw new IllegalStateException("Could not reserve a workshop slot after " + maxReservationAttempts + " attempts");
+    }
+
+    /**
+     * Releases the slot of a workshop job.
+     * @param workshopId - The id of the workshop job.
+     * @throws ResourceNotFoundException - If the job has no slot.
+     */
+    @Override
+    public void cancelSlot(Long workshopId) {
+        WorkshopBooking booking = bookingRepository.findByWorkshop_Id(workshopId)
+                .orElseThrow(() -> new ResourceNotFoundException("No slot booked for workshop job: " + workshopId));
+        bookingRepository.deleteByWorkshop_Id(workshopId);
+        Bay bay = bay(booking.getBay());
+        bay.lock.lock();
+        try {
+            bay.changes++;
+            bay.timeline.remove(booking.getStartsAt());
+        } finally {
+            bay.lock.unlock();
+        }
+        logger.info("Released bay {} at {} for workshop job {}", booking.getBay(), booking.getStartsAt(), workshopId);
+    }
+
+    /**
+     * @param date - The day.
+     * @return - The bookings of every bay overlapping the day, with their jobs, read in one query.
+     */
+    @Override
+    public WorkshopScheduleDto getSchedule(LocalDate date) {
+        List<WorkshopBookingDto> bookings = bookingRepository.findOverlapping(date.atStartOfDay(), date.plusDays(1).atStartOfDay())
+                .stream()
+                .map(booking -> new WorkshopBookingDto(booking.getWorkshop().getId(), booking.getWorkshop().getWorkshopEnum(),
+                        booking.getWorkshop().getWorkshopStatusEnum(), booking.getBay(), booking.getStartsAt(), booking.getEndsAt()))
+                .toList();
+        return new WorkshopScheduleDto(date, openingTime, closingTime, bays, bookings);
+    }
+
+    // The earliest slot over all bays; on a tie the lowest bay wins
+    private Slot findEarliestSlot(LocalDateTime from, Duration duration, LocalDateTime now) {
+        Slot earliest = null;
+        for (int number = 1; number <= bays; number++) {
+            Bay bay = lockedBay(number, now);
+            try {
+                LocalDateTime start = earliestStart(bay.timeline, from, duration);
+                if (start != null && (earliest == null || start.isBefore(earliest.start()))) {
+                    earliest = new Slot(number, start);
+                }
+            } finally {
+                bay.lock.unlock();
+            }
+        }
+        return earliest;
+    }
+
+    private LocalDateTime earliestStart(BayTimeline timeline, LocalDateTime from, Duration duration) {
+        for (int day = 0; day <= horizonDays; day++) {
+            LocalDate date = from.toLocalDate().plusDays(day);
+            LocalDateTime dayStart = date.atTime(openingTime);
+            LocalDateTime dayEnd = date.atTime(closingTime);
+            LocalDateTime windowStart = from.isAfter(dayStart) ? from : dayStart;
+            if (windowStart.plus(duration).isAfter(dayEnd)) {
+                continue;
+            }
+            LocalDateTime start = timeline.earliestStart(windowStart, dayEnd, duration);
+            if (start != null) {
+                return start;
+            }
+        }
+        return null;
+    }
+
+    // Returns the bay locked, with its timeline reloaded first if it expired. The reload reads the database unlocked
+    // and is dropped if this instance changed the timeline meanwhile; the bay then stays expired for the next caller.
+    private Bay lockedBay(int number, LocalDateTime now) {
+        Bay bay = bay(number);
+        bay.lock.lock();
+        if (bay.expiresAtMillis <= System.currentTimeMillis()) {
+            long changes = bay.changes;
+            bay.lock.unlock();
+            BayTimeline loaded = new BayTimeline();
+            bookingRepository.findByBayEndingAfter(number, now)
+                    .forEach(booking -> loaded.add(booking.getStartsAt(), booking.getEndsAt()));
+            bay.lock.lock();
+            if (bay.changes == changes) {
+                bay.timeline = loaded;
+                bay.expiresAtMillis = System.currentTimeMillis() + timelineTtlInMs;
+                logger.debug("Loaded {} bookings of bay {}", loaded.size(), number);
+            }
+        }
+        bay.timeline.removeEndedBy(now);
+        return bay;
+    }
+
+    private void addToTimeline(int number, LocalDateTime start, LocalDateTime end) {
+        Bay bay = bay(number);
+        bay.lock.lock();
+        try {
+            bay.changes++;
+            if (bay.timeline.isFree(start, end)) {
+                bay.timeline.add(start, end);
+            } else {
+                // The timeline holds a booking cancelled elsewhere, or already has this one; reload it on next use
+                bay.expire();
+            }
+        } finally {
+            bay.lock.unlock();
+        }
+    }
+
+    private Bay bay(int number) {
+        return timelines.computeIfAbsent(number, key -> new Bay());
+    }
+
+    private record Slot(int bay, LocalDateTime start) {
+    }
+
+    private static final class Bay {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Guarded by lock
+        private BayTimeline timeline = new BayTimeline();
+        private long changes;
+        // Written without the lock by expire()
+        private volatile long expiresAtMillis;
+
+        private void expire() {
+            expiresAtMillis = 0;
+        }
+    }
+}
@@ -1,29 +1,72 @@
 package com.cbcode.dealertasks.Workshop.service.impl;
 
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
 import com.cbcode.dealertasks.ExceptionsConfig.NotAuthorizedAccessException;
 import com.cbcode.dealertasks.ExceptionsConfig.ResourceNotFoundException;
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobQueueDto;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdateResult;
+import com.cbcode.dealertasks.Tasks.model.Enums.JobStatusUpdateOutcome;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
+import com.cbcode.dealertasks.Tasks.services.impl.OpenJobCounts;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
 import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopDto;
+import com.cbcode.dealertasks.Workshop.model.DTOs.WorkshopQueueItemDto;
 import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
 import com.cbcode.dealertasks.Workshop.model.Workshop;
 import com.cbcode.dealertasks.Workshop.repository.WorkshopRepository;
 import com.cbcode.dealertasks.Workshop.service.WorkshopService;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class WorkshopServiceImpl implements WorkshopService {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkshopServiceImpl.class);
+    private static final int MAX_BULK_UPDATE_SIZE = 500;
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+    private static final List<WorkshopStatusEnum> OPEN_STATUSES = List.of(WorkshopStatusEnum.PENDING, WorkshopStatusEnum.IN_PROGRESS);
+
+    @Value("${dealer_management_system.queue.openCountTtl:30000}")
+    private long openCountTtl;
 
     private final WorkshopRepository workshopRepository;
     private final ModelMapper modelMapper;
+    private final PreparationPlanService preparationPlanService;
+    private final ApplicationEventPublisher eventPublisher;
+    private OpenJobCounts openJobCounts;
 
-    public WorkshopServiceImpl(WorkshopRepository workshopRepository, ModelMapper modelMapper) {
+    public WorkshopServiceImpl(WorkshopRepository workshopRepository, ModelMapper modelMapper, PreparationPlanService preparationPlanService,
+                               ApplicationEventPublisher eventPublisher) {
         this.workshopRepository = workshopRepository;
         this.modelMapper = modelMapper;
+        this.preparationPlanService = preparationPlanService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        openJobCounts = new OpenJobCounts(userId -> workshopRepository.countByUserIdAndStatusIn(userId, OPEN_STATUSES), openCountTtl);
     }
 
     /**
@@ -64,6 +107,9 @@ public class WorkshopServiceImpl implements WorkshopService {
             workshop.setComments(workshop.getComments());
             workshop.setWorkshopStatusEnum(status);
             workshopRepository.save(workshop);
+            preparationPlanService.onWorkshopJobChanged(workshop);
+            openJobCounts.evict(userId(workshop));
+            publishStatusChanged(workshop);
 
             logger.info("Workshop status updated successfully");
             return modelMapper.map(workshop, WorkshopDto.class);
@@ -72,4 +118,152 @@ public class WorkshopServiceImpl implements WorkshopService {
             throw new IllegalArgumentException("Invalid workshop status: " + workshopStatus);
         }
     }
+
+    /**
+     * Updates the status of several workshop jobs with one locking SELECT and one UPDATE per distinct target status,
+     * instead of a select and a save per job. Jobs already in the requested status are left untouched.
+     * @param updates - workshop ids with their new status (PENDING, IN_PROGRESS, DONE), each id at most once
+     * @return - one result per update, in request order
+     */
+    @Override
+    @Transactional
+    public List<JobStatusUpdateResult> updateWorkshopStatuses(List<JobStatusUpdate> updates) {
+        // Check if user is authenticated
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getPrincipal() == null) {
+            logger.error("User not authenticated");
+            throw new NotAuthorizedAccessException("User not authenticated");
+        }
+        validateBulkUpdate(updates);
+
+        List<Long> ids = new ArrayList<>(updates.size());
+        for (JobStatusUpdate update : updates) {
+            if (parseStatus(update.status()) != null) {
+                ids.add(update.id());
+            }
+        }
+        // Locked, so no other transaction changes a status between this read and the updates below
+        Map<Long, Workshop> workshops = new HashMap<>();
+        if (!ids.isEmpty()) {
+            workshopRepository.findAllWithUserByIdInForUpdate(ids).forEach(workshop -> workshops.put(workshop.getId(), workshop));
+        }
+
+        Map<WorkshopStatusEnum, List<Long>> idsByStatus = new EnumMap<>(WorkshopStatusEnum.class);
+        for (JobStatusUpdate update : updates) {
+            WorkshopStatusEnum status = parseStatus(update.status());
+            Workshop workshop = workshops.get(update.id());
+            if (status != null && workshop != null && workshop.getWorkshopStatusEnum() != status) {
+                idsByStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(update.id());
+            }
+        }
+
+        Set<Long> updatedIds = new HashSet<>();
+        idsByStatus.forEach((status, statusIds) -> {
+            workshopRepository.updateStatus(statusIds, status);
+            // Detached by the update: the new status only serves the listeners and the results
+            statusIds.forEach(id -> workshops.get(id).setWorkshopStatusEnum(status));
+            updatedIds.addAll(statusIds);
+        });
+        for (Long id : updatedIds) {
+            preparationPlanService.onWorkshopJobChanged(workshops.get(id));
+            openJobCounts.evict(userId(workshops.get(id)));
+            publishStatusChanged(workshops.get(id));
+        }
+
+        List<JobStatusUpdateResult> results = new ArrayList<>(updates.size());
+        for (JobStatusUpdate update : updates) {
+            Workshop workshop = workshops.get(update.id());
+            String current = workshop != null && workshop.getWorkshopStatusEnum() != null ? workshop.getWorkshopStatusEnum().name() : null;
+            JobStatusUpdateOutcome outcome;
+            if (parseStatus(update.status()) == null) {
+                outcome = JobStatusUpdateOutcome.INVALID_STATUS;
+            } else if (updatedIds.contains(update.id())) {
+                outcome = JobStatusUpdateOutcome.UPDATED;
+            } else if (workshop != null) {
+                outcome = JobStatusUpdateOutcome.UNCHANGED;
+            } else {
+                outcome = JobStatusUpdateOutcome.NOT_FOUND;
+            }
+            results.add(new JobStatusUpdateResult(update.id(), outcome, current));
+        }
+        logger.info("User '{}' bulk updated workshop statuses: {} requested, {} updated",
+                authentication.getPrincipal().toString(), updates.size(), updatedIds.size());
+        return results;
+    }
+
+    /**
+     * The open (PENDING or IN_PROGRESS) workshop jobs of the authenticated user, oldest first.
+     * Read in two phases: the ids of the page by an index-only scan of (user_id, status, id), then those jobs with the
+     * registration of their car by primary key.
+     * @param page - The page number, from 0.
+     * @param size - The page size, at most 100.
+     * @return - The page of jobs, with the count of all the user's open jobs.
+     */
+    @Override
+    public JobQueueDto<WorkshopQueueItemDto> getMyQueue(int page, int size) {
+        Long userId = getAuthenticatedUserId();
+        if (page < 0 || size < 1 || size > MAX_QUEUE_PAGE_SIZE) {
+            throw new ArgumentNotPresentException("Page must be 0 or more and size between 1 and " + MAX_QUEUE_PAGE_SIZE);
+        }
+        Slice<Long> ids = workshopRepository.findQueueIdsByUserId(userId, OPEN_STATUSES, PageRequest.of(page, size));
+        List<WorkshopQueueItemDto> queue = ids.isEmpty() ? List.of() : workshopRepository.findQueueItemsByIdIn(ids.getContent());
+        return new JobQueueDto<>(queue, page, size, ids.hasNext(), openJobCounts.get(userId));
+    }
+
+    /**
+     * @return - The number of open workshop jobs of the authenticated user, served from memory between changes.
+     */
+    @Override
+    public long countMyOpenJobs() {
+        return openJobCounts.get(getAuthenticatedUserId());
+    }
+
+    private static Long getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthUser authUser)) {
+            logger.error("User not authenticated");
+            throw new NotAuthorizedAccessException("User not authenticated");
+        }
+        return authUser.getId();
+    }
+
+    // Delivered to the status board after commit
+    private void publishStatusChanged(Workshop workshop) {
+        eventPublisher.publishEvent(new JobStatusChangedEvent(PreparationJobKind.WORKSHOP, workshop.getId(),
+                workshop.getWorkshopEnum() != null ? workshop.getWorkshopEnum().name() : null, workshop.getWorkshopStatusEnum().name(), userId(workshop),
+                Instant.now()));
+    }
+
+    private static Long userId(Workshop workshop) {
+        return workshop != null && workshop.getUser() != null ? workshop.getUser().getId() : null;
+    }
+
+    private static void validateBulkUpdate(List<JobStatusUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new ArgumentNotPresentException("No workshop status updates given");
+        }
+        if (updates.size() > MAX_BULK_UPDATE_SIZE) {
+            throw new ArgumentNotPresentException("At most " + MAX_BULK_UPDATE_SIZE + " workshop status updates per request");
+        }
+        Set<Long> seen = new HashSet<>();
+        for (JobStatusUpdate update : updates) {
+            if (update == null || update.id() == null) {
+                throw new ArgumentNotPresentException("Workshop id is required for every status update");
+            }
+            if (!seen.add(update.id())) {
+                throw new ArgumentNotPresentException("Duplicate workshop id in status updates: " + update.id());
+            }
+        }
+    }
+
+    private static WorkshopStatusEnum parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return WorkshopStatusEnum.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.cbcode.dealertasks.AuditTests;
+
+import com.cbcode.dealertasks.Audit.service.impl.MpscRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingTest {
+
+    @Test
+    void drainsInOfferOrderUpToMax() {
+        MpscRing<String> ring = new MpscRing<>(8);
+        ring.offer("a");
+        ring.offer("b");
+        ring.offer("c");
+
+        List<String> items = new ArrayList<>();
+        assertEquals(2, ring.drainTo(items, 2));
+        assertEquals(List.of("a", "b"), items);
+        assertEquals(1, ring.size());
+        assertEquals(1, ring.drainTo(items, 10));
+        assertEquals(List.of("a", "b", "c"), items);
+        assertEquals(0, ring.drainTo(items, 10));
+    }
+
+    @Test
+    void offerFailsWhenFullUntilDrained() {
+        MpscRing<Integer> ring = new MpscRing<>(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        ring.drainTo(new ArrayList<>(), 1);
+        assertTrue(ring.offer(4));
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRing<Integer> ring = new MpscRing<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!ring.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            Set<Integer> seen = new HashSet<>();
+            List<Integer> batch = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+                batch.clear();
+                if (ring.drainTo(batch, 256) == 0) {
+                    Thread.yield();
+                }
+                for (Integer item : batch) {
+                    assertTrue(seen.add(item), "drained twice: " + item);
+                }
+            }
+            assertEquals(producers * perProducer, seen.size());
+        }
+    }
+}
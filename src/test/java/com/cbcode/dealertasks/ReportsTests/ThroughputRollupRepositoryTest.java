@@ -0,0 +1,128 @@
+package com.cbcode.dealertasks.ReportsTests;
+
+import com.cbcode.dealertasks.Reports.repository.ThroughputRollupRepository;
+import com.cbcode.dealertasks.Reports.repository.ThroughputRollupRepository.RollupTotal;
+import com.cbcode.dealertasks.Reports.service.impl.ThroughputServiceImpl;
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ThroughputRollupRepository.class)
+class ThroughputRollupRepositoryTest {
+
+    private static final String INSTANCE_ID = "node-1";
+
+    @Autowired
+    private ThroughputRollupRepository rollupRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ThroughputServiceImpl throughputService;
+    private LocalDateTime currentHour;
+
+    @BeforeEach
+    void setUp() {
+        throughputService = throughputService();
+        currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Test
+    void repeatedFlushAddsOnlyNewCompletions() {
+        completeJob(throughputService, currentHour);
+        completeJob(throughputService, currentHour);
+        throughputService.flush();
+        throughputService.flush();
+        assertEquals(List.of(2L), completed(currentHour));
+
+        completeJob(throughputService, currentHour);
+        throughputService.flush();
+        assertEquals(List.of(3L), completed(currentHour));
+    }
+
+    @Test
+    void lateCompletionIsAddedToHourDroppedFromMemory() {
+        LocalDateTime pastHour = currentHour.minusHours(5);
+        completeJob(throughputService, pastHour);
+        throughputService.flush();
+
+        // The hour is no longer in memory, so this one starts a new count
+        completeJob(throughputService, pastHour);
+        throughputService.flush();
+        assertEquals(List.of(2L), completed(pastHour));
+    }
+
+    @Test
+    void restartedInstanceAddsToItsOwnRows() {
+        completeJob(throughputService, currentHour);
+        throughputService.flush();
+
+        ThroughputServiceImpl restarted = throughputService();
+        completeJob(restarted, currentHour);
+        restarted.flush();
+        assertEquals(List.of(2L), completed(currentHour));
+    }
+
+    @Test
+    void flushRetriedAfterLostAcknowledgementIsNotCountedTwice() {
+        ThroughputServiceImpl service = throughputService(new ThroughputRollupRepository(jdbcTemplate) {
+            private boolean acknowledged;
+
+            @Override
+            public boolean addCompleted(String instanceId, long flushSequence, List<RollupTotal> deltas) {
+                boolean applied = super.addCompleted(instanceId, flushSequence, deltas);
+                if (!acknowledged) {
+                    acknowledged = true;
+                    throw new QueryTimeoutException("Connection reset before the commit was acknowledged");
+                }
+                return applied;
+            }
+        });
+        completeJob(service, currentHour);
+        completeJob(service, currentHour);
+        service.flush();
+        assertEquals(List.of(2L), completed(currentHour));
+
+        completeJob(service, currentHour);
+        service.flush();
+        assertEquals(List.of(2L), completed(currentHour));
+        service.flush();
+        assertEquals(List.of(3L), completed(currentHour));
+    }
+
+    private ThroughputServiceImpl throughputService() {
+        return throughputService(rollupRepository);
+    }
+
+    private static ThroughputServiceImpl throughputService(ThroughputRollupRepository rollupRepository) {
+        ThroughputServiceImpl service = new ThroughputServiceImpl(rollupRepository);
+        ReflectionTestUtils.setField(service, "configuredInstanceId", INSTANCE_ID);
+        service.init();
+        return service;
+    }
+
+    private static void completeJob(ThroughputServiceImpl service, LocalDateTime hour) {
+        service.onJobStatusChanged(new JobStatusChangedEvent(PreparationJobKind.VALET, 1L, "FULL_VALET", "DONE", 7L,
+                hour.plusMinutes(10).atZone(ZoneId.systemDefault()).toInstant()));
+    }
+
+    private List<Long> completed(LocalDateTime hour) {
+        return jdbcTemplate.queryForList("SELECT completed FROM throughput_rollups WHERE bucket_start = ? AND instance_id = ?",
+                Long.class, Timestamp.valueOf(hour), INSTANCE_ID);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cbcode.dealertasks.StatusBoardTests;
+
+import com.cbcode.dealertasks.StatusBoard.service.impl.FanOutRing;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutRingTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new FanOutRing<String>(5).capacity());
+        assertEquals(1024, new FanOutRing<String>(1024).capacity());
+    }
+
+    @Test
+    void readersAtTheirOwnPaceSeeEveryItemWithinTheRing() {
+        FanOutRing<String> ring = new FanOutRing<>(4);
+        assertEquals(0, ring.publish("a"));
+        assertEquals(1, ring.publish("b"));
+        assertEquals(2, ring.head());
+
+        assertEquals("a", ring.get(0));
+        assertEquals("b", ring.get(1));
+    }
+
+    @Test
+    void lappedReaderGetsNull() {
+        FanOutRing<String> ring = new FanOutRing<>(4);
+        for (int i = 0; i < 6; i++) {
+            ring.publish("item-" + i);
+        }
+
+        assertNull(ring.get(1));
+        assertNull(ring.get(2));
+        assertEquals("item-3", ring.get(3));
+        assertEquals("item-5", ring.get(5));
+    }
+}
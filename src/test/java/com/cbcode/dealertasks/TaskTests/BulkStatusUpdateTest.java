@@ -0,0 +1,180 @@
+package com.cbcode.dealertasks.TaskTests;
+
+import com.cbcode.dealertasks.StatusBoard.model.JobStatusChangedEvent;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdate;
+import com.cbcode.dealertasks.Tasks.model.DTOs.JobStatusUpdateResult;
+import com.cbcode.dealertasks.Tasks.model.Enums.JobStatusUpdateOutcome;
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import com.cbcode.dealertasks.Tasks.services.PreparationPlanService;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetEnum;
+import com.cbcode.dealertasks.Valet.model.Enums.ValetStatus;
+import com.cbcode.dealertasks.Valet.model.Valet;
+import com.cbcode.dealertasks.Valet.repository.ValetRepository;
+import com.cbcode.dealertasks.Valet.service.impl.ValetServiceImpl;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopRepository;
+import com.cbcode.dealertasks.Workshop.service.impl.WorkshopServiceImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Bulk status updates of valet and workshop jobs, which share the same contract.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BulkStatusUpdateTest {
+
+    @Autowired
+    private ValetRepository valetRepository;
+    @Autowired
+    private WorkshopRepository workshopRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("admin@example.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @EnumSource(PreparationJobKind.class)
+    void updatesBatchWithOneStatementPerTargetStatus(PreparationJobKind kind) {
+        Jobs jobs = kind == PreparationJobKind.VALET ? valetJobs() : workshopJobs();
+        Long[] ids = new Long[5];
+        String[] statuses = {"PENDING", "PENDING", "PENDING", "DONE", "PENDING"};
+        for (int i = 0; i < ids.length; i++) {
+            // One technician per job, so loading their users one by one would show in the statement count
+            User technician = userRepository.save(new User("Technician", "No" + i, "technician" + i + "@example.com",
+                    "password-hash", true));
+            ids[i] = jobs.save("Job " + i, statuses[i], technician);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<JobStatusUpdateResult> results = jobs.update(List.of(
+                new JobStatusUpdate(ids[0], "DONE"),
+                new JobStatusUpdate(ids[1], "DONE"),
+                new JobStatusUpdate(ids[2], "IN_PROGRESS"),
+                new JobStatusUpdate(ids[3], "DONE"),
+                new JobStatusUpdate(-1L, "DONE"),
+                new JobStatusUpdate(ids[4], "FINISHED")));
+
+        // The locking select of the jobs with their users, then one UPDATE for DONE and one for IN_PROGRESS
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(List.of(
+                new JobStatusUpdateResult(ids[0], JobStatusUpdateOutcome.UPDATED, "DONE"),
+                new JobStatusUpdateResult(ids[1], JobStatusUpdateOutcome.UPDATED, "DONE"),
+                new JobStatusUpdateResult(ids[2], JobStatusUpdateOutcome.UPDATED, "IN_PROGRESS"),
+                new JobStatusUpdateResult(ids[3], JobStatusUpdateOutcome.UNCHANGED, "DONE"),
+                new JobStatusUpdateResult(-1L, JobStatusUpdateOutcome.NOT_FOUND, null),
+                new JobStatusUpdateResult(ids[4], JobStatusUpdateOutcome.INVALID_STATUS, null)), results);
+        verify(eventPublisher, times(3)).publishEvent(any(JobStatusChangedEvent.class));
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(List.of("DONE", "DONE", "IN_PROGRESS", "DONE", "PENDING"), jobs.statuses(List.of(ids)));
+    }
+
+    // The valet or workshop side of the test: creating a job, the bulk update, and reading the statuses back
+    private interface Jobs {
+
+        Long save(String comments, String status, User technician);
+
+        List<JobStatusUpdateResult> update(List<JobStatusUpdate> updates);
+
+        List<String> statuses(List<Long> ids);
+    }
+
+    private Jobs valetJobs() {
+        ValetServiceImpl valetService = new ValetServiceImpl(valetRepository, new ModelMapper(),
+                mock(PreparationPlanService.class), eventPublisher);
+        ReflectionTestUtils.setField(valetService, "openCountTtl", 30_000L);
+        valetService.init();
+        return new Jobs() {
+            @Override
+            public Long save(String comments, String status, User technician) {
+                Valet valet = new Valet(comments, ValetStatus.valueOf(status), ValetEnum.FULL_VALET);
+                valet.setUser(technician);
+                return valetRepository.save(valet).getId();
+            }
+
+            @Override
+            public List<JobStatusUpdateResult> update(List<JobStatusUpdate> updates) {
+                return valetService.updateValetStatuses(updates);
+            }
+
+            @Override
+            public List<String> statuses(List<Long> ids) {
+                return valetRepository.findAllById(ids).stream()
+                        .sorted(Comparator.comparing(Valet::getId))
+                        .map(valet -> valet.getStatus().name())
+                        .toList();
+            }
+        };
+    }
+
+    private Jobs workshopJobs() {
+        WorkshopServiceImpl workshopService = new WorkshopServiceImpl(workshopRepository, new ModelMapper(),
+                mock(PreparationPlanService.class), eventPublisher);
+        ReflectionTestUtils.setField(workshopService, "openCountTtl", 30_000L);
+        workshopService.init();
+        return new Jobs() {
+            @Override
+            public Long save(String comments, String status, User technician) {
+                Workshop workshop = new Workshop(comments, WorkshopStatusEnum.valueOf(status), WorkshopEnum.SERVICE);
+                workshop.setUser(technician);
+                return workshopRepository.save(workshop).getId();
+            }
+
+            @Override
+            public List<JobStatusUpdateResult> update(List<JobStatusUpdate> updates) {
+                return workshopService.updateWorkshopStatuses(updates);
+            }
+
+            @Override
+            public List<String> statuses(List<Long> ids) {
+                return workshopRepository.findAllById(ids).stream()
+                        .sorted(Comparator.comparing(Workshop::getId))
+                        .map(workshop -> workshop.getWorkshopStatusEnum().name())
+                        .toList();
+            }
+        };
+    }
+}
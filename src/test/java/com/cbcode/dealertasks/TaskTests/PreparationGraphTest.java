@@ -0,0 +1,66 @@
+package com.cbcode.dealertasks.TaskTests;
+
+import com.cbcode.dealertasks.Tasks.model.Enums.PreparationJobKind;
+import com.cbcode.dealertasks.Tasks.services.impl.PreparationGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparationGraphTest {
+
+    private PreparationGraph graph;
+    private int mot;
+    private int repair;
+    private int valet;
+
+    @BeforeEach
+    void setUp() {
+        graph = new PreparationGraph();
+        mot = graph.addJob(PreparationJobKind.WORKSHOP, 1L, "MOT", 60, false);
+        repair = graph.addJob(PreparationJobKind.WORKSHOP, 2L, "REPAIR", 180, false);
+        valet = graph.addJob(PreparationJobKind.VALET, 1L, "FULL_VALET", 120, false);
+        graph.addDependency(mot, valet);
+        graph.addDependency(repair, valet);
+    }
+
+    @Test
+    void criticalPathFollowsLongestPrerequisite() {
+        assertEquals(300, graph.remainingMinutes());
+        assertEquals(List.of(repair, valet), graph.criticalPath());
+        assertEquals(List.of(mot, repair), graph.readyToStart());
+    }
+
+    @Test
+    void completingJobUpdatesDescendantsIncrementally() {
+        graph.updateJob(repair, 180, true);
+
+        assertEquals(180, graph.remainingMinutes());
+        assertEquals(List.of(mot, valet), graph.criticalPath());
+        assertEquals(List.of(mot), graph.readyToStart());
+
+        graph.updateJob(mot, 60, true);
+        assertEquals(List.of(valet), graph.readyToStart());
+        assertEquals(120, graph.earliestFinish(valet));
+    }
+
+    @Test
+    void rejectsCycles() {
+        assertThrows(IllegalArgumentException.class, () -> graph.addDependency(valet, mot));
+        assertFalse(graph.addDependency(mot, valet));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        PreparationGraph copy = graph.copy();
+        int polish = copy.addJob(PreparationJobKind.VALET, 2L, "POLISH", 60, false);
+        copy.addDependency(valet, polish);
+
+        assertEquals(360, copy.remainingMinutes());
+        assertEquals(300, graph.remainingMinutes());
+        assertEquals(3, graph.size());
+        assertEquals(-1, graph.indexOf(PreparationJobKind.VALET, 2L));
+    }
+}
@@ -0,0 +1,123 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.Audit.service.AuditService;
+import com.cbcode.dealertasks.GlobalConfig.ModelMapperConfig;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.RoleRepository;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
+import com.cbcode.dealertasks.Users.service.impl.AdminUserServiceImpl;
+import com.cbcode.dealertasks.Users.service.impl.RoleRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.AdditionalAnswers;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ModelMapperConfig.class)
+class AdminUserListingTest {
+
+    private static final int USERS = 30;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private ModelMapper modelMapper;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AdminUserServiceImpl adminUserService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.loadRoles();
+        Role sales = roleRegistry.get(EnumRole.ROLE_SALES);
+        Role workshop = roleRegistry.get(EnumRole.ROLE_WORKSHOP);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("First" + i, "Last" + i, "user" + i + "@example.com", "password-" + i, true);
+            user.setRoles(i % 2 == 0 ? Set.of(sales) : Set.of(sales, workshop));
+            userRepository.save(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        adminUserService = new AdminUserServiceImpl(userRepository, roleRegistry, mock(PasswordEncoder.class), modelMapper,
+                mock(SecurityVersionService.class), mock(SecurityUserService.class), mock(AuditService.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 10, 25})
+    void pageCostsThreeStatementsWhateverItsSize(int size) {
+        Page<UserDto> page = adminUserService.getAllUsers(PageRequest.of(0, size, Sort.by("id")));
+
+        assertEquals(size, page.getNumberOfElements());
+        assertEquals(USERS, page.getTotalElements());
+        assertTrue(page.getContent().stream().allMatch(user -> !user.getRoles().isEmpty()));
+        // ids, count, users with roles
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageKeepsTheRequestedOrder() {
+        Page<UserDto> page = adminUserService.getAllUsers(PageRequest.of(1, 10, Sort.by("email").descending()));
+
+        List<String> emails = page.getContent().stream().map(UserDto::getEmail).toList();
+        assertEquals(emails.stream().sorted(Comparator.reverseOrder()).toList(), emails);
+        assertEquals(10, emails.size());
+    }
+
+    @Test
+    void userDeletedBetweenTheTwoQueriesIsLeftOut() {
+        // The first user of the page is gone by the time the second query runs
+        UserRepository racingRepository = mock(UserRepository.class, AdditionalAnswers.delegatesTo(userRepository));
+        doAnswer(invocation -> {
+            List<Long> ids = List.copyOf(invocation.<Collection<Long>>getArgument(0));
+            return userRepository.findAllWithRolesByIdIn(ids.subList(1, ids.size()));
+        }).when(racingRepository).findAllWithRolesByIdIn(any());
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.loadRoles();
+        AdminUserServiceImpl racingService = new AdminUserServiceImpl(racingRepository, roleRegistry, mock(PasswordEncoder.class),
+                modelMapper, mock(SecurityVersionService.class), mock(SecurityUserService.class), mock(AuditService.class));
+
+        Page<UserDto> page = racingService.getAllUsers(PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(9, page.getNumberOfElements());
+        assertEquals(USERS, page.getTotalElements());
+        assertEquals("user1@example.com", page.getContent().getFirst().getEmail());
+    }
+}
@@ -0,0 +1,130 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.SecurityVersionService;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
+import com.cbcode.dealertasks.Users.security.impl.JwtServiceImpl;
+import com.cbcode.dealertasks.Users.security.impl.SecurityConfig;
+import com.cbcode.dealertasks.Valet.controller.ValetController;
+import com.cbcode.dealertasks.Valet.service.ValetService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The security filter chain with real signed tokens, against the valet endpoints.
+ */
+@WebMvcTest(controllers = ValetController.class, properties = {
+        "dealer_management_system.security.jwt.secret=api-security-test-secret-of-at-least-32-bytes",
+        "dealer_management_system.security.jwt.expiration=60000",
+        "dealer_management_system.security.jwt.refreshExpiration=3600000"})
+@Import({SecurityConfig.class, JwtServiceImpl.class, ApiSecurityTest.SecurityBeans.class})
+class ApiSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private ValetService valetService;
+    @MockitoBean
+    private SecurityVersionService securityVersionService;
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        when(securityVersionService.isCurrent(any(), anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void refreshTokenIsRejectedAsBearerTokenAfterLogout() throws Exception {
+        AuthUser admin = user(EnumRole.ROLE_ADMIN);
+        String accessToken = jwtService.generateJwtToken(admin);
+        String refreshToken = jwtService.generateRefreshToken(Map.of(Claims.ID, "refresh-jti", "fam", "family-1"), admin);
+        countOpenJobs(accessToken).andExpect(status().isOk());
+        countOpenJobs(refreshToken).andExpect(status().isUnauthorized());
+
+        // Logout revokes the access token; the refresh token's family is revoked in the refresh token store only
+        String accessJti = jwtService.verifyToken(accessToken).getId();
+        when(tokenRevocationService.isRevoked(argThat(claims -> claims != null && accessJti.equals(claims.getId())))).thenReturn(true);
+
+        countOpenJobs(accessToken).andExpect(status().isUnauthorized());
+        countOpenJobs(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void valeterReachesTheirQueue() throws Exception {
+        String valeterToken = jwtService.generateJwtToken(user(EnumRole.ROLE_VALETER));
+        mockMvc.perform(get("/valet/my-queue").header("Authorization", "Bearer " + valeterToken))
+                .andExpect(status().isOk());
+        countOpenJobs(valeterToken).andExpect(status().isOk());
+
+        String salesToken = jwtService.generateJwtToken(user(EnumRole.ROLE_SALES));
+        mockMvc.perform(get("/valet/my-queue").header("Authorization", "Bearer " + salesToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private ResultActions countOpenJobs(String token) throws Exception {
+        return mockMvc.perform(get("/valet/my-queue/count").header("Authorization", "Bearer " + token));
+    }
+
+    private static AuthUser user(EnumRole role) {
+        User user = new User("Api", "Tester", "api.tester@dealer.test", "password-hash", true);
+        user.setId(1L);
+        user.setRoles(Set.of(new Role(role)));
+        return new AuthUser(user);
+    }
+
+    @TestConfiguration
+    static class SecurityBeans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        SecurityUserService securityUserService() {
+            SecurityUserService securityUserService = mock(SecurityUserService.class);
+            when(securityUserService.userDetailsService()).thenReturn(username -> {
+                throw new UsernameNotFoundException(username);
+            });
+            return securityUserService;
+        }
+
+        @Bean
+        UserDetailsPasswordService userDetailsPasswordService() {
+            return mock(UserDetailsPasswordService.class);
+        }
+    }
+}
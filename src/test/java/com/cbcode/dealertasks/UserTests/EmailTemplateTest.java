@@ -0,0 +1,37 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.Users.service.templates.EmailTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void rendersVariablesBetweenLiterals() {
+        EmailTemplate template = EmailTemplate.compile("Hello {{name}}, job {{ jobId }} is done.", false);
+
+        assertEquals(List.of("name", "jobId"), template.variables());
+        assertEquals("Hello Sam, job 42 is done.", template.render(Map.of("name", "Sam", "jobId", 42)));
+    }
+
+    @Test
+    void escapesVariablesOfHtmlTemplatesOnly() {
+        Map<String, String> values = Map.of("link", "https://dealer.test/?a=1&b=\"<x>\"");
+
+        assertEquals("<a href=\"https://dealer.test/?a=1&amp;b=&quot;&lt;x&gt;&quot;\">",
+                EmailTemplate.compile("<a href=\"{{link}}\">", true).render(values));
+        assertEquals("https://dealer.test/?a=1&b=\"<x>\"", EmailTemplate.compile("{{link}}", false).render(values));
+    }
+
+    @Test
+    void rejectsMalformedTemplatesAndMissingValues() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("Hello {{name", false));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("Hello {{first name}}", false));
+        EmailTemplate template = EmailTemplate.compile("Hello {{name}}", false);
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+}
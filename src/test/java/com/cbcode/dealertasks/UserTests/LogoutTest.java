@@ -0,0 +1,105 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.ExceptionsConfig.InvalidTokenException;
+import com.cbcode.dealertasks.Users.model.Enums.RefreshTokenStatus;
+import com.cbcode.dealertasks.Users.model.RefreshToken;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.RefreshTokenRepository;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.JwtService;
+import com.cbcode.dealertasks.Users.security.PasswordResetTokenService;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.security.TokenRevocationService;
+import com.cbcode.dealertasks.Users.security.DTOs.Request.RefreshTokenRequest;
+import com.cbcode.dealertasks.Users.security.impl.AuthServiceImpl;
+import com.cbcode.dealertasks.Users.security.impl.AuthUser;
+import com.cbcode.dealertasks.Users.security.impl.RefreshTokenServiceImpl;
+import com.cbcode.dealertasks.Users.service.EmailService;
+import com.cbcode.dealertasks.Users.service.impl.RoleRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class LogoutTest {
+
+    private static final String REFRESH_TOKEN = "refresh-token";
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private JwtService jwtService;
+    private AuthServiceImpl authService;
+    private Claims refreshClaims;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        User user = userRepository.save(new User("Joanna", "Smith", "joanna.smith@example.com", "password-hash", true));
+        jwtService = mock(JwtService.class);
+        when(jwtService.generateRefreshToken(any(), any())).thenReturn(REFRESH_TOKEN);
+        when(jwtService.generateJwtToken(any())).thenReturn("access-token");
+        when(jwtService.isTokenValid(any(), any())).thenReturn(true);
+
+        RefreshTokenServiceImpl refreshTokenService = refreshTokenService();
+        authService = new AuthServiceImpl(userRepository, mock(PasswordEncoder.class), jwtService, mock(EmailService.class),
+                mock(AuthenticationManager.class), mock(RoleRegistry.class), new ModelMapper(), mock(SecurityUserService.class),
+                mock(TokenRevocationService.class), refreshTokenService, mock(PasswordResetTokenService.class));
+
+        refreshTokenService.issue(new AuthUser(user));
+        ArgumentCaptor<Map<String, Object>> claims = ArgumentCaptor.forClass(Map.class);
+        verify(jwtService).generateRefreshToken(claims.capture(), any());
+        refreshClaims = Jwts.claims().add(claims.getValue()).subject(user.getEmail()).build();
+        when(jwtService.verifyToken(REFRESH_TOKEN)).thenReturn(refreshClaims);
+    }
+
+    @Test
+    void refreshAfterLogoutIsRejected() {
+        authService.logoutUser(null, REFRESH_TOKEN);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refreshToken(new RefreshTokenRequest(REFRESH_TOKEN)));
+        // The revocation is a bulk update, which bypasses the tokens already loaded
+        entityManager.clear();
+        List<RefreshToken> tokens = refreshTokenRepository.findAll();
+        assertEquals(1, tokens.size());
+        assertEquals(RefreshTokenStatus.REVOKED, tokens.getFirst().getStatus());
+    }
+
+    @Test
+    void logoutIsVisibleToOtherNodes() {
+        authService.logoutUser(null, REFRESH_TOKEN);
+
+        // A node that never saw the logout has nothing in memory and relies on the table alone
+        RefreshTokenServiceImpl otherNode = refreshTokenService();
+        User user = userRepository.findByEmail(refreshClaims.getSubject()).orElseThrow();
+        assertThrows(InvalidTokenException.class, () -> otherNode.rotate(refreshClaims, new AuthUser(user)));
+    }
+
+    private RefreshTokenServiceImpl refreshTokenService() {
+        RefreshTokenServiceImpl refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, jwtService);
+        ReflectionTestUtils.setField(refreshTokenService, "jwtRefreshExpirationInMs", 3_600_000L);
+        ReflectionTestUtils.setField(refreshTokenService, "maxSessions", 5);
+        ReflectionTestUtils.setField(refreshTokenService, "frontSize", 1_000);
+        return refreshTokenService;
+    }
+}
@@ -0,0 +1,71 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.GlobalConfig.PooledJavaMailSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJavaMailSenderTest {
+
+    private FakeSmtpServer smtpServer;
+    private PooledJavaMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new FakeSmtpServer();
+        meterRegistry = new SimpleMeterRegistry();
+        mailSender = new PooledJavaMailSender(1, 60_000, 5_000, meterRegistry);
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailSender.destroy();
+        smtpServer.close();
+    }
+
+    @Test
+    void sendsBatchesOverOnePooledConnection() {
+        mailSender.send(messages(5));
+        mailSender.send(messages(3));
+        mailSender.send(messages(1)[0]);
+
+        assertEquals(9, smtpServer.getMessageCount());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(9, meterRegistry.get("mail.smtp.messages").tag("result", "sent").counter().count());
+        assertTrue(smtpServer.getMessages().get(0).contains("Subject: Message 0"));
+    }
+
+    @Test
+    void reconnectsAfterIdleConnectionExpires() {
+        PooledJavaMailSender shortIdleSender = new PooledJavaMailSender(1, 0, 5_000, meterRegistry);
+        shortIdleSender.setHost("localhost");
+        shortIdleSender.setPort(smtpServer.getPort());
+
+        shortIdleSender.send(messages(2));
+        shortIdleSender.send(messages(2));
+        shortIdleSender.destroy();
+
+        assertEquals(4, smtpServer.getMessageCount());
+        assertEquals(2, smtpServer.getConnectionCount());
+    }
+
+    private static SimpleMailMessage[] messages(int count) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[count];
+        for (int i = 0; i < count; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("noreply@dealer.test");
+            message.setTo("user" + i + "@dealer.test");
+            message.setSubject("Message " + i);
+            message.setText("Body " + i);
+            messages[i] = message;
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,64 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.ExceptionsConfig.RoleNotFoundException;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.Role;
+import com.cbcode.dealertasks.Users.repository.RoleRepository;
+import com.cbcode.dealertasks.Users.service.impl.RoleRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RoleRegistryTest {
+
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private RoleRegistry roleRegistry;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.loadRoles();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void seedsEveryRoleOnce() {
+        RoleRegistry restarted = new RoleRegistry(roleRepository);
+        restarted.loadRoles();
+
+        assertEquals(EnumRole.values().length, roleRepository.count());
+        for (EnumRole name : EnumRole.values()) {
+            assertEquals(roleRegistry.get(name).getId(), restarted.get(name).getId());
+        }
+    }
+
+    @Test
+    void lookupsRunNoQueries() {
+        Set<Role> roles = roleRegistry.resolve(Set.of("ROLE_ADMIN", "ROLE_SALES"));
+
+        assertEquals(Set.of(EnumRole.ROLE_ADMIN, EnumRole.ROLE_SALES), roles.stream().map(Role::getName).collect(Collectors.toSet()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unknownRoleIsNotFound() {
+        assertThrows(RoleNotFoundException.class, () -> roleRegistry.resolve("ROLE_OWNER"));
+        assertThrows(RoleNotFoundException.class, () -> roleRegistry.get(null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.Users.model.DTOs.UserSecurityVersion;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.UserCacheEvictionChannel;
+import com.cbcode.dealertasks.Users.security.impl.LocalUserCacheEvictionChannel;
+import com.cbcode.dealertasks.Users.security.impl.SecurityVersionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two nodes sharing one eviction channel, as a broker backed channel would connect them.
+ */
+class SecurityVersionServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String EMAIL = "jo@example.com";
+
+    private UserRepository userRepository;
+    private UserCacheEvictionChannel channel;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        channel = new LocalUserCacheEvictionChannel();
+        user = new User("Jo", "Smith", EMAIL, "password-hash", true);
+        user.setId(USER_ID);
+        when(userRepository.findSecurityVersionById(USER_ID))
+                .thenAnswer(invocation -> Optional.of(new UserSecurityVersion(USER_ID, EMAIL, user.getSecurityVersion())));
+    }
+
+    @Test
+    void bumpOnOneNodeRevokesTokensOnTheOther() {
+        SecurityVersionServiceImpl nodeA = node(60_000);
+        SecurityVersionServiceImpl nodeB = node(60_000);
+        assertTrue(nodeB.isCurrent(USER_ID, 0));
+
+        nodeA.bump(user);
+        channel.publish(EMAIL);
+
+        assertFalse(nodeA.isCurrent(USER_ID, 0));
+        assertFalse(nodeB.isCurrent(USER_ID, 0));
+        assertTrue(nodeB.isCurrent(USER_ID, 1));
+    }
+
+    @Test
+    void expiredVersionIsReadAgainWithoutEviction() throws InterruptedException {
+        SecurityVersionServiceImpl nodeA = node(60_000);
+        SecurityVersionServiceImpl nodeB = node(10);
+        assertTrue(nodeB.isCurrent(USER_ID, 0));
+
+        nodeA.bump(user);
+        Thread.sleep(20);
+
+        assertFalse(nodeB.isCurrent(USER_ID, 0));
+        verify(userRepository, times(2)).findSecurityVersionById(USER_ID);
+    }
+
+    private SecurityVersionServiceImpl node(long ttlInMs) {
+        SecurityVersionServiceImpl node = new SecurityVersionServiceImpl(userRepository, channel);
+        ReflectionTestUtils.setField(node, "versionCacheTtlInMs", ttlInMs);
+        node.subscribeToEvictions();
+        return node;
+    }
+}
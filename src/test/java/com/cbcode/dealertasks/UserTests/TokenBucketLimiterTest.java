@@ -0,0 +1,64 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.Users.security.impl.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long REFILL = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void rejectsOnceBucketIsEmptyAndRefillsOverTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, REFILL, 100);
+        long now = 0;
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertEquals(0, limiter.tryAcquire("user@dealer.test", now));
+        }
+        assertEquals(REFILL, limiter.tryAcquire("user@dealer.test", now));
+        assertEquals(0, limiter.tryAcquire("other@dealer.test", now));
+
+        assertEquals(0, limiter.tryAcquire("user@dealer.test", now + REFILL));
+        assertTrue(limiter.tryAcquire("user@dealer.test", now + REFILL) > 0);
+    }
+
+    @Test
+    void evictsOnlyRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, REFILL, 100);
+        limiter.tryAcquire("idle", 0);
+        limiter.tryAcquire("busy", 0);
+        limiter.tryAcquire("busy", 0);
+
+        assertEquals(1, limiter.evictIdle(REFILL));
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void newKeysAreNotThrottledWhenFull() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, REFILL, 2);
+        assertEquals(0, limiter.tryAcquire("first", 0));
+        assertEquals(0, limiter.tryAcquire("second", 0));
+
+        assertEquals(0, limiter.tryAcquire("third", 0));
+        assertEquals(0, limiter.tryAcquire("fourth", 0));
+        assertTrue(limiter.size() <= 2);
+    }
+
+    @Test
+    void floodOfNewKeysKeepsThrottledKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, REFILL, 10);
+        for (int attempt = 0; attempt < 3; attempt++) {
+            limiter.tryAcquire("victim@dealer.test", 0);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire("random" + i + "@dealer.test", 0));
+        }
+        assertTrue(limiter.tryAcquire("victim@dealer.test", 0) > 0);
+        assertTrue(limiter.size() <= 10);
+    }
+}
@@ -0,0 +1,96 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryDto;
+import com.cbcode.dealertasks.Users.model.DTOs.UserDirectoryEntryDto;
+import com.cbcode.dealertasks.Users.model.Enums.EnumRole;
+import com.cbcode.dealertasks.Users.model.User;
+import com.cbcode.dealertasks.Users.repository.RoleRepository;
+import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
+import com.cbcode.dealertasks.Users.service.impl.RoleRegistry;
+import com.cbcode.dealertasks.Users.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+class UserDirectorySearchTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.loadRoles();
+        save("Joanna", "Smith", "joanna.smith@example.com", true, roleRegistry, EnumRole.ROLE_SALES);
+        save("John", "Smithson", "john.s@example.com", true, roleRegistry, EnumRole.ROLE_WORKSHOP);
+        save("Mary", "Jones", "mary_jones@example.com", false, roleRegistry, EnumRole.ROLE_WORKSHOP);
+        save("Ann", "Major", "ann.major@example.com", true, roleRegistry, EnumRole.ROLE_VALETER);
+        userService = new UserServiceImpl(userRepository, mock(PasswordEncoder.class), new ModelMapper(), mock(SecurityUserService.class));
+    }
+
+    @Test
+    void shortTermsMatchPrefixes() {
+        assertEquals(List.of("Mary", "Joanna", "John"), firstNames(userService.searchDirectory("Jo", null, null, 0, 10)));
+    }
+
+    @Test
+    void longerTermsMatchAnyPart() {
+        assertEquals(List.of("Joanna", "John"), firstNames(userService.searchDirectory("SMITH", null, null, 0, 10)));
+        assertEquals(List.of("Ann"), firstNames(userService.searchDirectory("n.maj", null, null, 0, 10)));
+    }
+
+    @Test
+    void filtersByRoleAndEnabled() {
+        assertEquals(List.of("Mary", "John"), firstNames(userService.searchDirectory("example", EnumRole.ROLE_WORKSHOP, null, 0, 10)));
+        assertEquals(List.of("John"), firstNames(userService.searchDirectory("example", EnumRole.ROLE_WORKSHOP, true, 0, 10)));
+    }
+
+    @Test
+    void wildcardsAreLiteral() {
+        assertEquals(List.of("Mary"), firstNames(userService.searchDirectory("y_j", null, null, 0, 10)));
+        assertTrue(userService.searchDirectory("%", null, null, 0, 10).items().isEmpty());
+    }
+
+    @Test
+    void pagesWithoutCounting() {
+        UserDirectoryDto first = userService.searchDirectory("example", null, null, 0, 3);
+        UserDirectoryDto second = userService.searchDirectory("example", null, null, 1, 3);
+
+        assertEquals(List.of("Mary", "Ann", "Joanna"), firstNames(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of("John"), firstNames(second));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void rejectsBlankTermsAndLargePages() {
+        assertThrows(ArgumentNotPresentException.class, () -> userService.searchDirectory(" ", null, null, 0, 10));
+        assertThrows(ArgumentNotPresentException.class, () -> userService.searchDirectory("jo", null, null, 0, 500));
+    }
+
+    private void save(String firstName, String lastName, String email, boolean enabled, RoleRegistry roleRegistry, EnumRole role) {
+        User user = new User(firstName, lastName, email, "password-hash", enabled);
+        user.setRoles(Set.of(roleRegistry.get(role)));
+        userRepository.save(user);
+    }
+
+    private static List<String> firstNames(UserDirectoryDto page) {
+        return page.items().stream().map(UserDirectoryEntryDto::firstName).toList();
+    }
+}
@@ -0,0 +1,56 @@
+package com.cbcode.dealertasks.UserTests;
+
+import com.cbcode.dealertasks.ExceptionsConfig.ArgumentNotPresentException;
+import com.cbcode.dealertasks.Users.model.DTOs.UserImportRow;
+import com.cbcode.dealertasks.Users.service.impl.UserImportCsv;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportCsvTest {
+
+    @Test
+    void readsColumnsByHeaderName() {
+        List<UserImportRow> rows = UserImportCsv.parse("""
+                email,password,roles,first_name,LastName\r
+                jo@example.com,secret-pass,ROLE_SALES;ROLE_WORKSHOP,Jo,Smith\r
+                \r
+                al@example.com,other-pass,ROLE_VALETER,Al,Jones
+                """);
+
+        assertEquals(2, rows.size());
+        assertEquals(new UserImportRow("Jo", "Smith", "jo@example.com", "secret-pass", Set.of("ROLE_SALES", "ROLE_WORKSHOP")), rows.get(0));
+        assertEquals(new UserImportRow("Al", "Jones", "al@example.com", "other-pass", Set.of("ROLE_VALETER")), rows.get(1));
+    }
+
+    @Test
+    void readsQuotedFields() {
+        List<UserImportRow> rows = UserImportCsv.parse("""
+                firstName,lastName,email,password,roles
+                "Mary, Jane","O""Neil",mj@example.com,"pass,word",ROLE_SALES
+                """);
+
+        assertEquals("Mary, Jane", rows.getFirst().firstName());
+        assertEquals("O\"Neil", rows.getFirst().lastName());
+        assertEquals("pass,word", rows.getFirst().password());
+    }
+
+    @Test
+    void missingFieldsAreNull() {
+        UserImportRow row = UserImportCsv.parse("firstName,lastName,email,password,roles\nJo,,jo@example.com").getFirst();
+
+        assertNull(row.lastName());
+        assertNull(row.password());
+        assertEquals(Set.of(), row.roles());
+    }
+
+    @Test
+    void rejectsHeaderWithoutEveryColumn() {
+        assertThrows(ArgumentNotPresentException.class, () -> UserImportCsv.parse("firstName,lastName,email\nJo,Smith,jo@example.com"));
+        assertThrows(ArgumentNotPresentException.class, () -> UserImportCsv.parse(""));
+        assertThrows(ArgumentNotPresentException.class, () -> UserImportCsv.parse("firstName,lastName,email,password,roles\n\"Jo"));
+    }
+}
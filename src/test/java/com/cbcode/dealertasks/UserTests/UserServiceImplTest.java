@@ -1,8 +1,12 @@
 package com.cbcode.dealertasks.UserTests;
 
+import com.cbcode.dealertasks.Users.model.DTOs.UserDto;
+import com.cbcode.dealertasks.Users.model.User;
 import com.cbcode.dealertasks.Users.repository.UserRepository;
+import com.cbcode.dealertasks.Users.security.SecurityUserService;
 import com.cbcode.dealertasks.Users.service.UserService;
 import com.cbcode.dealertasks.Users.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,8 +14,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
@@ -27,10 +39,60 @@ class UserServiceImplTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     void updateUser() {
     }
 
+    @Test
+    void ownPasswordChangeEvictsCachedUser() {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        SecurityUserService securityUserService = mock(SecurityUserService.class);
+        User user = savedUser();
+        when(passwordEncoder.matches("n3w-pass!word", "old-hash")).thenReturn(false);
+        when(passwordEncoder.encode("n3w-pass!word")).thenReturn("new-hash");
+        UserServiceImpl userService = new UserServiceImpl(userRepository, passwordEncoder, new ModelMapper(), securityUserService);
+
+        userService.updateUser(1L, update("n3w-pass!word", "Jo"));
+
+        assertEquals("new-hash", user.getPassword());
+        verify(securityUserService).evictUser("jo@example.com");
+    }
+
+    @Test
+    void unchangedDetailsKeepCachedUser() {
+        SecurityUserService securityUserService = mock(SecurityUserService.class);
+        savedUser();
+        UserServiceImpl userService = new UserServiceImpl(userRepository, mock(PasswordEncoder.class), new ModelMapper(), securityUserService);
+
+        userService.updateUser(1L, update(null, "Jo"));
+
+        verify(securityUserService, never()).evictUser(any());
+    }
+
+    // The user jo@example.com, updating their own details
+    private User savedUser() {
+        User user = new User("Jo", "Smith", "jo@example.com", "old-hash", true);
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("jo@example.com", null, "ROLE_SALES"));
+        return user;
+    }
+
+    private static UserDto update(String password, String firstName) {
+        UserDto userDto = new UserDto();
+        userDto.setEmail("jo@example.com");
+        userDto.setPassword(password);
+        userDto.setFirstName(firstName);
+        userDto.setLastName("Smith");
+        return userDto;
+    }
+
     @Test
     void deleteUser() {
     }
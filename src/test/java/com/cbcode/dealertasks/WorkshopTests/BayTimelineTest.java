@@ -0,0 +1,58 @@
+package com.cbcode.dealertasks.WorkshopTests;
+
+import com.cbcode.dealertasks.Workshop.service.impl.BayTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BayTimelineTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    private BayTimeline timeline;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new BayTimeline();
+        timeline.add(at(9, 0), at(10, 0));
+        timeline.add(at(10, 30), at(12, 0));
+        timeline.add(at(13, 0), at(14, 0));
+    }
+
+    @Test
+    void earliestStartSkipsGapsThatAreTooShort() {
+        assertEquals(at(8, 0), timeline.earliestStart(at(8, 0), at(18, 0), Duration.ofMinutes(60)));
+        assertEquals(at(12, 0), timeline.earliestStart(at(9, 15), at(18, 0), Duration.ofMinutes(45)));
+        assertEquals(at(10, 0), timeline.earliestStart(at(9, 15), at(18, 0), Duration.ofMinutes(30)));
+        assertEquals(at(14, 0), timeline.earliestStart(at(9, 0), at(18, 0), Duration.ofMinutes(90)));
+    }
+
+    @Test
+    void earliestStartRespectsTheEndOfTheWindow() {
+        assertNull(timeline.earliestStart(at(13, 30), at(15, 0), Duration.ofMinutes(90)));
+        assertEquals(at(14, 0), timeline.earliestStart(at(13, 30), at(15, 30), Duration.ofMinutes(90)));
+    }
+
+    @Test
+    void adjacentSlotsDoNotOverlap() {
+        assertTrue(timeline.isFree(at(10, 0), at(10, 30)));
+        assertFalse(timeline.isFree(at(11, 59), at(12, 30)));
+        assertThrows(IllegalStateException.class, () -> timeline.add(at(8, 30), at(9, 1)));
+    }
+
+    @Test
+    void endedBookingsArePruned() {
+        timeline.removeEndedBy(at(12, 0));
+
+        assertEquals(1, timeline.size());
+        assertTrue(timeline.isFree(at(9, 0), at(12, 0)));
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return DAY.withHour(hour).withMinute(minute);
+    }
+}
@@ -0,0 +1,85 @@
+package com.cbcode.dealertasks.WorkshopTests;
+
+import com.cbcode.dealertasks.Tasks.services.impl.JobDurations;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopEnum;
+import com.cbcode.dealertasks.Workshop.model.Enums.WorkshopStatusEnum;
+import com.cbcode.dealertasks.Workshop.model.Workshop;
+import com.cbcode.dealertasks.Workshop.model.WorkshopBooking;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopBookingRepository;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopBookingSlotRepository;
+import com.cbcode.dealertasks.Workshop.repository.WorkshopRepository;
+import com.cbcode.dealertasks.Workshop.service.impl.WorkshopScheduleServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * One bay; another instance holds the first hour of tomorrow, then cancels it.
+ */
+class WorkshopScheduleServiceTest {
+
+    private static final LocalDateTime TOMORROW = LocalDate.now().plusDays(1).atStartOfDay();
+
+    private WorkshopRepository workshopRepository;
+    private WorkshopBookingRepository bookingRepository;
+    private WorkshopBookingSlotRepository slotRepository;
+
+    @BeforeEach
+    void setUp() {
+        workshopRepository = mock(WorkshopRepository.class);
+        bookingRepository = mock(WorkshopBookingRepository.class);
+        slotRepository = mock(WorkshopBookingSlotRepository.class);
+        when(workshopRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Workshop workshop = new Workshop("MOT", WorkshopStatusEnum.PENDING, WorkshopEnum.MOT);
+            workshop.setId(invocation.getArgument(0));
+            return Optional.of(workshop);
+        });
+        when(bookingRepository.findByWorkshop_Id(anyLong())).thenReturn(Optional.empty());
+        when(slotRepository.insertIfFree(anyLong(), anyInt(), any(), any())).thenReturn(Optional.of(1L));
+        WorkshopBooking booking = mock(WorkshopBooking.class);
+        when(booking.getBay()).thenReturn(1);
+        when(booking.getStartsAt()).thenReturn(TOMORROW.withHour(8));
+        when(booking.getEndsAt()).thenReturn(TOMORROW.withHour(9));
+        when(bookingRepository.findByBayEndingAfter(eq(1), any())).thenReturn(List.of(booking), List.of());
+    }
+
+    @Test
+    void cancellationElsewhereIsSeenOnceTimelineExpires() {
+        WorkshopScheduleServiceImpl service = scheduleService(0);
+
+        assertEquals(TOMORROW.withHour(9), service.reserveSlot(1L, TOMORROW.withHour(8)).startsAt());
+        assertEquals(TOMORROW.withHour(8), service.reserveSlot(2L, TOMORROW.withHour(8)).startsAt());
+    }
+
+    @Test
+    void timelineIsKeptUntilItExpires() {
+        WorkshopScheduleServiceImpl service = scheduleService(60_000);
+
+        assertEquals(TOMORROW.withHour(9), service.reserveSlot(1L, TOMORROW.withHour(8)).startsAt());
+        assertEquals(TOMORROW.withHour(10), service.reserveSlot(2L, TOMORROW.withHour(8)).startsAt());
+        verify(bookingRepository, times(1)).findByBayEndingAfter(eq(1), any());
+    }
+
+    private WorkshopScheduleServiceImpl scheduleService(long timelineTtlInMs) {
+        WorkshopScheduleServiceImpl service = new WorkshopScheduleServiceImpl(workshopRepository, bookingRepository, slotRepository,
+                new JobDurations(new MockEnvironment()));
+        ReflectionTestUtils.setField(service, "bays", 1);
+        ReflectionTestUtils.setField(service, "openingTimeValue", "08:00");
+        ReflectionTestUtils.setField(service, "closingTimeValue", "18:00");
+        ReflectionTestUtils.setField(service, "horizonDays", 30);
+        ReflectionTestUtils.setField(service, "maxReservationAttempts", 3);
+        ReflectionTestUtils.setField(service, "timelineTtlInMs", timelineTtlInMs);
+        service.init();
+        return service;
+    }
+}